@@ -36,6 +36,7 @@ public class Launcher {
 
     private PacManUI pacManUI;
     private Game game;
+    private MapParser mapParser;
 
     /**
      * @return The game object this launcher will start when {@link #launch()}
@@ -98,11 +99,16 @@ public class Launcher {
     }
 
     /**
-     * @return A new map parser object using the factories from
-     *         {@link #getLevelFactory()} and {@link #getBoardFactory()}.
+     * @return The map parser of this launcher, created on first use with the
+     *         factories from {@link #getLevelFactory()} and
+     *         {@link #getBoardFactory()}. It is kept so that every map is only
+     *         read once, however many games are made.
      */
-    protected MapParser getMapParser() {
-        return new MapParser(getLevelFactory(), getBoardFactory());
+    protected synchronized MapParser getMapParser() {
+        if (mapParser == null) {
+            mapParser = new MapParser(getLevelFactory(), getBoardFactory());
+        }
+        return mapParser;
     }
 
     /**
@@ -165,7 +171,7 @@ public class Launcher {
     private Action moveTowardsDirection(Direction direction) {
         return () -> {
             assert game != null;
-            getGame().move(getSinglePlayer(getGame()), direction);
+            getGame().getInputQueue().submit(getSinglePlayer(getGame()), direction);
         };
     }
 
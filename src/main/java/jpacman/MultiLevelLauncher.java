@@ -1,11 +1,15 @@
 package jpacman;
 
 import jpacman.game.GameFactory;
+import jpacman.game.LevelPlaylist;
 import jpacman.game.MultiLevelGame;
 import jpacman.level.Level;
 import jpacman.points.PointCalculatorLoader;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
 
 /**
  * Used to launch a multilevel game.
@@ -25,40 +29,55 @@ public class MultiLevelLauncher extends Launcher {
     }
 
     /**
-     * Creates a new game using the level from {@link #makeLevel()}.
+     * Creates a new game using the levels from {@link #makePlaylist()}.
      *
      * @return a new Game.
      */
     @Override
     public MultiLevelGame makeGame() {
         GameFactory gf = getGameFactory();
-        Level[] levels = makeLevels();
-        multiGame = gf.createMultiLevelGame(levels, new PointCalculatorLoader().load());
+        multiGame = gf.createMultiLevelGame(makePlaylist(), new PointCalculatorLoader().load());
         return multiGame;
     }
 
+    /**
+     * Create the playlist for this game, which loads the level for every map
+     * when the level before it is being played.
+     *
+     * @return the playlist of the levels of this game
+     */
+    public LevelPlaylist makePlaylist() {
+        // Create the parser now, so the background loads share it.
+        getMapParser();
+        List<Supplier<Level>> loaders = new ArrayList<>();
+        for (String map : maps) {
+            loaders.add(() -> makeLevel(map));
+        }
+        return new LevelPlaylist(loaders);
+    }
 
     /**
-     * Create the levels for this game.
+     * Create the levels for this game, all at once.
      *
-     * @return an array of levels for this game
+     * @return an array of levels for this game, one for every map
      */
     public Level[] makeLevels() {
-        final int nbrLevels = 4;
-        Level[] levels = new Level[nbrLevels];
-
+        Level[] levels = new Level[maps.length];
         for (int i = 0; i < maps.length; i++) {
-            try {
-                levels[i] = getMapParser().parseMap(maps[i]);
-            } catch (IOException e) {
-                throw new PacmanConfigurationException(
-                    "Unable to create level, name = " + getLevelMap(), e);
-            }
+            levels[i] = makeLevel(maps[i]);
         }
-
         return levels;
     }
 
+    private Level makeLevel(String map) {
+        try {
+            return getMapParser().parseMap(map);
+        } catch (IOException e) {
+            throw new PacmanConfigurationException(
+                "Unable to create level, name = " + map, e);
+        }
+    }
+
     /**
      * Create levels from text files.
      *
@@ -13,6 +13,17 @@ public class Board {
      */
     private final Square[][] board;
 
+    /**
+     * The squares of the board in row-major order, with squares[id] being the
+     * square with that id.
+     */
+    private final Square[] squares;
+
+    /**
+     * The units on this board, by their type.
+     */
+    private final UnitRegistry units;
+
     /**
      * Creates a new board.
      *
@@ -25,6 +36,14 @@ public class Board {
         assert grid != null;
         this.board = grid;
         assert invariant() : "Initial grid cannot contain null squares";
+
+        this.squares = new Square[getWidth() * getHeight()];
+        for (int x = 0; x < getWidth(); x++) {
+            for (int y = 0; y < getHeight(); y++) {
+                squares[idOf(x, y)] = grid[x][y];
+            }
+        }
+        this.units = new UnitRegistry(this);
     }
 
     /**
@@ -91,4 +110,71 @@ public class Board {
     public boolean withinBorders(int x, int y) {
         return x >= 0 && x < getWidth() && y >= 0 && y < getHeight();
     }
+
+    /**
+     * Returns the number of squares on this board. Square ids range from 0 up
+     * to this number.
+     *
+     * @return The number of squares on this board.
+     */
+    public int getSquareCount() {
+        return squares.length;
+    }
+
+    /**
+     * Returns the id of the square at the given <code>x,y</code> position.
+     *
+     * Precondition: The <code>(x, y)</code> coordinates are within the
+     * width and height of the board.
+     *
+     * @param x
+     *            The <code>x</code> position (column) of the square.
+     * @param y
+     *            The <code>y</code> position (row) of the square.
+     * @return The id of the square at the given <code>x,y</code> position.
+     */
+    public int idOf(int x, int y) {
+        assert withinBorders(x, y);
+        return y * getWidth() + x;
+    }
+
+    /**
+     * Returns the square with the given id.
+     *
+     * Precondition: <code>0 &lt;= id &lt; getSquareCount()</code>.
+     *
+     * @param id
+     *            The id of the requested square.
+     * @return The square with the given id (never null).
+     */
+    public Square squareById(int id) {
+        assert id >= 0 && id < squares.length;
+        return squares[id];
+    }
+
+    /**
+     * Returns the units on this board, grouped by their type.
+     *
+     * @return The unit registry of this board.
+     */
+    public UnitRegistry getUnits() {
+        return units;
+    }
+
+    /**
+     * Returns the number of steps between two squares of this board when
+     * terrain is ignored, taking into account that the board wraps around at
+     * its edges.
+     *
+     * @param from
+     *            The first square.
+     * @param to
+     *            The second square.
+     * @return The wrapped Manhattan distance between the squares.
+     */
+    public int manhattanDistance(Square from, Square to) {
+        int dx = Math.abs(from.getX() - to.getX());
+        int dy = Math.abs(from.getY() - to.getY());
+        return Math.min(dx, getWidth() - dx) + Math.min(dy, getHeight() - dy);
+    }
 }
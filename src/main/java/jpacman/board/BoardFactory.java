@@ -11,6 +11,11 @@ import jpacman.sprite.Sprite;
  */
 public class BoardFactory {
 
+    /**
+     * The directions every square is linked in.
+     */
+    private static final Direction[] DIRECTIONS = Direction.values();
+
     /**
      * The sprite store providing the sprites for the background.
      */
@@ -28,7 +33,8 @@ public class BoardFactory {
     }
 
     /**
-     * Creates a new board from a grid of cells and connects it.
+     * Creates a new board from a grid of cells and connects it. Every square
+     * is told its board, its position and its id on the board.
      *
      * @param grid
      *            The square grid of cells, in which grid[x][y] corresponds to
@@ -45,7 +51,8 @@ public class BoardFactory {
         for (int x = 0; x < width; x++) {
             for (int y = 0; y < height; y++) {
                 Square square = grid[x][y];
-                for (Direction dir : Direction.values()) {
+                square.place(board, x, y);
+                for (Direction dir : DIRECTIONS) {
                     int dirX = (width + x + dir.getDeltaX()) % width;
                     int dirY = (height + y + dir.getDeltaY()) % height;
                     Square neighbour = grid[dirX][dirY];
@@ -1,9 +1,11 @@
 package jpacman.board;
 
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 import com.google.common.collect.ImmutableList;
 
@@ -18,24 +20,128 @@ import jpacman.sprite.Sprite;
 public abstract class Square {
 
     /**
-     * The units occupying this square, in order of appearance.
+     * The number of occupants a square has room for before it needs to grow.
      */
-    private final List<Unit> occupants;
+    private static final int INITIAL_OCCUPANTS = 4;
+
+    /**
+     * The units occupying this square, in order of appearance, followed by
+     * <code>null</code>s. Readers iterate over this array directly rather
+     * than over a copy; they may run on other threads than the moving units,
+     * so they take a local reference and skip the <code>null</code>s.
+     */
+    private volatile Unit[] occupants;
+
+    /**
+     * The number of units occupying this square.
+     */
+    private volatile int occupantCount;
 
     /**
      * The collection of squares adjacent to this square.
      */
     private final Map<Direction, Square> neighbours;
 
+    /**
+     * The board this square is on, or <code>null</code> if it is not on a
+     * board.
+     */
+    private Board board;
+
+    /**
+     * The index of this square on its board, or <code>-1</code> if it is not
+     * on a board.
+     */
+    private int id;
+
+    /**
+     * The column of this square on its board, or <code>-1</code> if it is not
+     * on a board.
+     */
+    private int x;
+
+    /**
+     * The row of this square on its board, or <code>-1</code> if it is not on
+     * a board.
+     */
+    private int y;
+
     /**
      * Creates a new, empty square.
      */
     protected Square() {
-        this.occupants = new ArrayList<>();
+        this.occupants = new Unit[INITIAL_OCCUPANTS];
+        this.occupantCount = 0;
         this.neighbours = new EnumMap<>(Direction.class);
+        this.board = null;
+        this.id = -1;
+        this.x = -1;
+        this.y = -1;
         assert invariant();
     }
 
+    /**
+     * Returns the board this square is on.
+     *
+     * @return The board of this square, or <code>null</code> if it has not
+     *         been placed on a board.
+     */
+    public Board getBoard() {
+        return board;
+    }
+
+    /**
+     * Returns the index of this square on its board. Indices are dense, i.e.
+     * the squares of a board are numbered from 0 up to the number of squares
+     * on the board, which allows per-square state to be kept in arrays.
+     *
+     * @return The index of this square, or <code>-1</code> if it has not been
+     *         placed on a board.
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Returns the column of this square on its board.
+     *
+     * @return The <code>x</code> position of this square, or <code>-1</code>
+     *         if it has not been placed on a board.
+     */
+    public int getX() {
+        return x;
+    }
+
+    /**
+     * Returns the row of this square on its board.
+     *
+     * @return The <code>y</code> position of this square, or <code>-1</code>
+     *         if it has not been placed on a board.
+     */
+    public int getY() {
+        return y;
+    }
+
+    /**
+     * Places this square on a board, registering the units already occupying
+     * it with the board.
+     *
+     * @param owner
+     *            The board this square is on.
+     * @param column
+     *            The <code>x</code> position of this square.
+     * @param row
+     *            The <code>y</code> position of this square.
+     */
+    void place(Board owner, int column, int row) {
+        assert owner != null;
+        this.board = owner;
+        this.id = owner.idOf(column, row);
+        this.x = column;
+        this.y = row;
+        forEachOccupant(owner.getUnits()::add);
+    }
+
     /**
      * Returns the square adjacent to this square.
      *
@@ -63,13 +169,120 @@ public abstract class Square {
 
     /**
      * Returns an immutable list of units occupying this square, in the order in
-     * which they occupied this square (i.e. oldest first.)
+     * which they occupied this square (i.e. oldest first.) This copies the
+     * occupants; use {@link #forEachOccupant(Consumer)} or one of the other
+     * lookups to read them without allocating.
      *
      * @return An immutable list of units occupying this square, in the order in
      *         which they occupied this square (i.e. oldest first.)
      */
     public List<Unit> getOccupants() {
-        return ImmutableList.copyOf(occupants);
+        Unit[] units = occupants;
+        int count = Math.min(occupantCount, units.length);
+        ImmutableList.Builder<Unit> copy = ImmutableList.builderWithExpectedSize(count);
+        for (int i = 0; i < count; i++) {
+            Unit unit = units[i];
+            if (unit != null) {
+                copy.add(unit);
+            }
+        }
+        return copy.build();
+    }
+
+    /**
+     * Returns the number of units occupying this square.
+     *
+     * @return The number of occupants of this square.
+     */
+    public int occupantCount() {
+        return occupantCount;
+    }
+
+    /**
+     * Performs an action for every unit occupying this square, in the order
+     * in which they occupied this square (i.e. oldest first.)
+     *
+     * @param action
+     *            The action to perform for each occupant.
+     */
+    public void forEachOccupant(Consumer<? super Unit> action) {
+        Unit[] units = occupants;
+        int count = Math.min(occupantCount, units.length);
+        for (int i = 0; i < count; i++) {
+            Unit unit = units[i];
+            if (unit != null) {
+                action.accept(unit);
+            }
+        }
+    }
+
+    /**
+     * Adds the units occupying this square to a collection, in the order in
+     * which they occupied this square (i.e. oldest first.)
+     *
+     * @param target
+     *            The collection to add the occupants to.
+     */
+    public void occupantsInto(Collection<? super Unit> target) {
+        Unit[] units = occupants;
+        int count = Math.min(occupantCount, units.length);
+        for (int i = 0; i < count; i++) {
+            Unit unit = units[i];
+            if (unit != null) {
+                target.add(unit);
+            }
+        }
+    }
+
+    /**
+     * Determines whether a unit occupies this square.
+     *
+     * @param unit
+     *            The unit to look for.
+     * @return <code>true</code> iff the unit is one of the occupants.
+     */
+    public boolean hasOccupant(Unit unit) {
+        Unit[] units = occupants;
+        int count = Math.min(occupantCount, units.length);
+        for (int i = 0; i < count; i++) {
+            if (units[i] == unit) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Determines whether a unit of a certain type occupies this square.
+     *
+     * @param type
+     *            The type to look for.
+     * @return <code>true</code> iff one of the occupants is of the given type.
+     */
+    public boolean hasOccupantOfType(Class<? extends Unit> type) {
+        return findOccupant(type) != null;
+    }
+
+    /**
+     * Returns the oldest occupant of a certain type.
+     *
+     * @param type
+     *            The type to look for.
+     * @param <T>
+     *            The type to look for.
+     * @return The unit of the given type that occupied this square first, or
+     *         <code>null</code> if there is none.
+     */
+    public <T extends Unit> T findOccupant(Class<T> type) {
+        Unit[] units = occupants;
+        int count = Math.min(occupantCount, units.length);
+        for (int i = 0; i < count; i++) {
+            Unit unit = units[i];
+            if (type.isInstance(unit)) {
+                return type.cast(unit);
+            }
+        }
+        return null;
     }
 
     /**
@@ -80,9 +293,16 @@ public abstract class Square {
      */
     void put(Unit occupant) {
         assert occupant != null;
-        assert !occupants.contains(occupant);
+        assert !hasOccupant(occupant);
 
-        occupants.add(occupant);
+        Unit[] units = occupants;
+        if (occupantCount == units.length) {
+            units = Arrays.copyOf(units, units.length * 2);
+        }
+        units[occupantCount] = occupant;
+        occupants = units;
+        occupantCount++;
+        changed();
     }
 
     /**
@@ -93,7 +313,27 @@ public abstract class Square {
      */
     void remove(Unit occupant) {
         assert occupant != null;
-        occupants.remove(occupant);
+        Unit[] units = occupants;
+        int count = occupantCount;
+        for (int i = 0; i < count; i++) {
+            if (units[i] == occupant) {
+                System.arraycopy(units, i + 1, units, i, count - i - 1);
+                units[count - 1] = null;
+                occupantCount = count - 1;
+                changed();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Reports to the units of the board that this square shows something
+     * else than before.
+     */
+    void changed() {
+        if (board != null) {
+            board.getUnits().squareChanged(this);
+        }
     }
 
     /**
@@ -104,8 +344,11 @@ public abstract class Square {
      *         square listed as the square they are currently occupying.
      */
     protected final boolean invariant(Square this) {
-        for (Unit occupant : occupants) {
-            if (occupant.hasSquare() && occupant.getSquare() != this) {
+        Unit[] units = occupants;
+        int count = Math.min(occupantCount, units.length);
+        for (int i = 0; i < count; i++) {
+            Unit occupant = units[i];
+            if (occupant != null && occupant.hasSquare() && occupant.getSquare() != this) {
                 return false;
             }
         }
@@ -31,7 +31,12 @@ public abstract class Unit {
      * @param newDirection The new direction this unit is facing.
      */
     public void setDirection(Direction newDirection) {
-        this.direction = newDirection;
+        if (newDirection != direction) {
+            this.direction = newDirection;
+            if (square != null) {
+                square.changed();
+            }
+        }
     }
 
     /**
@@ -65,7 +70,8 @@ public abstract class Unit {
 
     /**
      * Occupies the target square iff this unit is allowed to as decided by
-     * {@link Square#isAccessibleTo(Unit)}.
+     * {@link Square#isAccessibleTo(Unit)}. The unit is registered with the
+     * {@link UnitRegistry} of the target's board when it moves onto a board.
      *
      * @param target
      *            The square to occupy.
@@ -73,21 +79,36 @@ public abstract class Unit {
     public void occupy(Square target) {
         assert target != null;
 
+        Board previous = null;
         if (square != null) {
+            previous = square.getBoard();
             square.remove(this);
         }
         square = target;
         target.put(this);
+        Board next = target.getBoard();
+        if (previous != next) {
+            if (previous != null) {
+                previous.getUnits().remove(this);
+            }
+            if (next != null) {
+                next.getUnits().add(this);
+            }
+        }
         assert invariant();
     }
 
     /**
-     * Leaves the currently occupying square, thus removing this unit from the board.
+     * Leaves the currently occupying square, thus removing this unit from the board
+     * and its {@link UnitRegistry}.
      * 离开当前占用的方块，从而将该单元从棋盘上移除。
      */
     public void leaveSquare() {
         if (square != null) {
             square.remove(this);
+            if (square.getBoard() != null) {
+                square.getBoard().getUnits().remove(this);
+            }
             square = null;
         }
         assert invariant();
@@ -102,7 +123,7 @@ public abstract class Unit {
      *         not occupying any square.
      */
     protected boolean invariant() {
-        return square == null || square.getOccupants().contains(this);
+        return square == null || square.hasOccupant(this);
     }
 
     /**
@@ -0,0 +1,252 @@
+package jpacman.board;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * The units on a {@link Board}, grouped by their type. Units register
+ * themselves when they occupy a square of the board and unregister when they
+ * leave it, so questions like "where are the players" or "how many pellets
+ * are left" can be answered by looking at the units of that type only,
+ * instead of scanning every square.
+ * <p>
+ * Units are grouped by their exact class. A query for a type looks at every
+ * group whose class is that type or a subtype of it; there are only a handful
+ * of unit classes, so this costs next to nothing compared to the units
+ * themselves.
+ * <p>
+ * All methods are synchronized, since ghosts query the registry from their
+ * own threads while units are moved. Observers are notified while the
+ * registry is locked, so they should do little more than update a counter.
+ */
+public final class UnitRegistry {
+
+    /**
+     * The board the units are on.
+     */
+    private final Board board;
+
+    /**
+     * The units on the board by their class, in order of registration.
+     */
+    private final Map<Class<?>, Set<Unit>> units;
+
+    /**
+     * The objects observing this registry.
+     */
+    private final List<UnitObserver> observers;
+
+    /**
+     * Creates a new, empty registry.
+     *
+     * @param board
+     *            The board the units are on.
+     */
+    UnitRegistry(Board board) {
+        assert board != null;
+        this.board = board;
+        this.units = new LinkedHashMap<>();
+        this.observers = new CopyOnWriteArrayList<>();
+    }
+
+    /**
+     * Adds an observer that will be notified when units are registered or
+     * unregistered.
+     *
+     * @param observer
+     *            The observer that will be notified.
+     */
+    public void addObserver(UnitObserver observer) {
+        observers.add(observer);
+    }
+
+    /**
+     * Removes an observer if it was listed.
+     *
+     * @param observer
+     *            The observer to be removed.
+     */
+    public void removeObserver(UnitObserver observer) {
+        observers.remove(observer);
+    }
+
+    /**
+     * Registers a unit that occupied a square of the board.
+     *
+     * @param unit
+     *            The unit to register.
+     */
+    synchronized void add(Unit unit) {
+        assert unit != null;
+        if (units.computeIfAbsent(unit.getClass(), type -> new LinkedHashSet<>()).add(unit)) {
+            for (UnitObserver observer : observers) {
+                observer.unitAdded(unit);
+            }
+        }
+    }
+
+    /**
+     * Unregisters a unit that left the board.
+     *
+     * @param unit
+     *            The unit to unregister.
+     */
+    synchronized void remove(Unit unit) {
+        assert unit != null;
+        Set<Unit> group = units.get(unit.getClass());
+        if (group != null && group.remove(unit)) {
+            for (UnitObserver observer : observers) {
+                observer.unitRemoved(unit);
+            }
+        }
+    }
+
+    /**
+     * Tells the observers that what a square shows has changed, because a
+     * unit arrived on it, left it, or turned around on it. Unlike the other
+     * notifications, this does not lock the registry.
+     *
+     * @param square
+     *            The square that changed.
+     */
+    void squareChanged(Square square) {
+        for (UnitObserver observer : observers) {
+            observer.squareChanged(square);
+        }
+    }
+
+    /**
+     * Counts the units of a type on the board.
+     *
+     * @param type
+     *            The type of unit to count.
+     * @return The number of units of the given type on the board.
+     */
+    public synchronized int count(Class<? extends Unit> type) {
+        int count = 0;
+        for (Map.Entry<Class<?>, Set<Unit>> entry : units.entrySet()) {
+            if (type.isAssignableFrom(entry.getKey())) {
+                count += entry.getValue().size();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the units of a type on the board.
+     *
+     * @param type
+     *            The type of unit to look for.
+     * @param <T>
+     *            The type of unit to look for.
+     * @return A new list with the units of the given type, in order of
+     *         registration per class.
+     */
+    public synchronized <T extends Unit> List<T> unitsOf(Class<T> type) {
+        List<T> result = new ArrayList<>();
+        for (Map.Entry<Class<?>, Set<Unit>> entry : units.entrySet()) {
+            if (type.isAssignableFrom(entry.getKey())) {
+                for (Unit unit : entry.getValue()) {
+                    result.add(type.cast(unit));
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns a unit of a type on the board.
+     *
+     * @param type
+     *            The type of unit to look for.
+     * @param <T>
+     *            The type of unit to look for.
+     * @return The first registered unit of the given type, or
+     *         <code>null</code> if there is none.
+     */
+    public synchronized <T extends Unit> T first(Class<T> type) {
+        for (Map.Entry<Class<?>, Set<Unit>> entry : units.entrySet()) {
+            if (type.isAssignableFrom(entry.getKey()) && !entry.getValue().isEmpty()) {
+                return type.cast(entry.getValue().iterator().next());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Finds the unit of a type nearest to a square, ignoring terrain, if no
+     * other unit of that type is as near. The distance is measured with
+     * {@link Board#manhattanDistance(Square, Square)}. Ties are not broken
+     * here, since which of the units is found first depends on the order of
+     * the search that is used to find them.
+     *
+     * @param type
+     *            The type of unit to look for.
+     * @param from
+     *            The square to measure from.
+     * @param <T>
+     *            The type of unit to look for.
+     * @return The nearest unit of the given type, or <code>null</code> if
+     *         there is none or several units are equally near.
+     */
+    public synchronized <T extends Unit> T nearest(Class<T> type, Square from) {
+        assert from != null;
+        Unit nearest = null;
+        int best = Integer.MAX_VALUE;
+        boolean tied = false;
+        for (Map.Entry<Class<?>, Set<Unit>> entry : units.entrySet()) {
+            if (!type.isAssignableFrom(entry.getKey())) {
+                continue;
+            }
+            for (Unit unit : entry.getValue()) {
+                int distance = board.manhattanDistance(from, unit.getSquare());
+                if (distance < best) {
+                    best = distance;
+                    nearest = unit;
+                    tied = false;
+                } else if (distance == best) {
+                    tied = true;
+                }
+            }
+        }
+        return tied ? null : type.cast(nearest);
+    }
+
+    /**
+     * An observer that will be notified when units arrive on or leave the
+     * board, and, if it wants to, when units move around on it.
+     */
+    public interface UnitObserver {
+
+        /**
+         * A unit has been placed on the board.
+         *
+         * @param unit
+         *            The unit that was registered.
+         */
+        void unitAdded(Unit unit);
+
+        /**
+         * A unit has left the board.
+         *
+         * @param unit
+         *            The unit that was unregistered.
+         */
+        void unitRemoved(Unit unit);
+
+        /**
+         * A unit arrived on, left or turned around on a square of the board.
+         *
+         * @param square
+         *            The square that changed.
+         */
+        default void squareChanged(Square square) {
+            // most observers only follow the units.
+        }
+    }
+}
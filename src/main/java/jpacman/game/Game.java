@@ -1,10 +1,17 @@
 package jpacman.game;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import jpacman.board.Direction;
 import jpacman.level.Level;
+import jpacman.level.LiveResources;
 import jpacman.level.Player;
+import jpacman.level.RandomService;
 import jpacman.points.PointCalculator;
 
 /**
@@ -12,13 +19,39 @@ import jpacman.points.PointCalculator;
  *
  * @author Jeroen Roosen 
  */
-public abstract class Game implements Level.LevelObserver {
+public abstract class Game implements Level.LevelObserver, AutoCloseable {
+
+    /**
+     * The time between two ticks of a game in progress, in milliseconds.
+     */
+    static final long TICK_INTERVAL = 16L;
+
+    /**
+     * The time an idle game thread is kept around, in milliseconds.
+     */
+    private static final long IDLE_TIMEOUT = 1000L;
+
+    /**
+     * The time closing a game waits for its game thread to end, in
+     * milliseconds.
+     */
+    private static final long CLOSE_TIMEOUT = 1000L;
+
+    /**
+     * The number of game threads created so far, used to name them.
+     */
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
 
     /**
      * <code>true</code> if the game is in progress.
      */
     private boolean inProgress;
 
+    /**
+     * <code>true</code> if the game has been closed.
+     */
+    private boolean closed;
+
     /**
      * Object that locks the start and stop methods.
      */
@@ -30,6 +63,32 @@ public abstract class Game implements Level.LevelObserver {
      */
     private PointCalculator pointCalculator;
 
+    /**
+     * The source of randomness of this game, shared by its levels.
+     */
+    private RandomService randomService;
+
+    /**
+     * The moves the players asked for through the user interface.
+     */
+    private final InputQueue inputQueue;
+
+    /**
+     * The single thread that ticks this game, or <code>null</code> if the
+     * game has not been started yet or has been closed.
+     */
+    private ScheduledThreadPoolExecutor gameThread;
+
+    /**
+     * The thread currently running the ticks of this game, if any.
+     */
+    private volatile Thread ticker;
+
+    /**
+     * The ticks of this game while it is in progress.
+     */
+    private ScheduledFuture<?> ticks;
+
     /**
      * Creates a new game.
      *
@@ -38,6 +97,8 @@ public abstract class Game implements Level.LevelObserver {
      */
     protected Game(PointCalculator pointCalculator) {
         this.pointCalculator = pointCalculator;
+        this.randomService = new RandomService();
+        this.inputQueue = new InputQueue(this);
         inProgress = false;
     }
 
@@ -46,17 +107,53 @@ public abstract class Game implements Level.LevelObserver {
      */
     public void start() {
         synchronized (progressLock) {
-            if (isInProgress()) {
+            if (isInProgress() || closed) {
                 return;
             }
             if (getLevel().isAnyPlayerAlive() && getLevel().remainingPellets() > 0) {
                 inProgress = true;
+                getLevel().setRandomService(randomService);
                 getLevel().addObserver(this);
                 getLevel().start();
+                if (gameThread == null) {
+                    gameThread = createGameThread();
+                }
+                ticks = gameThread.scheduleAtFixedRate(this::tick,
+                    TICK_INTERVAL, TICK_INTERVAL, TimeUnit.MILLISECONDS);
             }
         }
     }
 
+    /**
+     * Creates the thread that ticks this game. It is a daemon thread so that
+     * it never keeps the application alive, and it stops after a while when
+     * the game is paused.
+     *
+     * @return A new single threaded executor.
+     */
+    private ScheduledThreadPoolExecutor createGameThread() {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, task -> {
+            Thread thread = new Thread(task, "game-" + THREAD_COUNT.incrementAndGet());
+            thread.setDaemon(true);
+            ticker = thread;
+            return thread;
+        });
+        executor.setRemoveOnCancelPolicy(true);
+        executor.setKeepAliveTime(IDLE_TIMEOUT, TimeUnit.MILLISECONDS);
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Advances the game by one tick: applies the moves the players asked for
+     * since the previous tick and publishes a snapshot of the level with
+     * those and the moves of the NPCs. Runs on the game thread only.
+     */
+    void tick() {
+        inputQueue.drain();
+        getLevel().publishFrame();
+    }
+
     /**
      * Pauses the game.
      */
@@ -66,10 +163,107 @@ public abstract class Game implements Level.LevelObserver {
                 return;
             }
             inProgress = false;
+            ticks.cancel(false);
+            ticks = null;
+            inputQueue.clear();
             getLevel().stop();
         }
     }
 
+    /**
+     * @return The source of randomness of this game.
+     */
+    public RandomService getRandomService() {
+        return randomService;
+    }
+
+    /**
+     * Replaces the source of randomness of this game, e.g. with a seeded one
+     * to replay a game. Levels draw from it when they are started.
+     *
+     * @param service
+     *            The new source of randomness.
+     */
+    public void setRandomService(RandomService service) {
+        assert service != null;
+        this.randomService = service;
+    }
+
+    /**
+     * Returns the queue through which the user interface moves the players,
+     * so that it never waits for a level while a ghost is moving on it. The
+     * moves are made on the game thread, once per tick.
+     *
+     * @return The input queue of this game.
+     */
+    public InputQueue getInputQueue() {
+        return inputQueue;
+    }
+
+    /**
+     * Ends the game for good, closing all of its levels so that they release
+     * their NPC move tasks and observers, discarding the pending moves of its
+     * players and shutting down its game thread. A closed game cannot be started
+     * again. Closing a closed game has no effect.
+     */
+    @Override
+    public void close() {
+        ScheduledThreadPoolExecutor executor;
+        synchronized (progressLock) {
+            stop();
+            closed = true;
+            inputQueue.close();
+            executor = gameThread;
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+            for (Level level : getLevels()) {
+                level.removeObserver(this);
+                level.close();
+            }
+        }
+        // a tick may need the progress lock to stop the game
+        if (executor != null) {
+            awaitTermination(executor);
+        }
+    }
+
+    /**
+     * Waits for the game thread to end, unless the game is being closed from
+     * that very thread, e.g. by an observer of its level.
+     *
+     * @param executor
+     *            The game thread, which has been shut down.
+     */
+    private void awaitTermination(ScheduledThreadPoolExecutor executor) {
+        if (Thread.currentThread() == ticker) {
+            return;
+        }
+        try {
+            executor.awaitTermination(CLOSE_TIMEOUT, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Reports the resources this game and its levels are holding on to.
+     *
+     * @return The game thread of this game, if it is still running, and the
+     *         NPC move tasks and observers of all levels of this game.
+     */
+    public LiveResources getLiveResources() {
+        LiveResources resources;
+        synchronized (progressLock) {
+            int executors = gameThread == null || gameThread.isTerminated() ? 0 : 1;
+            resources = new LiveResources(0, 0, executors);
+        }
+        for (Level level : getLevels()) {
+            resources = resources.plus(level.getLiveResources());
+        }
+        return resources;
+    }
+
     /**
      * @return <code>true</code> iff the game is started and in progress.
      */
@@ -87,6 +281,14 @@ public abstract class Game implements Level.LevelObserver {
      */
     public abstract Level getLevel();
 
+    /**
+     * @return All levels of this game, including the ones that have not been
+     *         played yet.
+     */
+    protected List<Level> getLevels() {
+        return Collections.singletonList(getLevel());
+    }
+
     /**
      * Moves the specified player one square in the given direction.
      *
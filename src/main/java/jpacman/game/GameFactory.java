@@ -47,6 +47,19 @@ public class GameFactory {
         return new MultiLevelGame(playerFactory.createPacMan(), levels, pointCalculator);
     }
 
+    /**
+     * Creates a game for multiple levels with one player, loading every level
+     * while the one before it is played.
+     *
+     * @param levels          The levels to create a game for, in order.
+     * @param pointCalculator The way to calculate points upon collisions.
+     * @return A new multi level game.
+     */
+    public MultiLevelGame createMultiLevelGame(LevelPlaylist levels,
+                                               PointCalculator pointCalculator) {
+        return new MultiLevelGame(playerFactory.createPacMan(), levels, pointCalculator);
+    }
+
     /**
      * Returns the player factory associated with this game factory.
      *
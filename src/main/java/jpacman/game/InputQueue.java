@@ -0,0 +1,205 @@
+package jpacman.game;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import jpacman.board.Direction;
+import jpacman.level.Player;
+
+/**
+ * The moves the players asked for that have not been made yet. Key listeners
+ * run on the Swing event dispatch thread, which must not wait for a level
+ * while a ghost is moving on it, so they only submit an intent here. The
+ * game thread drains the intents once per tick of the game and applies them.
+ * <p>
+ * Every player has a single slot, so the intents submitted during a tick
+ * coalesce into the most recent one: each tick applies at most one move per
+ * player. The time from submitting an intent to having applied it is
+ * measured for every applied move.
+ */
+public final class InputQueue {
+
+    /**
+     * The game the moves are made in.
+     */
+    private final Game game;
+
+    /**
+     * The pending intent of each player, or <code>null</code> if there is
+     * none.
+     */
+    private final Map<Player, AtomicReference<Intent>> intents;
+
+    /**
+     * The number of moves applied so far.
+     */
+    private final AtomicLong appliedMoves;
+
+    /**
+     * The sum of the latencies of all applied moves, in nanoseconds.
+     */
+    private final AtomicLong totalLatency;
+
+    /**
+     * The latency of the last applied move, in nanoseconds.
+     */
+    private final AtomicLong lastLatency;
+
+    /**
+     * The highest latency of any applied move, in nanoseconds.
+     */
+    private final AtomicLong maxLatency;
+
+    /**
+     * <code>true</code> if this queue no longer accepts intents.
+     */
+    private volatile boolean closed;
+
+    /**
+     * Creates a new, empty input queue.
+     *
+     * @param game
+     *            The game to make the moves in.
+     */
+    public InputQueue(Game game) {
+        assert game != null;
+        this.game = game;
+        this.intents = new ConcurrentHashMap<>();
+        this.appliedMoves = new AtomicLong();
+        this.totalLatency = new AtomicLong();
+        this.lastLatency = new AtomicLong();
+        this.maxLatency = new AtomicLong();
+    }
+
+    /**
+     * Asks for a player to be moved. This never waits for the game: the move
+     * is made on the next tick of the game, unless another intent of the same
+     * player replaces this one before that.
+     *
+     * @param player
+     *            The player to move.
+     * @param direction
+     *            The direction to move in.
+     */
+    public void submit(Player player, Direction direction) {
+        assert player != null;
+        assert direction != null;
+        if (closed) {
+            return;
+        }
+        slotOf(player).set(new Intent(direction, System.nanoTime()));
+    }
+
+    private AtomicReference<Intent> slotOf(Player player) {
+        AtomicReference<Intent> slot = intents.get(player);
+        if (slot == null) {
+            slot = intents.computeIfAbsent(player, key -> new AtomicReference<>());
+        }
+        return slot;
+    }
+
+    /**
+     * Applies the pending intent of every player. Called by the game thread
+     * once per tick.
+     */
+    void drain() {
+        for (Map.Entry<Player, AtomicReference<Intent>> entry : intents.entrySet()) {
+            Intent intent = entry.getValue().getAndSet(null);
+            if (intent != null && !closed) {
+                game.move(entry.getKey(), intent.direction);
+                record(System.nanoTime() - intent.submitted);
+            }
+        }
+    }
+
+    /**
+     * Discards the pending intents, e.g. when the game is paused, so that
+     * keys pressed in between are not applied when it is resumed.
+     */
+    void clear() {
+        for (AtomicReference<Intent> slot : intents.values()) {
+            slot.set(null);
+        }
+    }
+
+    private void record(long latency) {
+        appliedMoves.incrementAndGet();
+        totalLatency.addAndGet(latency);
+        lastLatency.set(latency);
+        maxLatency.accumulateAndGet(latency, Math::max);
+    }
+
+    /**
+     * Discards all pending intents and ignores the ones submitted from now on.
+     */
+    public void close() {
+        closed = true;
+        intents.clear();
+    }
+
+    /**
+     * @return <code>true</code> iff this queue no longer accepts intents.
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * @return The number of moves applied so far, which is less than the
+     *         number of intents submitted if some were coalesced.
+     */
+    public long getAppliedMoves() {
+        return appliedMoves.get();
+    }
+
+    /**
+     * @return The time between submitting and applying the last applied
+     *         move, in nanoseconds, or 0 if no move was applied yet.
+     */
+    public long getLastLatency() {
+        return lastLatency.get();
+    }
+
+    /**
+     * @return The highest time between submitting and applying a move, in
+     *         nanoseconds, or 0 if no move was applied yet.
+     */
+    public long getMaxLatency() {
+        return maxLatency.get();
+    }
+
+    /**
+     * @return The mean time between submitting and applying a move, in
+     *         nanoseconds, or 0 if no move was applied yet.
+     */
+    public long getMeanLatency() {
+        long moves = appliedMoves.get();
+        if (moves == 0) {
+            return 0;
+        }
+        return totalLatency.get() / moves;
+    }
+
+    /**
+     * A move a player asked for.
+     */
+    private static final class Intent {
+
+        /**
+         * The direction to move in.
+         */
+        private final Direction direction;
+
+        /**
+         * The value of {@link System#nanoTime()} when the move was asked for.
+         */
+        private final long submitted;
+
+        Intent(Direction direction, long submitted) {
+            this.direction = direction;
+            this.submitted = submitted;
+        }
+    }
+}
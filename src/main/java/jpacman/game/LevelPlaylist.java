@@ -0,0 +1,209 @@
+package jpacman.game;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+
+import com.google.common.collect.ImmutableList;
+
+import jpacman.level.Level;
+
+/**
+ * The levels of a {@link MultiLevelGame}, in the order in which they are
+ * played. Levels are only created when they are about to be played: asking
+ * for a level starts loading the one after it in the background, so that it
+ * is usually ready by the time the current level is won, and starting a game
+ * only waits for its first level.
+ * <p>
+ * A level is loaded at most once. A load may run at the same time as the
+ * loads of other playlists, such as the one of the previous game, so loaders
+ * that share a parser or factory must be thread safe, as
+ * {@link jpacman.level.MapParser} is.
+ */
+public final class LevelPlaylist {
+
+    /**
+     * The loaders of the levels, in order.
+     */
+    private final List<Supplier<Level>> loaders;
+
+    /**
+     * The executor loading the levels in the background.
+     */
+    private final Executor executor;
+
+    /**
+     * The level at every position, or <code>null</code> if it has not been
+     * asked for yet.
+     */
+    private final AtomicReferenceArray<CompletableFuture<Level>> levels;
+
+    /**
+     * <code>true</code> if the levels have been closed.
+     */
+    private volatile boolean closed;
+
+    /**
+     * Creates a new playlist that loads its levels on the common pool.
+     *
+     * @param loaders
+     *            The loaders of the levels, in order. Each is called at most
+     *            once.
+     */
+    public LevelPlaylist(List<Supplier<Level>> loaders) {
+        this(loaders, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a new playlist.
+     *
+     * @param loaders
+     *            The loaders of the levels, in order. Each is called at most
+     *            once.
+     * @param executor
+     *            The executor loading the levels in the background.
+     */
+    public LevelPlaylist(List<Supplier<Level>> loaders, Executor executor) {
+        assert loaders != null && !loaders.isEmpty();
+        assert executor != null;
+        this.loaders = ImmutableList.copyOf(loaders);
+        this.executor = executor;
+        this.levels = new AtomicReferenceArray<>(loaders.size());
+    }
+
+    /**
+     * Creates a playlist of levels that have already been created.
+     *
+     * @param levels
+     *            The levels, in order.
+     * @return A playlist of the levels.
+     */
+    public static LevelPlaylist of(Level... levels) {
+        List<Supplier<Level>> loaders = new ArrayList<>();
+        for (Level level : levels) {
+            assert level != null;
+            loaders.add(() -> level);
+        }
+        return new LevelPlaylist(loaders, Runnable::run);
+    }
+
+    /**
+     * @return The number of levels.
+     */
+    public int size() {
+        return loaders.size();
+    }
+
+    /**
+     * Returns a level, loading it on the calling thread if it has not been
+     * asked for before, or waiting for it if it is being loaded in the
+     * background. Loading of the next level is started in the background.
+     *
+     * @param index
+     *            The position of the level.
+     * @return The level at the given position.
+     */
+    public Level get(int index) {
+        assert index >= 0 && index < size();
+        CompletableFuture<Level> level = levels.get(index);
+        if (level == null) {
+            CompletableFuture<Level> loading = new CompletableFuture<>();
+            if (levels.compareAndSet(index, null, loading)) {
+                load(index, loading);
+            }
+            level = levels.get(index);
+        }
+        Level loaded = join(level);
+        prefetch(index + 1);
+        return loaded;
+    }
+
+    /**
+     * Starts loading a level in the background, unless it has been asked for
+     * before.
+     *
+     * @param index
+     *            The position of the level. Positions past the last level
+     *            are ignored.
+     */
+    public void prefetch(int index) {
+        if (closed || index >= size() || levels.get(index) != null) {
+            return;
+        }
+        CompletableFuture<Level> loading = new CompletableFuture<>();
+        if (levels.compareAndSet(index, null, loading)) {
+            executor.execute(() -> load(index, loading));
+        }
+    }
+
+    private void load(int index, CompletableFuture<Level> loading) {
+        Level level;
+        try {
+            level = loaders.get(index).get();
+        } catch (RuntimeException | Error e) {
+            loading.completeExceptionally(e);
+            return;
+        }
+        loading.complete(level);
+        if (closed) {
+            level.close();
+        }
+    }
+
+    private static Level join(CompletableFuture<Level> level) {
+        try {
+            return level.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Determines whether a level has been loaded.
+     *
+     * @param index
+     *            The position of the level.
+     * @return <code>true</code> iff the level has been loaded successfully.
+     */
+    public boolean isLoaded(int index) {
+        CompletableFuture<Level> level = levels.get(index);
+        return level != null && level.isDone() && !level.isCompletedExceptionally();
+    }
+
+    /**
+     * @return The levels that have been loaded so far, in order.
+     */
+    public List<Level> getLoaded() {
+        List<Level> loaded = new ArrayList<>();
+        for (int i = 0; i < size(); i++) {
+            if (isLoaded(i)) {
+                loaded.add(levels.get(i).join());
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Closes all levels, including the ones still being loaded, which are
+     * closed as soon as they are done. No more levels are loaded in the
+     * background afterwards.
+     */
+    public void close() {
+        closed = true;
+        // Levels still being loaded are closed by their load when it is done.
+        for (Level level : getLoaded()) {
+            level.close();
+        }
+    }
+}
@@ -5,6 +5,7 @@ import jpacman.level.Level;
 import jpacman.level.Player;
 import jpacman.points.PointCalculator;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -18,33 +19,72 @@ public class MultiLevelGame extends Game {
     private final Player player;
 
     /**
-     * The level of this game.
+     * The levels of this game, in order.
      */
-    private final Level[] levels;
+    private final LevelPlaylist levels;
 
+    /**
+     * The position of the level being played.
+     */
     private int level;
 
+    /**
+     * The level being played.
+     */
+    private volatile Level current;
+
     /**
      * Create a new single player game for the provided level and player.
      *
      * @param player
      *            The player.
      * @param levels
-     *            The level.
+     *            The levels, in order. Empty (<code>null</code>) slots, as
+     *            left by launchers that allocate more slots than they have
+     *            maps, are skipped, so they are never played or closed.
      * @param pointCalculator
      *            The way to calculate points upon collisions.
      */
     protected MultiLevelGame(Player player, Level[] levels, PointCalculator pointCalculator) {
+        this(player, LevelPlaylist.of(withoutEmptySlots(levels)), pointCalculator);
+    }
+
+    private static Level[] withoutEmptySlots(Level[] levels) {
+        assert levels != null;
+        List<Level> present = new ArrayList<>();
+        for (Level level : levels) {
+            if (level != null) {
+                present.add(level);
+            }
+        }
+        return present.toArray(new Level[0]);
+    }
+
+    /**
+     * Create a new single player game for the levels of a playlist. Only the
+     * first level is loaded before the game is created; every later level is
+     * loaded while the one before it is played.
+     *
+     * @param player
+     *            The player.
+     * @param levels
+     *            The levels, in order.
+     * @param pointCalculator
+     *            The way to calculate points upon collisions.
+     */
+    protected MultiLevelGame(Player player, LevelPlaylist levels,
+                             PointCalculator pointCalculator) {
         super(pointCalculator);
 
         assert player != null;
         assert levels != null;
 
         this.player = player;
-        this.levels = levels.clone();
+        this.levels = levels;
         this.level = 0;
+        this.current = levels.get(level);
 
-        this.levels[level].registerPlayer(player);
+        current.registerPlayer(player);
     }
 
     @Override
@@ -54,18 +94,52 @@ public class MultiLevelGame extends Game {
 
     @Override
     public Level getLevel() {
-        return levels[level];
+        return current;
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * Only the levels that have been loaded so far are included.
+     * </p>
+     */
+    @Override
+    protected List<Level> getLevels() {
+        return levels.getLoaded();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * Levels that are still being loaded are closed once they are done.
+     * </p>
+     */
+    @Override
+    public void close() {
+        super.close();
+        levels.close();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * The level that was won is closed, releasing its NPCs, and the player
+     * moves on to the next level, if there is one.
+     * </p>
+     */
     @Override
     public void levelWon() {
-        final int nbrLevels = 3;
-        if (level < nbrLevels) {
+        Level finished = getLevel();
+        stop();
+        finished.removeObserver(this);
+        finished.close();
+        if (level + 1 < levels.size()) {
             level++;
-            levels[level].registerPlayer(player);
-            stop();
-        } else {
-            stop();
+            current = levels.get(level);
+            current.registerPlayer(player);
         }
     }
 }
@@ -0,0 +1,444 @@
+package jpacman.level;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import jpacman.PacmanConfigurationException;
+
+/**
+ * A compact binary form of the text maps read by {@link MapParser}, which
+ * can be loaded without decoding any text. Binary maps are made from text
+ * maps with {@link #encode(LevelTemplate)} or the {@link #main(String[])}
+ * converter, and loaded with {@link MapParser#parseBinaryMap(Path)}.
+ * <p>
+ * Numbers are big-endian 32 bit integers unless noted otherwise. A binary
+ * map consists of:
+ * <ol>
+ * <li>A header of {@link #HEADER_BYTES} bytes: the {@link #MAGIC} number,
+ * the format {@link #VERSION}, the width and height of the map, and the
+ * number of pellets, ghosts and start positions.</li>
+ * <li>The terrain, one bit per square in the row-major order of the square
+ * ids of the board, with the lowest bit of every byte first. A set bit is a
+ * wall, a clear bit is ground.</li>
+ * <li>The square ids of the ghosts and then of the start positions. They are
+ * listed in the order in which {@link MapParser} creates them from a text
+ * map, column by column, so that they get the same ghost types and player
+ * order.</li>
+ * <li>The square ids of the pellets in increasing order, each stored as the
+ * number of squares skipped since the previous pellet. These gaps are
+ * unsigned variable-length numbers of seven bits per byte, lowest bits
+ * first, with the high bit set on every byte but the last. Pellets are
+ * usually close together, so most take one byte.</li>
+ * </ol>
+ */
+public final class BinaryMapFormat {
+
+    /**
+     * The first four bytes of every binary map, "JPML" in ASCII.
+     */
+    public static final int MAGIC = 0x4A504D4C;
+
+    /**
+     * The version of the format written by this class.
+     */
+    public static final int VERSION = 1;
+
+    /**
+     * The size of the header, in bytes.
+     */
+    public static final int HEADER_BYTES = 7 * Integer.BYTES;
+
+    /**
+     * The bits of a pellet gap stored per byte.
+     */
+    private static final int GAP_BITS = 0x7F;
+
+    /**
+     * The bit set on every byte of a pellet gap but the last.
+     */
+    private static final int GAP_MORE = 0x80;
+
+    /**
+     * The number of bits of a pellet gap stored per byte.
+     */
+    private static final int GAP_SHIFT = 7;
+
+    /**
+     * The largest number of bytes a pellet gap takes.
+     */
+    private static final int MAX_GAP_BYTES = 5;
+
+    private BinaryMapFormat() {
+    }
+
+    /**
+     * Encodes a map into the binary format.
+     *
+     * @param template
+     *            The map to encode.
+     * @return The binary map, from position 0 up to its limit.
+     * @throws PacmanConfigurationException
+     *             If the map contains characters other than those listed at
+     *             {@link MapParser#parseMap(char[][])}.
+     */
+    public static ByteBuffer encode(LevelTemplate template) {
+        int width = template.getWidth();
+        int height = template.getHeight();
+        int[] ghosts = new int[template.count('G')];
+        int[] starts = new int[template.count('P')];
+        int pellets = template.count('.');
+        byte[] terrain = new byte[terrainBytes(width * height)];
+
+        int ghost = 0;
+        int start = 0;
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                int id = y * width + x;
+                char c = template.getCell(x, y);
+                switch (c) {
+                    case '#':
+                        terrain[id >> 3] |= 1 << (id & 7);
+                        break;
+                    case ' ':
+                    case '.':
+                        break;
+                    case 'G':
+                        ghosts[ghost++] = id;
+                        break;
+                    case 'P':
+                        starts[start++] = id;
+                        break;
+                    default:
+                        throw new PacmanConfigurationException("Invalid character at "
+                            + x + "," + y + ": " + c);
+                }
+            }
+        }
+
+        ByteBuffer map = ByteBuffer.allocate(HEADER_BYTES + terrain.length
+            + (ghosts.length + starts.length) * Integer.BYTES + pellets * MAX_GAP_BYTES);
+        map.putInt(MAGIC).putInt(VERSION).putInt(width).putInt(height)
+            .putInt(pellets).putInt(ghosts.length).putInt(starts.length);
+        map.put(terrain);
+        for (int id : ghosts) {
+            map.putInt(id);
+        }
+        for (int id : starts) {
+            map.putInt(id);
+        }
+        int previous = -1;
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                if (template.getCell(x, y) == '.') {
+                    int id = y * width + x;
+                    putGap(map, id - previous - 1);
+                    previous = id;
+                }
+            }
+        }
+        map.flip();
+        return map;
+    }
+
+    private static void putGap(ByteBuffer map, int gap) {
+        int rest = gap;
+        while ((rest & ~GAP_BITS) != 0) {
+            map.put((byte) (rest & GAP_BITS | GAP_MORE));
+            rest >>>= GAP_SHIFT;
+        }
+        map.put((byte) rest);
+    }
+
+    /**
+     * Decodes a binary map into the characters of a text map.
+     *
+     * @param name
+     *            The name of the map.
+     * @param map
+     *            The binary map, from its position up to its limit.
+     * @return The map as a template.
+     * @throws PacmanConfigurationException
+     *             If the map is not a valid binary map.
+     */
+    public static LevelTemplate decode(String name, ByteBuffer map) {
+        Header header = Header.read(map);
+        int width = header.width;
+        byte[] cells = new byte[width * header.height];
+        for (int id = 0; id < cells.length; id++) {
+            cells[id] = (byte) (header.isWall(map, id) ? '#' : ' ');
+        }
+        int offset = header.listsStart;
+        for (int i = 0; i < header.ghosts; i++, offset += Integer.BYTES) {
+            cells[header.squareAt(map, offset)] = 'G';
+        }
+        for (int i = 0; i < header.starts; i++, offset += Integer.BYTES) {
+            cells[header.squareAt(map, offset)] = 'P';
+        }
+        ByteBuffer pellets = header.pelletsOf(map);
+        int id = -1;
+        for (int i = 0; i < header.pellets; i++) {
+            id = header.nextPellet(map, pellets, id);
+            cells[id] = '.';
+        }
+        header.checkEnd(pellets);
+        return new LevelTemplate(name, width, header.height, cells);
+    }
+
+    /**
+     * Writes a map to a file in the binary format.
+     *
+     * @param template
+     *            The map to write.
+     * @param file
+     *            The file to write to, which is replaced if it exists.
+     * @throws IOException
+     *             when the file could not be written.
+     */
+    public static void write(LevelTemplate template, Path file) throws IOException {
+        ByteBuffer map = encode(template);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (map.hasRemaining()) {
+                channel.write(map);
+            }
+        }
+    }
+
+    /**
+     * Converts a text map file into a binary map file.
+     *
+     * @param text
+     *            The text map to read.
+     * @param binary
+     *            The file to write the binary map to.
+     * @throws IOException
+     *             when either file could not be accessed.
+     */
+    public static void convert(Path text, Path binary) throws IOException {
+        ByteBuffer map = ByteBuffer.wrap(Files.readAllBytes(text));
+        write(MapParser.templateOf(text.toString(), map), binary);
+    }
+
+    /**
+     * Converts a text map file into a binary map file.
+     *
+     * @param args
+     *            The text map to read and the binary map to write.
+     * @throws IOException
+     *             when either file could not be accessed.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            throw new IllegalArgumentException(
+                "Usage: BinaryMapFormat <text map> <binary map>");
+        }
+        convert(Paths.get(args[0]), Paths.get(args[1]));
+    }
+
+    /**
+     * Returns the size of the terrain of a map.
+     *
+     * @param squares
+     *            The number of squares on the map.
+     * @return The number of bytes holding the terrain bits.
+     */
+    static int terrainBytes(int squares) {
+        return (int) (((long) squares + Byte.SIZE - 1) / Byte.SIZE);
+    }
+
+    /**
+     * The header of a binary map, checked against the size of the map.
+     */
+    static final class Header {
+
+        /**
+         * The width of the map.
+         */
+        final int width;
+
+        /**
+         * The height of the map.
+         */
+        final int height;
+
+        /**
+         * The number of pellets.
+         */
+        final int pellets;
+
+        /**
+         * The number of ghosts.
+         */
+        final int ghosts;
+
+        /**
+         * The number of start positions.
+         */
+        final int starts;
+
+        /**
+         * The index in the buffer of the first terrain byte.
+         */
+        final int terrainStart;
+
+        /**
+         * The index in the buffer of the first square id of the ghosts.
+         */
+        final int listsStart;
+
+        /**
+         * The index in the buffer of the first pellet gap.
+         */
+        final int pelletsStart;
+
+        private Header(int width, int height, int pellets, int ghosts, int starts,
+                       int terrainStart) {
+            this.width = width;
+            this.height = height;
+            this.pellets = pellets;
+            this.ghosts = ghosts;
+            this.starts = starts;
+            this.terrainStart = terrainStart;
+            this.listsStart = terrainStart + terrainBytes(width * height);
+            this.pelletsStart = listsStart + (ghosts + starts) * Integer.BYTES;
+        }
+
+        /**
+         * Reads and checks the header at the position of a binary map.
+         *
+         * @param map
+         *            The binary map, from its position up to its limit.
+         * @return The header of the map.
+         * @throws PacmanConfigurationException
+         *             If the map is not a valid binary map.
+         */
+        static Header read(ByteBuffer map) {
+            int start = map.position();
+            if (map.remaining() < HEADER_BYTES || map.getInt(start) != MAGIC) {
+                throw new PacmanConfigurationException("Not a binary map.");
+            }
+            int version = map.getInt(start + Integer.BYTES);
+            if (version != VERSION) {
+                throw new PacmanConfigurationException(
+                    "Unsupported binary map version: " + version);
+            }
+            int width = map.getInt(start + 2 * Integer.BYTES);
+            int height = map.getInt(start + 3 * Integer.BYTES);
+            int pellets = map.getInt(start + 4 * Integer.BYTES);
+            int ghosts = map.getInt(start + 5 * Integer.BYTES);
+            int starts = map.getInt(start + 6 * Integer.BYTES);
+            if (width <= 0 || height <= 0 || (long) width * height > Integer.MAX_VALUE) {
+                throw new PacmanConfigurationException("Invalid binary map size: "
+                    + width + "x" + height);
+            }
+            if (pellets < 0 || ghosts < 0 || starts < 0) {
+                throw new PacmanConfigurationException("Invalid binary map unit counts.");
+            }
+            long size = HEADER_BYTES + (long) terrainBytes(width * height)
+                + ((long) ghosts + starts) * Integer.BYTES + pellets;
+            if (map.remaining() < size) {
+                throw new PacmanConfigurationException("Binary map is truncated.");
+            }
+            return new Header(width, height, pellets, ghosts, starts, start + HEADER_BYTES);
+        }
+
+        /**
+         * Determines whether a square is a wall.
+         *
+         * @param map
+         *            The binary map.
+         * @param id
+         *            The id of the square.
+         * @return <code>true</code> iff the terrain bit of the square is set.
+         */
+        boolean isWall(ByteBuffer map, int id) {
+            return (map.get(terrainStart + (id >> 3)) & (1 << (id & 7))) != 0;
+        }
+
+        /**
+         * Reads the id of a square with a unit on it, which must be ground.
+         *
+         * @param map
+         *            The binary map.
+         * @param index
+         *            The index in the buffer of the id.
+         * @return The id of the square.
+         * @throws PacmanConfigurationException
+         *             If the id is not that of a ground square.
+         */
+        int squareAt(ByteBuffer map, int index) {
+            int id = map.getInt(index);
+            if (id < 0 || id >= width * height || isWall(map, id)) {
+                throw new PacmanConfigurationException(
+                    "Invalid square in binary map: " + id);
+            }
+            return id;
+        }
+
+        /**
+         * @param map
+         *            The binary map.
+         * @return A view of the map positioned at its first pellet gap.
+         */
+        ByteBuffer pelletsOf(ByteBuffer map) {
+            ByteBuffer pellets = map.duplicate();
+            pellets.position(pelletsStart);
+            return pellets;
+        }
+
+        /**
+         * Reads the id of the next pellet, which must be on ground.
+         *
+         * @param map
+         *            The binary map.
+         * @param pellets
+         *            The view of the map at the gap of the next pellet.
+         * @param previous
+         *            The id of the previous pellet, or <code>-1</code> for
+         *            the first one.
+         * @return The id of the square of the next pellet.
+         * @throws PacmanConfigurationException
+         *             If the id is not that of a ground square.
+         */
+        int nextPellet(ByteBuffer map, ByteBuffer pellets, int previous) {
+            long gap = 0;
+            int shift = 0;
+            int b;
+            do {
+                if (!pellets.hasRemaining() || shift > Integer.SIZE) {
+                    throw new PacmanConfigurationException("Binary map is truncated.");
+                }
+                b = pellets.get();
+                gap |= (long) (b & GAP_BITS) << shift;
+                shift += GAP_SHIFT;
+            } while ((b & GAP_MORE) != 0);
+
+            long id = previous + 1 + gap;
+            if (id >= (long) width * height || isWall(map, (int) id)) {
+                throw new PacmanConfigurationException(
+                    "Invalid square in binary map: " + id);
+            }
+            return (int) id;
+        }
+
+        /**
+         * Checks that all of a binary map has been read.
+         *
+         * @param pellets
+         *            The view of the map after the gap of the last pellet.
+         * @throws PacmanConfigurationException
+         *             If there are bytes left.
+         */
+        void checkEnd(ByteBuffer pellets) {
+            if (pellets.hasRemaining()) {
+                throw new PacmanConfigurationException("Binary map has "
+                    + pellets.remaining() + " bytes too many.");
+            }
+        }
+    }
+}
@@ -4,28 +4,48 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import jpacman.board.Unit;
 
 /**
  * A map of possible collisions and their handlers.
+ * <p>
+ * The handler for a pair of concrete unit classes is looked up through the
+ * inheritance of both classes only once; after that it is taken from a
+ * cache, which is replaced by an empty one whenever a handler is added.
  *
  * @author Michael de Jong
  * @author Jeroen Roosen 
  */
 public class CollisionInteractionMap implements CollisionMap {
 
+    /**
+     * The handler cached for pairs of classes that have no handler.
+     */
+    private static final CollisionHandler<Unit, Unit> NO_HANDLER = (collider, collidee) -> { };
+
     /**
      * The collection of collision handlers.
      */
     private final Map<Class<? extends Unit>,
         Map<Class<? extends Unit>, CollisionHandler<?, ?>>> handlers;
 
+    /**
+     * The handler to use for each pair of concrete collider and collidee
+     * classes that collided before, with {@link #NO_HANDLER} for pairs
+     * without a handler. A collision that looked up its handler before a
+     * handler was added stores it in the cache that was replaced, so that it
+     * cannot shadow the new handler.
+     */
+    private volatile Map<Class<?>, Map<Class<?>, CollisionHandler<?, ?>>> dispatch;
+
     /**
      * Creates a new, empty collision map.
      */
     public CollisionInteractionMap() {
         this.handlers = new HashMap<>();
+        this.dispatch = new ConcurrentHashMap<>();
     }
 
     /**
@@ -95,6 +115,7 @@ public class CollisionInteractionMap implements CollisionMap {
 
         Map<Class<? extends Unit>, CollisionHandler<?, ?>> map = handlers.get(collider);
         map.put(collidee, handler);
+        dispatch = new ConcurrentHashMap<>();
     }
 
     /**
@@ -115,23 +136,44 @@ public class CollisionInteractionMap implements CollisionMap {
     @Override
     public <C1 extends Unit, C2 extends Unit> void collide(C1 collider,
                                                            C2 collidee) {
-        Class<? extends Unit> colliderKey = getMostSpecificClass(handlers, collider.getClass());
+        Map<Class<?>, CollisionHandler<?, ?>> byCollidee =
+            dispatch.computeIfAbsent(collider.getClass(), key -> new ConcurrentHashMap<>());
+        CollisionHandler<?, ?> handler = byCollidee.get(collidee.getClass());
+        if (handler == null) {
+            handler = findHandler(collider.getClass(), collidee.getClass());
+            byCollidee.put(collidee.getClass(), handler);
+        }
+        ((CollisionHandler<C1, C2>) handler).handleCollision(collider, collidee);
+    }
+
+    /**
+     * Finds the handler for a pair of classes by walking their inheritance.
+     *
+     * @param collider
+     *            The class of the collider.
+     * @param collidee
+     *            The class of the collidee.
+     * @return The most specific handler listed for the collider, or
+     *         {@link #NO_HANDLER} if there is none.
+     */
+    private CollisionHandler<?, ?> findHandler(Class<? extends Unit> collider,
+                                               Class<? extends Unit> collidee) {
+        Class<? extends Unit> colliderKey = getMostSpecificClass(handlers, collider);
         if (colliderKey == null) {
-            return;
+            return NO_HANDLER;
         }
 
         Map<Class<? extends Unit>, CollisionHandler<?, ?>> map = handlers.get(colliderKey);
-        Class<? extends Unit> collideeKey = getMostSpecificClass(map, collidee.getClass());
+        Class<? extends Unit> collideeKey = getMostSpecificClass(map, collidee);
         if (collideeKey == null) {
-            return;
+            return NO_HANDLER;
         }
 
-        CollisionHandler<C1, C2> collisionHandler = (CollisionHandler<C1, C2>) map.get(collideeKey);
+        CollisionHandler<?, ?> collisionHandler = map.get(collideeKey);
         if (collisionHandler == null) {
-            return;
+            return NO_HANDLER;
         }
-
-        collisionHandler.handleCollision(collider, collidee);
+        return collisionHandler;
     }
 
     /**
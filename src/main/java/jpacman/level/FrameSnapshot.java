@@ -0,0 +1,400 @@
+package jpacman.level;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import jpacman.board.Board;
+import jpacman.board.Direction;
+import jpacman.board.Square;
+import jpacman.board.Unit;
+import jpacman.sprite.Sprite;
+
+/**
+ * An immutable picture of a level at one moment, captured by the level after
+ * every tick of the game while no unit can move. Only the first snapshot of a
+ * level is read from the whole board; every later one is made from the one
+ * before and the squares that changed in between. Renderers and other readers
+ * use the latest snapshot instead of walking the live board, so they never
+ * wait for the level and never see a move half done.
+ * <p>
+ * The terrain is a sprite id per square, in the row-major order of the square
+ * ids of the board. The units are listed in the same order, and per square
+ * in the order in which they occupied it, so drawing them in list order
+ * draws them as the board would. Sprites are referred to by their id in the
+ * {@link SpriteTable} of the level, which is shared by all its snapshots.
+ */
+public final class FrameSnapshot {
+
+    /**
+     * The number of this snapshot among the snapshots of its level.
+     */
+    private final long sequence;
+
+    /**
+     * The width of the board.
+     */
+    private final int width;
+
+    /**
+     * The height of the board.
+     */
+    private final int height;
+
+    /**
+     * The sprite id of every square, indexed by square id. Shared by all
+     * snapshots of a level, since the terrain does not change.
+     */
+    private final int[] terrain;
+
+    /**
+     * The sprites the ids of this snapshot refer to.
+     */
+    private final SpriteTable sprites;
+
+    /**
+     * The square id of every unit.
+     */
+    private final int[] unitSquares;
+
+    /**
+     * The direction every unit is facing.
+     */
+    private final Direction[] unitDirections;
+
+    /**
+     * The sprite id of every unit.
+     */
+    private final int[] unitSprites;
+
+    /**
+     * The score of every player, in order of registration.
+     */
+    private final int[] scores;
+
+    /**
+     * Whether every player is alive, in order of registration.
+     */
+    private final boolean[] alive;
+
+    private FrameSnapshot(long sequence, int width, int height, int[] terrain,
+                          SpriteTable sprites, int unitCount, int playerCount) {
+        this.sequence = sequence;
+        this.width = width;
+        this.height = height;
+        this.terrain = terrain;
+        this.sprites = sprites;
+        this.unitSquares = new int[unitCount];
+        this.unitDirections = new Direction[unitCount];
+        this.unitSprites = new int[unitCount];
+        this.scores = new int[playerCount];
+        this.alive = new boolean[playerCount];
+    }
+
+    /**
+     * Collects the sprite ids of the squares of a board, which can be shared
+     * by all snapshots of that board.
+     *
+     * @param board
+     *            The board to collect the terrain of.
+     * @param sprites
+     *            The table to look the sprite ids up in.
+     * @return The sprite id of every square, indexed by square id.
+     */
+    static int[] terrainOf(Board board, SpriteTable sprites) {
+        int[] terrain = new int[board.getSquareCount()];
+        for (int y = 0; y < board.getHeight(); y++) {
+            for (int x = 0; x < board.getWidth(); x++) {
+                terrain[board.idOf(x, y)] = sprites.idOf(board.squareAt(x, y).getSprite());
+            }
+        }
+        return terrain;
+    }
+
+    /**
+     * Captures the current state of a board. Units must not move while the
+     * board is being captured.
+     *
+     * @param sequence
+     *            The number of the new snapshot.
+     * @param board
+     *            The board to capture.
+     * @param terrain
+     *            The sprite ids of the squares of the board, see
+     *            {@link #terrainOf(Board, SpriteTable)}.
+     * @param sprites
+     *            The table the terrain was looked up in.
+     * @param players
+     *            The players of the level, in order of registration.
+     * @return A snapshot of the board.
+     */
+    static FrameSnapshot capture(long sequence, Board board, int[] terrain,
+                                 SpriteTable sprites, List<Player> players) {
+        List<Unit> units = new ArrayList<>();
+        int[] squares = new int[board.getSquareCount()];
+        for (int y = 0; y < board.getHeight(); y++) {
+            for (int x = 0; x < board.getWidth(); x++) {
+                Square square = board.squareAt(x, y);
+                int start = units.size();
+                square.occupantsInto(units);
+                if (units.size() > squares.length) {
+                    squares = Arrays.copyOf(squares, Math.max(units.size(), squares.length * 2));
+                }
+                Arrays.fill(squares, start, units.size(), board.idOf(x, y));
+            }
+        }
+        FrameSnapshot frame = new FrameSnapshot(sequence, board.getWidth(),
+            board.getHeight(), terrain, sprites, units.size(), players.size());
+        System.arraycopy(squares, 0, frame.unitSquares, 0, units.size());
+        for (int i = 0; i < units.size(); i++) {
+            Unit unit = units.get(i);
+            frame.unitDirections[i] = unit.getDirection();
+            frame.unitSprites[i] = sprites.idOf(unit.getSprite());
+        }
+        frame.capturePlayers(players);
+        return frame;
+    }
+
+    /**
+     * Captures the state of a board after some of its squares changed,
+     * starting from this snapshot of the same board. Only the given squares
+     * are read from the board; the units of all other squares are copied
+     * from this snapshot. Units must not move while the board is being
+     * captured.
+     *
+     * @param nextSequence
+     *            The number of the new snapshot.
+     * @param board
+     *            The board this snapshot was captured from.
+     * @param refresh
+     *            The ids of the squares to read from the board: the squares
+     *            that changed since this snapshot and the squares of the
+     *            players, whose sprites change when they die.
+     * @param players
+     *            The players of the level, in order of registration.
+     * @param units
+     *            An empty list to collect the units of the refreshed squares
+     *            in, so that it can be reused from one capture to the next.
+     *            It is empty again when this method returns.
+     * @return A snapshot of the board.
+     */
+    FrameSnapshot next(long nextSequence, Board board, BitSet refresh, List<Player> players,
+                       List<Unit> units) {
+        assert board.getWidth() == width && board.getHeight() == height;
+        assert units.isEmpty();
+
+        int kept = unitSquares.length;
+        for (int id = refresh.nextSetBit(0); id >= 0; id = refresh.nextSetBit(id + 1)) {
+            board.squareById(id).occupantsInto(units);
+            kept -= firstUnitOn(id + 1) - firstUnitOn(id);
+        }
+
+        FrameSnapshot frame = new FrameSnapshot(nextSequence, width, height, terrain,
+            sprites, kept + units.size(), players.size());
+        int from = 0;
+        int to = 0;
+        int unit = 0;
+        for (int id = refresh.nextSetBit(0); id >= 0; id = refresh.nextSetBit(id + 1)) {
+            to = frame.copyUnits(this, from, firstUnitOn(id), to);
+            // the units of a square were collected together, in order
+            for (; unit < units.size() && units.get(unit).getSquare().getId() == id;
+                 unit++, to++) {
+                Unit occupant = units.get(unit);
+                frame.unitSquares[to] = id;
+                frame.unitDirections[to] = occupant.getDirection();
+                frame.unitSprites[to] = sprites.idOf(occupant.getSprite());
+            }
+            from = firstUnitOn(id + 1);
+        }
+        frame.copyUnits(this, from, unitSquares.length, to);
+        frame.capturePlayers(players);
+        units.clear();
+        return frame;
+    }
+
+    /**
+     * Returns the index of the first unit on or after a square.
+     */
+    private int firstUnitOn(int square) {
+        int low = 0;
+        int high = unitSquares.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (unitSquares[middle] < square) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Copies a range of units of another snapshot into this one.
+     *
+     * @return The index after the last unit copied.
+     */
+    private int copyUnits(FrameSnapshot source, int from, int until, int to) {
+        int length = until - from;
+        System.arraycopy(source.unitSquares, from, unitSquares, to, length);
+        System.arraycopy(source.unitDirections, from, unitDirections, to, length);
+        System.arraycopy(source.unitSprites, from, unitSprites, to, length);
+        return to + length;
+    }
+
+    private void capturePlayers(List<Player> players) {
+        for (int i = 0; i < players.size(); i++) {
+            Player player = players.get(i);
+            scores[i] = player.getScore();
+            alive[i] = player.isAlive();
+        }
+    }
+
+    /**
+     * @return The number of this snapshot among the snapshots of its level.
+     *         Later snapshots of the same level have higher numbers.
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * @return The width of the board.
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * @return The height of the board.
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Returns the sprite of a square.
+     *
+     * @param x
+     *            The <code>x</code> position of the square.
+     * @param y
+     *            The <code>y</code> position of the square.
+     * @return The sprite of the square at the given position.
+     */
+    public Sprite getTerrain(int x, int y) {
+        return sprites.getSprite(getTerrainId(x, y));
+    }
+
+    /**
+     * Returns the sprite id of a square.
+     *
+     * @param x
+     *            The <code>x</code> position of the square.
+     * @param y
+     *            The <code>y</code> position of the square.
+     * @return The id of the sprite of the square at the given position.
+     */
+    public int getTerrainId(int x, int y) {
+        assert x >= 0 && x < width;
+        assert y >= 0 && y < height;
+        return terrain[y * width + x];
+    }
+
+    /**
+     * @return The table the sprite ids of this snapshot refer to.
+     */
+    public SpriteTable getSprites() {
+        return sprites;
+    }
+
+    /**
+     * Determines whether another snapshot shows the same terrain, i.e. was
+     * captured on the same level, so that anything drawn from the terrain of
+     * one can be reused for the other.
+     *
+     * @param other
+     *            The snapshot to compare with.
+     * @return <code>true</code> iff both snapshots share their terrain.
+     */
+    public boolean hasSameTerrain(FrameSnapshot other) {
+        return other != null && terrain == other.terrain;
+    }
+
+    /**
+     * @return The number of units on the board.
+     */
+    public int getUnitCount() {
+        return unitSquares.length;
+    }
+
+    /**
+     * @param index
+     *            The index of the unit.
+     * @return The <code>x</code> position of the unit.
+     */
+    public int getUnitX(int index) {
+        return unitSquares[index] % width;
+    }
+
+    /**
+     * @param index
+     *            The index of the unit.
+     * @return The <code>y</code> position of the unit.
+     */
+    public int getUnitY(int index) {
+        return unitSquares[index] / width;
+    }
+
+    /**
+     * @param index
+     *            The index of the unit.
+     * @return The direction the unit is facing.
+     */
+    public Direction getUnitDirection(int index) {
+        return unitDirections[index];
+    }
+
+    /**
+     * @param index
+     *            The index of the unit.
+     * @return The sprite of the unit.
+     */
+    public Sprite getUnitSprite(int index) {
+        return sprites.getSprite(unitSprites[index]);
+    }
+
+    /**
+     * @param index
+     *            The index of the unit.
+     * @return The id of the sprite of the unit.
+     */
+    public int getUnitSpriteId(int index) {
+        return unitSprites[index];
+    }
+
+    /**
+     * @return The number of players on the level.
+     */
+    public int getPlayerCount() {
+        return scores.length;
+    }
+
+    /**
+     * @param index
+     *            The index of the player, in order of registration.
+     * @return The score of the player.
+     */
+    public int getScore(int index) {
+        return scores[index];
+    }
+
+    /**
+     * @param index
+     *            The index of the player, in order of registration.
+     * @return <code>true</code> iff the player is alive.
+     */
+    public boolean isAlive(int index) {
+        return alive[index];
+    }
+}
@@ -1,21 +1,23 @@
 package jpacman.level;
 
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Set;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicReference;
 
 import jpacman.board.Direction;
 import jpacman.board.Square;
 import jpacman.board.Unit;
 import jpacman.board.Board;
+import jpacman.board.UnitRegistry;
 import jpacman.npc.Ghost;
+import jpacman.npc.ghost.PlayerDistances;
 
 /**
  * A level of Pac-Man. A level consists of the board with the players and the
@@ -36,6 +38,12 @@ public class Level {
      */
     private final Object moveLock = new Object();
 
+    /**
+     * The units a moving unit collides with, reused from one move to the
+     * next. Only used while holding the {@link #moveLock}.
+     */
+    private final List<Unit> colliders = new ArrayList<>();
+
     /**
      * The lock that ensures starting and stopping can't interfere with each
      * other.
@@ -43,9 +51,15 @@ public class Level {
     private final Object startStopLock = new Object();
 
     /**
-     * The NPCs of this level and, if they are running, their schedules.
+     * The NPCs of this level in the order they were given and, if they are
+     * running, their move tasks.
+     */
+    private final Map<Ghost, NpcMoveTask> npcs;
+
+    /**
+     * The scheduler running the moves of the NPCs.
      */
-    private final Map<Ghost, ScheduledExecutorService> npcs;
+    private final NpcScheduler scheduler;
 
     /**
      * <code>true</code> iff this level is currently in progress, i.e. players
@@ -53,6 +67,19 @@ public class Level {
      */
     private boolean inProgress;
 
+    /**
+     * <code>true</code> iff this level has been closed and can no longer be
+     * started.
+     */
+    private boolean closed;
+
+    /**
+     * <code>true</code> iff nobody watches this level, so that moves neither
+     * publish snapshots nor notify the observers. Only used while holding the
+     * {@link #moveLock}.
+     */
+    private boolean headless;
+
     /**
      * The squares from which players can start this game.
      */
@@ -74,10 +101,80 @@ public class Level {
     private final CollisionMap collisions;
 
     /**
-     * The objects observing this level.
+     * The objects observing this level. Observers may remove themselves while
+     * being notified.
      */
     private final Set<LevelObserver> observers;
 
+    /**
+     * The distance fields towards the players, shared by the ghosts, or
+     * <code>null</code> if there are no ghosts.
+     */
+    private final PlayerDistances playerDistances;
+
+    /**
+     * The live count of the pellets on the board.
+     */
+    private final PelletCounter pellets;
+
+    /**
+     * The source of randomness the ghosts draw from, or <code>null</code> if
+     * the ghosts still use their own.
+     */
+    private RandomService randomService;
+
+    /**
+     * The sprites the snapshots of this level refer to by id.
+     */
+    private final SpriteTable sprites;
+
+    /**
+     * The sprite ids of the squares of the board, shared by all snapshots, or
+     * <code>null</code> if nobody asked for snapshots yet. Only used while
+     * holding the {@link #moveLock}.
+     */
+    private int[] terrain;
+
+    /**
+     * The number of snapshots captured so far. Only used while holding the
+     * {@link #moveLock}.
+     */
+    private long snapshots;
+
+    /**
+     * The latest snapshot of this level, or <code>null</code> if nobody asked
+     * for snapshots yet.
+     */
+    private final AtomicReference<FrameSnapshot> snapshot;
+
+    /**
+     * The ids of the squares that changed since the latest snapshot. Only
+     * used while holding the {@link #moveLock}.
+     */
+    private final BitSet changedSquares;
+
+    /**
+     * The squares read from the board for the next snapshot, reused from one
+     * snapshot to the next. Only used while holding the {@link #moveLock}.
+     */
+    private final BitSet refreshedSquares;
+
+    /**
+     * The units on the refreshed squares, reused from one snapshot to the
+     * next. Only used while holding the {@link #moveLock}.
+     */
+    private final List<Unit> refreshedUnits = new ArrayList<>();
+
+    /**
+     * Follows the changes to the squares of the board.
+     */
+    private final SquareTracker squareTracker;
+
+    /**
+     * The objects observing the snapshots of this level.
+     */
+    private final Set<FrameObserver> frameObservers;
+
     /**
      * Creates a new level for the board.
      *
@@ -98,7 +195,8 @@ public class Level {
 
         this.board = board;
         this.inProgress = false;
-        this.npcs = new HashMap<>();
+        this.npcs = new LinkedHashMap<>();
+        this.scheduler = NpcScheduler.getShared();
         for (Ghost ghost : ghosts) {
             npcs.put(ghost, null);
         }
@@ -106,7 +204,26 @@ public class Level {
         this.startSquareIndex = 0;
         this.players = new ArrayList<>();
         this.collisions = collisionMap;
-        this.observers = new HashSet<>();
+        this.observers = new CopyOnWriteArraySet<>();
+        this.pellets = new PelletCounter(board);
+
+        if (ghosts.isEmpty()) {
+            this.playerDistances = null;
+        } else {
+            this.playerDistances = new PlayerDistances(board, ghosts.get(0));
+            for (Ghost ghost : ghosts) {
+                ghost.setPlayerDistances(playerDistances);
+                ghost.setPelletCounter(pellets);
+            }
+        }
+
+        this.sprites = new SpriteTable();
+        this.snapshot = new AtomicReference<>();
+        this.changedSquares = new BitSet();
+        this.refreshedSquares = new BitSet();
+        this.frameObservers = new CopyOnWriteArraySet<>();
+        this.squareTracker = new SquareTracker();
+        board.getUnits().addObserver(squareTracker);
     }
 
     /**
@@ -144,9 +261,13 @@ public class Level {
         if (players.contains(player)) {
             return;
         }
-        players.add(player);
         Square square = startSquares.get(startSquareIndex);
-        player.occupy(square);
+        synchronized (moveLock) {
+            players.add(player);
+            player.occupy(square);
+            updatePlayerDistances(player);
+            publishChanges();
+        }
         startSquareIndex++;
         startSquareIndex %= startSquares.size();
     }
@@ -184,14 +305,207 @@ public class Level {
             Square destination = location.getSquareAt(direction);
 
             if (destination.isAccessibleTo(unit)) {
-                List<Unit> occupants = destination.getOccupants();
-                unit.occupy(destination);
-                for (Unit occupant : occupants) {
-                    collisions.collide(unit, occupant);
+                destination.occupantsInto(colliders);
+                try {
+                    unit.occupy(destination);
+                    if (unit instanceof Player) {
+                        updatePlayerDistances((Player) unit);
+                    }
+                    for (Unit occupant : colliders) {
+                        collisions.collide(unit, occupant);
+                    }
+                } finally {
+                    colliders.clear();
                 }
             }
-            updateObservers();
+            if (!headless) {
+                updateObservers();
+            }
+        }
+    }
+
+    /**
+     * Makes the moves on this level skip everything that only matters to
+     * those watching it: publishing snapshots, following the changed squares
+     * and telling the observers the level was won or lost. The caller checks
+     * for the end of the level itself, as the {@link SimulationEngine} does.
+     * The latest snapshot is captured again once the level is watched again.
+     *
+     * @param headless
+     *            <code>true</code> iff nobody watches this level.
+     */
+    void setHeadless(boolean headless) {
+        synchronized (moveLock) {
+            if (headless == this.headless) {
+                return;
+            }
+            this.headless = headless;
+            if (headless) {
+                board.getUnits().removeObserver(squareTracker);
+            } else if (!closed) {
+                board.getUnits().addObserver(squareTracker);
+                if (snapshot.get() != null) {
+                    publishSnapshot();
+                    changedSquares.clear();
+                }
+            }
+        }
+    }
+
+    /**
+     * Publishes a snapshot of the moves made since the previous one. The game
+     * calls this once per tick, so that all moves of a tick appear in a
+     * single snapshot. Does nothing if nobody asked for snapshots yet, the
+     * level is headless or nothing changed.
+     */
+    public void publishFrame() {
+        synchronized (moveLock) {
+            if (!headless) {
+                publishChanges();
+            }
+        }
+    }
+
+    /**
+     * Publishes a new snapshot if snapshots are being captured and any square
+     * changed since the latest one, and tells the frame observers which
+     * squares changed. Must be called while holding the {@link #moveLock}.
+     */
+    private void publishChanges() {
+        if (snapshot.get() == null || changedSquares.isEmpty()) {
+            return;
+        }
+        refreshedSquares.clear();
+        refreshedSquares.or(changedSquares);
+        for (Player player : players) {
+            if (player.hasSquare()) {
+                refreshedSquares.set(player.getSquare().getId());
+            }
+        }
+        snapshots++;
+        FrameSnapshot frame = snapshot.get().next(snapshots, board, refreshedSquares,
+            players, refreshedUnits);
+        snapshot.set(frame);
+        for (FrameObserver observer : frameObservers) {
+            observer.framePublished(frame, changedSquares);
+        }
+        changedSquares.clear();
+    }
+
+    /**
+     * Captures the whole board and makes it the latest snapshot. Must be
+     * called while holding the {@link #moveLock}.
+     */
+    private void publishSnapshot() {
+        if (terrain == null) {
+            terrain = FrameSnapshot.terrainOf(board, sprites);
         }
+        snapshots++;
+        snapshot.set(FrameSnapshot.capture(snapshots, board, terrain, sprites, players));
+    }
+
+    /**
+     * Returns the state of the board after the latest tick. Snapshots are
+     * only captured once they have been asked for, so that levels nobody
+     * watches, such as simulated ones, do not pay for them. From then on,
+     * reading one does not wait for moves in progress, so renderers and
+     * spectators can read it from any thread.
+     *
+     * @return The latest snapshot of this level.
+     */
+    public FrameSnapshot getSnapshot() {
+        FrameSnapshot frame = snapshot.get();
+        if (frame == null) {
+            synchronized (moveLock) {
+                if (snapshot.get() == null) {
+                    publishSnapshot();
+                    changedSquares.clear();
+                }
+                frame = snapshot.get();
+            }
+        }
+        return frame;
+    }
+
+    /**
+     * Adds an observer that will be told about every new snapshot of this
+     * level and the squares that changed since the previous one, so that it
+     * only needs to redraw those. Snapshots are only published once
+     * {@link #getSnapshot()} has been called.
+     *
+     * @param observer
+     *            The observer that will be notified.
+     */
+    public void addFrameObserver(FrameObserver observer) {
+        frameObservers.add(observer);
+    }
+
+    /**
+     * Removes a frame observer if it was listed.
+     *
+     * @param observer
+     *            The observer to be removed.
+     */
+    public void removeFrameObserver(FrameObserver observer) {
+        frameObservers.remove(observer);
+    }
+
+    /**
+     * Recomputes the distances towards a player after it changed square, so
+     * that all ghosts can read them instead of searching for the player.
+     *
+     * @param player
+     *            The player that changed square.
+     */
+    private void updatePlayerDistances(Player player) {
+        if (playerDistances != null) {
+            playerDistances.update(player);
+        }
+    }
+
+    /**
+     * Gives every ghost of this level its own stream of random numbers split
+     * from the service, in the order the ghosts were given to this level.
+     * Setting the service that is already in use has no effect.
+     *
+     * @param service
+     *            The source of randomness of the game this level is part of.
+     */
+    public void setRandomService(RandomService service) {
+        assert service != null;
+        if (service == randomService) {
+            return;
+        }
+        randomService = service;
+        for (Ghost ghost : npcs.keySet()) {
+            ghost.setRandom(service.split());
+        }
+    }
+
+    /**
+     * @return The source of randomness of the ghosts, or <code>null</code> if
+     *         none was set.
+     */
+    public RandomService getRandomService() {
+        return randomService;
+    }
+
+    /**
+     * Returns the ghosts of this level.
+     *
+     * @return The ghosts, in the order they were given to this level.
+     */
+    List<Ghost> getGhosts() {
+        return Collections.unmodifiableList(new ArrayList<>(npcs.keySet()));
+    }
+
+    /**
+     * Returns the players registered on this level.
+     *
+     * @return The players, in order of registration.
+     */
+    List<Player> getPlayers() {
+        return Collections.unmodifiableList(players);
     }
 
     /**
@@ -199,11 +513,25 @@ public class Level {
      * NPCs.
      */
     public void start() {
+        start(true);
+    }
+
+    /**
+     * Starts or resumes this level, allowing movement.
+     *
+     * @param scheduleNpcs
+     *            <code>true</code> to have the NPCs move by themselves on the
+     *            {@link NpcScheduler}, <code>false</code> if they are moved by
+     *            the caller, such as the {@link SimulationEngine}.
+     */
+    void start(boolean scheduleNpcs) {
         synchronized (startStopLock) {
-            if (isInProgress()) {
+            if (isInProgress() || closed) {
                 return;
             }
-            startNPCs();
+            if (scheduleNpcs) {
+                startNPCs();
+            }
             inProgress = true;
             updateObservers();
         }
@@ -214,12 +542,67 @@ public class Level {
      * and stopping all NPCs.
      */
     public void stop() {
+        if (halt()) {
+            // show the moves of the last tick while the level is paused
+            publishFrame();
+        }
+    }
+
+    /**
+     * Stops all NPCs and no longer allows any movement on the board.
+     *
+     * @return <code>true</code> iff the level was in progress.
+     */
+    private boolean halt() {
         synchronized (startStopLock) {
             if (!isInProgress()) {
-                return;
+                return false;
             }
             stopNPCs();
             inProgress = false;
+            return true;
+        }
+    }
+
+    /**
+     * Stops this level for good and releases everything it holds on to: the
+     * NPC move tasks, the observers, and the pellet counter's registration
+     * with the board. A closed level cannot be started again. Closing a
+     * closed level has no effect.
+     */
+    public void close() {
+        synchronized (startStopLock) {
+            halt();
+            closed = true;
+            observers.clear();
+            frameObservers.clear();
+            board.getUnits().removeObserver(pellets);
+            board.getUnits().removeObserver(squareTracker);
+        }
+    }
+
+    /**
+     * @return <code>true</code> iff this level has been closed.
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Reports the resources this level is holding on to.
+     *
+     * @return The NPC move tasks and observers of this level.
+     */
+    public LiveResources getLiveResources() {
+        synchronized (startStopLock) {
+            int scheduled = 0;
+            for (NpcMoveTask task : npcs.values()) {
+                if (task != null) {
+                    scheduled++;
+                }
+            }
+            // the NPCs move on the shared scheduler, which the level does not own
+            return new LiveResources(scheduled, observers.size() + frameObservers.size(), 0);
         }
     }
 
@@ -228,24 +611,23 @@ public class Level {
      */
     private void startNPCs() {
         for (final Ghost npc : npcs.keySet()) {
-            ScheduledExecutorService service = Executors.newSingleThreadScheduledExecutor();
-
-            service.schedule(new NpcMoveTask(service, npc),
-                npc.getInterval() / 2, TimeUnit.MILLISECONDS);
-
-            npcs.put(npc, service);
+            NpcMoveTask task = new NpcMoveTask(npc);
+            task.schedule(npc.getInterval() / 2);
+            npcs.put(npc, task);
         }
     }
 
     /**
-     * Stops all NPC movement scheduling and interrupts any movements being
-     * executed.
+     * Stops all NPC movement scheduling. Moves that are being executed are
+     * finished, but no further moves are made.
      */
     private void stopNPCs() {
-        for (Entry<Ghost, ScheduledExecutorService> entry : npcs.entrySet()) {
-            ScheduledExecutorService schedule = entry.getValue();
-            assert schedule != null;
-            schedule.shutdownNow();
+        for (Map.Entry<Ghost, NpcMoveTask> entry : npcs.entrySet()) {
+            NpcMoveTask task = entry.getValue();
+            if (task != null) {
+                task.cancel();
+                entry.setValue(null);
+            }
         }
     }
 
@@ -268,7 +650,7 @@ public class Level {
                 observer.levelLost();
             }
         }
-        if (remainingPellets() == 0) {
+        if (pellets.getRemaining() == 0) {
             for (LevelObserver observer : observers) {
                 observer.levelWon();
             }
@@ -292,64 +674,128 @@ public class Level {
     }
 
     /**
-     * Counts the pellets remaining on the board.
+     * Returns the pellets remaining on the board. The count is kept up to
+     * date as pellets are eaten, so this does not look at the board.
      *
      * @return The amount of pellets remaining on the board.
      */
     public int remainingPellets() {
-        Board board = getBoard();
-        int pellets = 0;
-        for (int x = 0; x < board.getWidth(); x++) {
-            for (int y = 0; y < board.getHeight(); y++) {
-                for (Unit unit : board.squareAt(x, y).getOccupants()) {
-                    if (unit instanceof Pellet) {
-                        pellets++;
-                    }
-                }
+        int remaining = pellets.getRemaining();
+        assert remaining >= 0;
+        return remaining;
+    }
+
+    /**
+     * Returns the live count of the pellets on the board, which can be
+     * shared with anything that needs to follow it, such as the ghosts.
+     *
+     * @return The pellet counter of this level.
+     */
+    public PelletCounter getPelletCounter() {
+        return pellets;
+    }
+
+    /**
+     * Collects the squares of the board that changed while snapshots are
+     * being captured.
+     */
+    private final class SquareTracker implements UnitRegistry.UnitObserver {
+
+        @Override
+        public void unitAdded(Unit unit) {
+            // the square it arrived on reports the change.
+        }
+
+        @Override
+        public void unitRemoved(Unit unit) {
+            // the square it left reports the change.
+        }
+
+        @Override
+        public void squareChanged(Square square) {
+            if (snapshot.get() == null) {
+                return;
+            }
+            synchronized (moveLock) {
+                changedSquares.set(square.getId());
             }
         }
-        assert pellets >= 0;
-        return pellets;
     }
 
     /**
-     * A task that moves an NPC and reschedules itself after it finished.
+     * A task that moves an NPC and reschedules itself on the
+     * {@link NpcScheduler} after it finished, until it is cancelled.
      *
      * @author Jeroen Roosen
      */
     private final class NpcMoveTask implements Runnable {
 
         /**
-         * The service executing the task.
+         * The NPC to move.
          */
-        private final ScheduledExecutorService service;
+        private final Ghost npc;
 
         /**
-         * The NPC to move.
+         * The next scheduled run of this task, or <code>null</code> if it has
+         * not been scheduled yet.
          */
-        private final Ghost npc;
+        private ScheduledFuture<?> next;
+
+        /**
+         * <code>true</code> iff this task has been cancelled.
+         */
+        private boolean cancelled;
 
         /**
          * Creates a new task.
          *
-         * @param service
-         *            The service that executes the task.
          * @param npc
          *            The NPC to move.
          */
-        NpcMoveTask(ScheduledExecutorService service, Ghost npc) {
-            this.service = service;
+        NpcMoveTask(Ghost npc) {
             this.npc = npc;
         }
 
+        /**
+         * Schedules the next run of this task, unless it was cancelled.
+         *
+         * @param delay
+         *            The delay in milliseconds.
+         */
+        synchronized void schedule(long delay) {
+            if (!cancelled) {
+                next = scheduler.schedule(this, delay);
+            }
+        }
+
+        /**
+         * Cancels this task, removing its next run from the schedule.
+         */
+        synchronized void cancel() {
+            cancelled = true;
+            if (next != null) {
+                next.cancel(false);
+                next = null;
+            }
+        }
+
+        /**
+         * @return <code>true</code> iff this task has been cancelled.
+         */
+        private synchronized boolean isCancelled() {
+            return cancelled;
+        }
+
         @Override
         public void run() {
+            if (isCancelled()) {
+                return;
+            }
             Direction nextMove = npc.nextMove();
             if (nextMove != null) {
                 move(npc, nextMove);
             }
-            long interval = npc.getInterval();
-            service.schedule(this, interval, TimeUnit.MILLISECONDS);
+            schedule(npc.getInterval());
         }
     }
 
@@ -372,4 +818,24 @@ public class Level {
          */
         void levelLost();
     }
+
+    /**
+     * An observer that will be notified when a level publishes a snapshot.
+     */
+    public interface FrameObserver {
+
+        /**
+         * A new snapshot has been published. Observers are notified while
+         * the level is locked, so they should do little more than note the
+         * changed squares.
+         *
+         * @param frame
+         *            The new snapshot.
+         * @param changedSquares
+         *            The ids of the squares that look different from the
+         *            previous snapshot. The set is reused by the level, so
+         *            it must not be kept or changed.
+         */
+        void framePublished(FrameSnapshot frame, BitSet changedSquares);
+    }
 }
@@ -7,6 +7,7 @@ import java.util.Optional;
 import jpacman.board.Direction;
 import jpacman.board.Square;
 import jpacman.npc.Ghost;
+import jpacman.npc.ghost.DistanceOracle;
 import jpacman.npc.ghost.GhostColor;
 import jpacman.npc.ghost.GhostFactory;
 import jpacman.points.PointCalculator;
@@ -72,7 +73,8 @@ public class LevelFactory {
     }
 
     /**
-     * Creates a new level from the provided data.
+     * Creates a new level from the provided data. The distance table that
+     * the ghosts navigate with is built in the background.
      *
      * @param board
      *            The board with all ghosts and pellets occupying their squares.
@@ -83,13 +85,49 @@ public class LevelFactory {
      * @return A new level for the board.
      */
     public Level createLevel(Board board, List<Ghost> ghosts, List<Square> startPositions) {
+        DistanceOracle oracle = null;
+        if (!ghosts.isEmpty()) {
+            oracle = DistanceOracle.buildInBackground(board, ghosts.get(0));
+        }
+        return createLevel(board, ghosts, startPositions, oracle);
+    }
 
-        // We'll adopt the simple collision map for now.
-        CollisionMap collisionMap = new PlayerCollisions(pointCalculator);
+    /**
+     * Creates a new level from the provided data, with a distance table that
+     * was built for another board with the same terrain.
+     *
+     * @param board
+     *            The board with all ghosts and pellets occupying their squares.
+     * @param ghosts
+     *            A list of all ghosts on the board.
+     * @param startPositions
+     *            A list of squares from which players may start the game.
+     * @param oracle
+     *            The distance table for the board, or <code>null</code> if
+     *            the ghosts should do without.
+     * @return A new level for the board.
+     */
+    public Level createLevel(Board board, List<Ghost> ghosts, List<Square> startPositions,
+                             DistanceOracle oracle) {
+
+        CollisionMap collisionMap = new DefaultPlayerInteractionMap(pointCalculator);
+
+        // All ghosts walk the same terrain, so they can share one table.
+        for (Ghost ghost : ghosts) {
+            ghost.setDistanceOracle(oracle);
+        }
 
         return new Level(board, ghosts, startPositions, collisionMap);
     }
 
+    /**
+     * Starts the cycle of ghost types over, so that the next ghost created is
+     * a Blinky again.
+     */
+    void restartGhostCycle() {
+        ghostIndex = -1;
+    }
+
     /**
      * Creates a new ghost.
      *
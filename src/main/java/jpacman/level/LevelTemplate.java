@@ -0,0 +1,138 @@
+package jpacman.level;
+
+import jpacman.npc.ghost.DistanceTable;
+
+/**
+ * A map that has been read and checked once, from which any number of levels
+ * can be made with {@link MapParser#parseMap(LevelTemplate)}. The template
+ * holds the character of every square, so making a level only creates the
+ * squares and units, without reading or decoding the map again. The distance
+ * table of the first level made from a template is shared with all later
+ * ones, since they all have the same terrain.
+ */
+public final class LevelTemplate {
+
+    /**
+     * The name of the map this template was read from.
+     */
+    private final String name;
+
+    /**
+     * The width of the map.
+     */
+    private final int width;
+
+    /**
+     * The height of the map.
+     */
+    private final int height;
+
+    /**
+     * The character of every square, row by row.
+     */
+    private final byte[] cells;
+
+    /**
+     * The distance table of the first level made from this template, or
+     * <code>null</code> if no level with ghosts has been made yet. Only the
+     * table is kept, not the board or ghost it was built for, so the first
+     * level can be thrown away once it is played.
+     */
+    private volatile DistanceTable table;
+
+    /**
+     * Creates a new template.
+     *
+     * @param name
+     *            The name of the map this template was read from.
+     * @param width
+     *            The width of the map.
+     * @param height
+     *            The height of the map.
+     * @param cells
+     *            The character of every square, row by row. The array is not
+     *            copied and must not be changed afterwards.
+     */
+    LevelTemplate(String name, int width, int height, byte[] cells) {
+        assert name != null;
+        assert width > 0 && height > 0;
+        assert cells.length == width * height;
+        this.name = name;
+        this.width = width;
+        this.height = height;
+        this.cells = cells;
+    }
+
+    /**
+     * @return The name of the map this template was read from.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return The width of the map.
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * @return The height of the map.
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Returns the character describing a square, as listed at
+     * {@link MapParser#parseMap(char[][])}.
+     *
+     * @param x
+     *            The <code>x</code> position of the square.
+     * @param y
+     *            The <code>y</code> position of the square.
+     * @return The character of the square at the given position.
+     */
+    public char getCell(int x, int y) {
+        assert x >= 0 && x < width;
+        assert y >= 0 && y < height;
+        return (char) (cells[y * width + x] & 0xFF);
+    }
+
+    /**
+     * Counts the squares described by a character.
+     *
+     * @param c
+     *            The character to count, such as '.' for pellets.
+     * @return The number of squares on the map with that character.
+     */
+    public int count(char c) {
+        int count = 0;
+        for (byte cell : cells) {
+            if ((char) (cell & 0xFF) == c) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return The distance table shared by the levels made from this
+     *         template, or <code>null</code> if there is none yet.
+     */
+    DistanceTable getTable() {
+        return table;
+    }
+
+    /**
+     * Remembers the distance table of a level made from this template, to
+     * share it with later levels.
+     *
+     * @param distances
+     *            The distance table.
+     */
+    void setTable(DistanceTable distances) {
+        this.table = distances;
+    }
+}
@@ -0,0 +1,92 @@
+package jpacman.level;
+
+/**
+ * A report of the resources a level or game is holding on to: the NPC move
+ * tasks it has on the {@link NpcScheduler}, the observers it keeps alive and
+ * the executors it has not shut down yet. A level or game that was closed
+ * holds none.
+ */
+public final class LiveResources {
+
+    /**
+     * The report of something holding no resources at all.
+     */
+    public static final LiveResources NONE = new LiveResources(0, 0, 0);
+
+    /**
+     * The number of NPC move tasks on the scheduler.
+     */
+    private final int scheduledNpcs;
+
+    /**
+     * The number of registered observers.
+     */
+    private final int observers;
+
+    /**
+     * The number of executors that have not terminated.
+     */
+    private final int executors;
+
+    /**
+     * Creates a new report.
+     *
+     * @param scheduledNpcs
+     *            The number of NPC move tasks on the scheduler.
+     * @param observers
+     *            The number of registered observers.
+     * @param executors
+     *            The number of executors that have not terminated.
+     */
+    public LiveResources(int scheduledNpcs, int observers, int executors) {
+        this.scheduledNpcs = scheduledNpcs;
+        this.observers = observers;
+        this.executors = executors;
+    }
+
+    /**
+     * @return The number of NPC move tasks on the scheduler.
+     */
+    public int getScheduledNpcs() {
+        return scheduledNpcs;
+    }
+
+    /**
+     * @return The number of registered observers.
+     */
+    public int getObservers() {
+        return observers;
+    }
+
+    /**
+     * @return The number of executors that have not terminated.
+     */
+    public int getExecutors() {
+        return executors;
+    }
+
+    /**
+     * @return <code>true</code> iff no resources are held.
+     */
+    public boolean isReleased() {
+        return scheduledNpcs == 0 && observers == 0 && executors == 0;
+    }
+
+    /**
+     * Adds up two reports.
+     *
+     * @param other
+     *            The report to add to this one.
+     * @return A report of the resources of both.
+     */
+    public LiveResources plus(LiveResources other) {
+        return new LiveResources(scheduledNpcs + other.scheduledNpcs,
+            observers + other.observers, executors + other.executors);
+    }
+
+    @Override
+    public String toString() {
+        return "LiveResources[scheduledNpcs=" + scheduledNpcs
+            + ", observers=" + observers + ", executors=" + executors + "]";
+    }
+}
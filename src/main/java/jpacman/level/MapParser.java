@@ -1,26 +1,52 @@
 package jpacman.level;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import jpacman.PacmanConfigurationException;
 import jpacman.board.Square;
 import jpacman.npc.Ghost;
+import jpacman.npc.ghost.DistanceOracle;
+import jpacman.npc.ghost.DistanceTable;
 import jpacman.board.Board;
 import jpacman.board.BoardFactory;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 
 /**
- * Creates new {@link Level}s from text representations.
+ * Creates new {@link Level}s from text representations. Maps in files and
+ * streams are read as bytes and turned into squares as they are read, so
+ * large maps are not copied into strings and character arrays first. Maps
+ * loaded by name are read once and kept as {@link LevelTemplate}s, from which
+ * later levels are made without reading the map again.
+ * <p>
+ * The level factory cycles through the ghost types as it creates ghosts, so
+ * a parser makes one level at a time. A parser can therefore be shared by
+ * threads, such as the background loads of the levels of several games.
  *
  * @author Jeroen Roosen
  */
 public class MapParser {
 
+    /**
+     * The number of bytes read from a stream at a time.
+     */
+    private static final int READ_SIZE = 8192;
+
+    /**
+     * The initial number of squares with units that a text map in bytes is
+     * expected to have.
+     */
+    private static final int INITIAL_DEFERRED = 16;
+
     /**
      * The factory that creates the levels.
      */
@@ -31,6 +57,11 @@ public class MapParser {
      */
     private final BoardFactory boardCreator;
 
+    /**
+     * The templates of the maps loaded by name so far, by name.
+     */
+    private final Map<String, LevelTemplate> templates = new ConcurrentHashMap<>();
+
     /**
      * Creates a new map parser.
      *
@@ -61,7 +92,7 @@ public class MapParser {
      *            representing the square at position x,y.
      * @return The level as represented by this text.
      */
-    public Level parseMap(char[][] map) {
+    public synchronized Level parseMap(char[][] map) {
         int width = map.length;
         int height = map[0].length;
 
@@ -72,6 +103,10 @@ public class MapParser {
 
         makeGrid(map, width, height, grid, ghosts, startPositions);
 
+        return makeLevel(grid, ghosts, startPositions);
+    }
+
+    private Level makeLevel(Square[][] grid, List<Ghost> ghosts, List<Square> startPositions) {
         Board board = boardCreator.createBoard(grid);
         return levelCreator.createLevel(board, ghosts, startPositions);
     }
@@ -209,33 +244,517 @@ public class MapParser {
     }
 
     /**
-     * Parses the provided input stream as a character stream and passes it
-     * result to {@link #parseMap(List)}.
+     * Parses the bytes of a text map from a stream into a level, as
+     * {@link #parseMap(ByteBuffer)} does. The squares are created as the
+     * bytes are read, so only the first row is held before its squares are
+     * made and the map is never read into memory as a whole. The stream is
+     * closed afterwards.
      *
      * @param source
      *            The input stream that will be read.
      * @return The parsed level as represented by the text on the input stream.
      * @throws IOException
      *             when the source could not be read.
+     * @throws PacmanConfigurationException
+     *             If the map is empty, its rows are not of equal width, or it
+     *             contains unsupported characters.
+     */
+    public synchronized Level parseMap(InputStream source) throws IOException {
+        try (InputStream input = source) {
+            byte[] bytes = new byte[READ_SIZE];
+            int length = 0;
+            int firstRow = -1;
+            while (firstRow < 0) {
+                int read = input.read(bytes, length, bytes.length - length);
+                if (read == -1) {
+                    firstRow = length;
+                    break;
+                }
+                for (int i = length; i < length + read && firstRow < 0; i++) {
+                    if (bytes[i] == '\n') {
+                        firstRow = i;
+                    }
+                }
+                length += read;
+                if (length == bytes.length) {
+                    bytes = Arrays.copyOf(bytes, bytes.length * 2);
+                }
+            }
+            ByteBuffer buffered = ByteBuffer.wrap(bytes, 0, length);
+            TextMapReader reader = new TextMapReader(firstRowWidth(buffered),
+                lineEnd(buffered, firstRow), length);
+            reader.accept(buffered);
+            int read;
+            while ((read = input.read(bytes)) != -1) {
+                reader.accept(ByteBuffer.wrap(bytes, 0, read));
+            }
+            return reader.finish();
+        }
+    }
+
+    /**
+     * Reads all bytes of a stream and closes it, for maps that are kept as
+     * they are read, such as templates.
+     */
+    private static ByteBuffer readFully(InputStream source) throws IOException {
+        try (InputStream input = source) {
+            byte[] bytes = new byte[READ_SIZE];
+            int length = 0;
+            int read;
+            while ((read = input.read(bytes, length, bytes.length - length)) != -1) {
+                length += read;
+                if (length == bytes.length) {
+                    bytes = Arrays.copyOf(bytes, bytes.length * 2);
+                }
+            }
+            return ByteBuffer.wrap(bytes, 0, length);
+        }
+    }
+
+    /**
+     * Maps the file into memory and passes it on to
+     * {@link #parseMap(ByteBuffer)}, so that even very large maps are not
+     * copied before they are parsed.
+     *
+     * @param file
+     *            The file containing the map.
+     * @return The parsed level as represented by the text in the file.
+     * @throws IOException
+     *             when the file could not be read.
+     */
+    public Level parseMap(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new PacmanConfigurationException("Map file is too large: " + file);
+            }
+            return parseMap(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+        }
+    }
+
+    /**
+     * Maps a binary map file into memory and passes it on to
+     * {@link #parseBinaryMap(ByteBuffer)}.
+     *
+     * @param file
+     *            The file containing the map, in the {@link BinaryMapFormat}.
+     * @return The level as represented by the map.
+     * @throws IOException
+     *             when the file could not be read.
      */
-    public Level parseMap(InputStream source) throws IOException {
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
-            source, "UTF-8"))) {
-            List<String> lines = new ArrayList<>();
-            while (reader.ready()) {
-                lines.add(reader.readLine());
+    public Level parseBinaryMap(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new PacmanConfigurationException("Map file is too large: " + file);
+            }
+            return parseBinaryMap(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+        }
+    }
+
+    /**
+     * Creates a level from a map in the {@link BinaryMapFormat}. Squares are
+     * created straight from the terrain bits, after which the ghosts, start
+     * positions and pellets are put on the squares listed for them. The level
+     * is the same as the one {@link #parseMap(char[][])} makes from the text
+     * the binary map was converted from.
+     *
+     * @param map
+     *            The binary map, from its position up to its limit.
+     * @return The level as represented by the map.
+     * @throws PacmanConfigurationException
+     *             If the map is not a valid binary map.
+     */
+    public synchronized Level parseBinaryMap(ByteBuffer map) {
+        BinaryMapFormat.Header header = BinaryMapFormat.Header.read(map);
+        int width = header.width;
+        int height = header.height;
+
+        Square[][] grid = new Square[width][height];
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                if (header.isWall(map, y * width + x)) {
+                    grid[x][y] = boardCreator.createWall();
+                } else {
+                    grid[x][y] = boardCreator.createGround();
+                }
             }
-            return parseMap(lines);
         }
+
+        int offset = header.listsStart;
+        // Every binary map gets the ghosts of a template of the same map.
+        levelCreator.restartGhostCycle();
+        List<Ghost> ghosts = new ArrayList<>(header.ghosts);
+        for (int i = 0; i < header.ghosts; i++, offset += Integer.BYTES) {
+            int id = header.squareAt(map, offset);
+            Ghost ghost = levelCreator.createGhost();
+            ghosts.add(ghost);
+            ghost.occupy(grid[id % width][id / width]);
+        }
+        List<Square> startPositions = new ArrayList<>(header.starts);
+        for (int i = 0; i < header.starts; i++, offset += Integer.BYTES) {
+            int id = header.squareAt(map, offset);
+            startPositions.add(grid[id % width][id / width]);
+        }
+        ByteBuffer pellets = header.pelletsOf(map);
+        int id = -1;
+        for (int i = 0; i < header.pellets; i++) {
+            id = header.nextPellet(map, pellets, id);
+            levelCreator.createPellet().occupy(grid[id % width][id / width]);
+        }
+        header.checkEnd(pellets);
+        return makeLevel(grid, ghosts, startPositions);
+    }
+
+    /**
+     * Parses the bytes of a text map into a level, creating the squares
+     * straight from the bytes. Rows end with a line feed, optionally preceded
+     * by a carriage return, and the last row does not need one. The supported
+     * characters are listed at {@link #parseMap(char[][])}; they are read one
+     * byte each, as in ASCII or UTF-8.
+     * <p>
+     * The bytes are read once, in the order they are stored. Each row is
+     * checked against the width of the first row as it is read, and its
+     * walls, ground and pellets are created straight away. The other
+     * squares, such as ghosts and start positions, are few; they are created
+     * at the end column by column, in the same order as
+     * {@link #parseMap(char[][])} does, so the ghosts and start positions
+     * come out in the same order too. The squares are put in the
+     * <code>grid[x][y]</code> array that {@link #addSquare} fills and the
+     * {@link Board} is made of; the board factory links them once the height
+     * of the map is known.
+     *
+     * @param map
+     *            The map, from its position up to its limit.
+     * @return The level as represented by the map.
+     * @throws PacmanConfigurationException
+     *             If the map is empty, its rows are not of equal width, or it
+     *             contains unsupported characters.
+     */
+    public synchronized Level parseMap(ByteBuffer map) {
+        int start = map.position();
+        int end = map.limit();
+        int firstRow = start;
+        while (firstRow < end && map.get(firstRow) != '\n') {
+            firstRow++;
+        }
+        TextMapReader reader = new TextMapReader(firstRowWidth(map),
+            lineEnd(map, firstRow), end - start);
+        reader.accept(map.duplicate());
+        return reader.finish();
+    }
+
+    /**
+     * Measures the first row of a map, checking that there is one.
+     *
+     * @param map
+     *            The map, or the part of it that holds the first row, from
+     *            its position up to its limit.
+     * @return The number of squares of the first row.
+     */
+    private static int firstRowWidth(ByteBuffer map) {
+        int start = map.position();
+        int end = map.limit();
+        if (start == end) {
+            throw new PacmanConfigurationException(
+                "Input text must consist of at least 1 row.");
+        }
+        int width = rowLength(map, start, end);
+        if (width == 0) {
+            throw new PacmanConfigurationException(
+                "Input text lines cannot be empty.");
+        }
+        return width;
     }
 
     /**
-     * Parses the provided input stream as a character stream and passes it
-     * result to {@link #parseMap(List)}.
+     * Measures the line end of the first row of a map.
+     *
+     * @param map
+     *            The map, from its position up to its limit.
+     * @param lineFeed
+     *            The index of the line feed ending the first row, or the
+     *            limit if it has none.
+     * @return The number of bytes the line end takes.
+     */
+    private static int lineEnd(ByteBuffer map, int lineFeed) {
+        if (lineFeed >= map.limit()) {
+            return 0;
+        }
+        return lineFeed > map.position() && map.get(lineFeed - 1) == '\r' ? 2 : 1;
+    }
+
+    /**
+     * Creates the squares of a text map from its bytes in one pass, as they
+     * are handed to it. The grid starts with room for the number of rows
+     * the size of the map suggests and grows when there are more.
+     */
+    private final class TextMapReader {
+
+        /**
+         * The number of bits the row takes in a deferred square.
+         */
+        private static final int ROW_BITS = 31;
+
+        /**
+         * The number of bits the character takes in a deferred square.
+         */
+        private static final int CHAR_BITS = 8;
+
+        /**
+         * The number of squares in every row.
+         */
+        private final int width;
+
+        /**
+         * The squares made so far, with grid[x][y] being the square at
+         * column x, row y.
+         */
+        private Square[][] grid;
+
+        /**
+         * The ghosts made so far.
+         */
+        private final List<Ghost> ghosts = new ArrayList<>();
+
+        /**
+         * The start positions made so far.
+         */
+        private final List<Square> startPositions = new ArrayList<>();
+
+        /**
+         * The squares that are made at the end, each with its column, row
+         * and character in one number, so that sorting them sorts them by
+         * column and then row.
+         */
+        private long[] deferred = new long[INITIAL_DEFERRED];
+
+        /**
+         * The number of deferred squares.
+         */
+        private int deferredCount;
+
+        /**
+         * The column of the next byte, which may be past the width.
+         */
+        private int x;
+
+        /**
+         * The row of the next byte.
+         */
+        private int y;
+
+        /**
+         * <code>true</code> iff the last byte was a carriage return, which
+         * ends the row if a line feed follows.
+         */
+        private boolean carriageReturn;
+
+        /**
+         * Creates a reader for a map.
+         *
+         * @param width
+         *            The width of the first row.
+         * @param lineEnd
+         *            The number of bytes that end the first row.
+         * @param size
+         *            The number of bytes of the map, or as many as are known.
+         */
+        TextMapReader(int width, int lineEnd, int size) {
+            assert width < 1 << (Long.SIZE - 1 - ROW_BITS - CHAR_BITS);
+            this.width = width;
+            int rows = (size + lineEnd) / (width + lineEnd);
+            this.grid = new Square[width][Math.max(1, rows)];
+        }
+
+        /**
+         * Creates the squares for the bytes of a buffer, from its position
+         * up to its limit.
+         *
+         * @param bytes
+         *            The next bytes of the map.
+         */
+        void accept(ByteBuffer bytes) {
+            for (int i = bytes.position(); i < bytes.limit(); i++) {
+                byte b = bytes.get(i);
+                if (carriageReturn) {
+                    carriageReturn = false;
+                    if (b == '\n') {
+                        endRow();
+                        continue;
+                    }
+                    cell('\r');
+                }
+                if (b == '\n') {
+                    endRow();
+                } else if (b == '\r') {
+                    carriageReturn = true;
+                } else {
+                    cell((char) (b & 0xFF));
+                }
+            }
+        }
+
+        private void cell(char c) {
+            if (x < width) {
+                if (y == grid[x].length) {
+                    grow();
+                }
+                if (c == ' ' || c == '#' || c == '.') {
+                    addSquare(grid, ghosts, startPositions, x, y, c);
+                } else {
+                    if (deferredCount == deferred.length) {
+                        deferred = Arrays.copyOf(deferred, deferredCount * 2);
+                    }
+                    deferred[deferredCount++] =
+                        ((long) x << (ROW_BITS + CHAR_BITS)) | ((long) y << CHAR_BITS) | c;
+                }
+            }
+            x++;
+        }
+
+        private void endRow() {
+            if (x != width) {
+                throw new PacmanConfigurationException(
+                    "Input text lines are not of equal width: row " + y + " has "
+                    + x + " squares, expected " + width + ".");
+            }
+            x = 0;
+            y++;
+        }
+
+        /**
+         * Makes room for twice as many rows in every column.
+         */
+        private void grow() {
+            for (int column = 0; column < width; column++) {
+                grid[column] = Arrays.copyOf(grid[column], grid[column].length * 2);
+            }
+        }
+
+        /**
+         * Ends the map, creates the deferred squares and makes the level.
+         *
+         * @return The level as represented by the map.
+         */
+        Level finish() {
+            if (x > 0 || carriageReturn) {
+                // The last row does not need a line end.
+                carriageReturn = false;
+                endRow();
+            }
+            if (y < grid[0].length) {
+                for (int column = 0; column < width; column++) {
+                    grid[column] = Arrays.copyOf(grid[column], y);
+                }
+            }
+            Arrays.sort(deferred, 0, deferredCount);
+            for (int i = 0; i < deferredCount; i++) {
+                long square = deferred[i];
+                addSquare(grid, ghosts, startPositions,
+                    (int) (square >>> (ROW_BITS + CHAR_BITS)),
+                    (int) (square >>> CHAR_BITS) & Integer.MAX_VALUE,
+                    (char) (square & 0xFF));
+            }
+            return makeLevel(grid, ghosts, startPositions);
+        }
+    }
+
+    /**
+     * Finds where the rows of a map start, checking that they are all as wide
+     * as the first one.
+     *
+     * @param map
+     *            The map, from its position up to its limit.
+     * @return The index in the buffer of the first byte of every row.
+     */
+    private static int[] rowStarts(ByteBuffer map) {
+        int start = map.position();
+        int end = map.limit();
+        if (start == end) {
+            throw new PacmanConfigurationException(
+                "Input text must consist of at least 1 row.");
+        }
+        int width = rowLength(map, start, end);
+        if (width == 0) {
+            throw new PacmanConfigurationException(
+                "Input text lines cannot be empty.");
+        }
+
+        int[] rows = new int[Math.max(1, (end - start) / (width + 1))];
+        int count = 0;
+        int rowStart = start;
+        while (rowStart < end) {
+            int length = rowLength(map, rowStart, end);
+            if (length != width) {
+                throw new PacmanConfigurationException(
+                    "Input text lines are not of equal width: row " + count + " has "
+                    + length + " squares, expected " + width + ".");
+            }
+            if (count == rows.length) {
+                rows = Arrays.copyOf(rows, rows.length * 2);
+            }
+            rows[count++] = rowStart;
+            rowStart = nextRow(map, rowStart + length, end);
+        }
+        return Arrays.copyOf(rows, count);
+    }
+
+    /**
+     * Measures a row of a map, not counting its line end.
+     */
+    private static int rowLength(ByteBuffer map, int rowStart, int end) {
+        int i = rowStart;
+        while (i < end && map.get(i) != '\n') {
+            i++;
+        }
+        if (i > rowStart && map.get(i - 1) == '\r') {
+            i--;
+        }
+        return i - rowStart;
+    }
+
+    /**
+     * Skips the line end after a row.
+     */
+    private static int nextRow(ByteBuffer map, int rowEnd, int end) {
+        int i = rowEnd;
+        if (i < end && map.get(i) == '\r') {
+            i++;
+        }
+        return i + 1;
+    }
+
+    /**
+     * Creates a level from the map in a resource. The map is only read the
+     * first time; its {@link LevelTemplate} is kept, and later calls with the
+     * same name make their level from the template with
+     * {@link #parseMap(LevelTemplate)}.
      *
      * @param mapName
      *            Name of a resource that will be read.
-     * @return The parsed level as represented by the text on the input stream.
+     * @return The parsed level as represented by the text in the resource.
+     * @throws IOException
+     *             when the resource could not be read.
+     */
+    public Level parseMap(String mapName) throws IOException {
+        LevelTemplate template = templates.get(mapName);
+        if (template != null) {
+            return parseMap(template);
+        }
+        template = readTemplate(mapName);
+        Level level = parseMap(template);
+        // Only maps that made a level are kept, so broken maps keep failing.
+        templates.putIfAbsent(mapName, template);
+        return level;
+    }
+
+    /**
+     * Reads the map in a resource into a template.
+     *
+     * @param mapName
+     *            Name of a resource that will be read.
+     * @return The template of the map.
      * @throws IOException
      *             when the resource could not be read.
      */
@@ -243,13 +762,87 @@ public class MapParser {
         value = {"OBL_UNSATISFIED_OBLIGATION", "RCN_REDUNDANT_NULLCHECK_OF_NONNULL_VALUE"},
         justification = "try with resources always cleans up / false positive in java 11"
     )
-    public Level parseMap(String mapName) throws IOException {
+    public LevelTemplate readTemplate(String mapName) throws IOException {
         try (InputStream boardStream = MapParser.class.getResourceAsStream(mapName)) {
             if (boardStream == null) {
                 throw new PacmanConfigurationException("Could not get resource for: " + mapName);
             }
-            return parseMap(boardStream);
+            return parseTemplate(mapName, readFully(boardStream));
+        }
+    }
+
+    /**
+     * Checks the rows of a text map, as {@link #parseMap(ByteBuffer)} does,
+     * and copies its characters into a template. The characters themselves
+     * are checked when a level is made from the template.
+     *
+     * @param name
+     *            The name of the map.
+     * @param map
+     *            The map, from its position up to its limit.
+     * @return The template of the map.
+     * @throws PacmanConfigurationException
+     *             If the map is empty or its rows are not of equal width.
+     */
+    public LevelTemplate parseTemplate(String name, ByteBuffer map) {
+        return templateOf(name, map);
+    }
+
+    /**
+     * Checks the rows of a text map and copies its characters into a
+     * template, see {@link #parseTemplate(String, ByteBuffer)}.
+     */
+    static LevelTemplate templateOf(String name, ByteBuffer map) {
+        int[] rows = rowStarts(map);
+        int width = rowLength(map, rows[0], map.limit());
+        byte[] cells = new byte[width * rows.length];
+        ByteBuffer source = map.duplicate();
+        for (int y = 0; y < rows.length; y++) {
+            source.position(rows[y]);
+            source.get(cells, y * width, width);
+        }
+        return new LevelTemplate(name, width, rows.length, cells);
+    }
+
+    /**
+     * Makes a new level from a template. The squares and units are created
+     * as {@link #parseMap(char[][])} would, but the ghosts share the distance
+     * table of the first level made from the template instead of building
+     * one per level.
+     *
+     * @param template
+     *            The template of the map.
+     * @return A new level as represented by the template.
+     * @throws PacmanConfigurationException
+     *             If the template contains unsupported characters.
+     */
+    public synchronized Level parseMap(LevelTemplate template) {
+        int width = template.getWidth();
+        int height = template.getHeight();
+
+        Square[][] grid = new Square[width][height];
+        List<Ghost> ghosts = new ArrayList<>();
+        List<Square> startPositions = new ArrayList<>();
+
+        // Every level of a template gets the same ghosts, as with a new parser.
+        levelCreator.restartGhostCycle();
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                addSquare(grid, ghosts, startPositions, x, y, template.getCell(x, y));
+            }
+        }
+
+        Board board = boardCreator.createBoard(grid);
+        DistanceTable table = template.getTable();
+        if (table != null && !ghosts.isEmpty()) {
+            return levelCreator.createLevel(board, ghosts, startPositions,
+                new DistanceOracle(board, ghosts.get(0), table));
+        }
+        Level level = levelCreator.createLevel(board, ghosts, startPositions);
+        if (!ghosts.isEmpty() && ghosts.get(0).getDistanceOracle() != null) {
+            template.setTable(ghosts.get(0).getDistanceOracle().getTable());
         }
+        return level;
     }
 
     /**
@@ -0,0 +1,284 @@
+package jpacman.level;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import jpacman.PacmanConfigurationException;
+
+/**
+ * Generates random mazes of any size, for instance to test how the game
+ * behaves on boards much larger than the hand-written ones. The same seed and
+ * settings always give the same maze.
+ * <p>
+ * The maze is a grid of rooms on the odd rows and columns, separated by
+ * walls. The rooms are first connected into a maze without loops, row by row
+ * with the sidewinder algorithm, so every ground square can reach every
+ * other one. The corridor density then opens the remaining walls between
+ * neighbouring rooms, adding loops and shortcuts. Pellets are spread over the
+ * ground, and ghosts and start positions are put in random rooms.
+ * <p>
+ * A maze is generated as a {@link LevelTemplate}, which
+ * {@link MapParser#parseMap(LevelTemplate)} turns straight into a level
+ * without any text in between. It can also be written as a text map with
+ * {@link #write(LevelTemplate, OutputStream)}, or in the
+ * {@link BinaryMapFormat}.
+ */
+public final class MazeGenerator {
+
+    /**
+     * The smallest width and height of a maze: one room with walls around it.
+     */
+    public static final int MIN_SIZE = 3;
+
+    /**
+     * The seed of the random generator.
+     */
+    private final long seed;
+
+    /**
+     * The width of the maze.
+     */
+    private int width = 21;
+
+    /**
+     * The height of the maze.
+     */
+    private int height = 21;
+
+    /**
+     * The chance that a wall between two rooms that the maze did not need
+     * to open is opened anyway.
+     */
+    private double corridorDensity = 0.1;
+
+    /**
+     * The chance that a ground square holds a pellet.
+     */
+    private double pelletDensity = 0.9;
+
+    /**
+     * The number of ghosts.
+     */
+    private int ghosts = 4;
+
+    /**
+     * The number of start positions.
+     */
+    private int players = 1;
+
+    /**
+     * Creates a new generator for mazes of 21 by 21 squares with four ghosts
+     * and one start position.
+     *
+     * @param seed
+     *            The seed of the random generator.
+     */
+    public MazeGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Sets the size of the mazes.
+     *
+     * @param mazeWidth
+     *            The width of the mazes, at least {@link #MIN_SIZE}.
+     * @param mazeHeight
+     *            The height of the mazes, at least {@link #MIN_SIZE}.
+     * @return This generator.
+     */
+    public MazeGenerator withSize(int mazeWidth, int mazeHeight) {
+        assert mazeWidth >= MIN_SIZE && mazeHeight >= MIN_SIZE;
+        assert (long) mazeWidth * mazeHeight <= Integer.MAX_VALUE;
+        this.width = mazeWidth;
+        this.height = mazeHeight;
+        return this;
+    }
+
+    /**
+     * Sets how many walls between rooms are opened on top of the ones needed
+     * to connect all rooms. At 0 there is exactly one path between any two
+     * squares; at 1 every room is open to all its neighbours.
+     *
+     * @param density
+     *            The chance that an unneeded wall is opened, from 0 to 1.
+     * @return This generator.
+     */
+    public MazeGenerator withCorridorDensity(double density) {
+        assert density >= 0.0 && density <= 1.0;
+        this.corridorDensity = density;
+        return this;
+    }
+
+    /**
+     * Sets how many ground squares hold a pellet.
+     *
+     * @param density
+     *            The chance that a ground square holds a pellet, from 0 to 1.
+     * @return This generator.
+     */
+    public MazeGenerator withPelletDensity(double density) {
+        assert density >= 0.0 && density <= 1.0;
+        this.pelletDensity = density;
+        return this;
+    }
+
+    /**
+     * Sets the number of ghosts.
+     *
+     * @param count
+     *            The number of ghosts.
+     * @return This generator.
+     */
+    public MazeGenerator withGhosts(int count) {
+        assert count >= 0;
+        this.ghosts = count;
+        return this;
+    }
+
+    /**
+     * Sets the number of start positions.
+     *
+     * @param count
+     *            The number of start positions.
+     * @return This generator.
+     */
+    public MazeGenerator withPlayers(int count) {
+        assert count >= 0;
+        this.players = count;
+        return this;
+    }
+
+    /**
+     * Generates a maze.
+     *
+     * @return The maze, named after its size and seed.
+     * @throws PacmanConfigurationException
+     *             If the maze has fewer rooms than ghosts and players.
+     */
+    public LevelTemplate generate() {
+        int roomsX = (width - 1) / 2;
+        int roomsY = (height - 1) / 2;
+        if ((long) ghosts + players > (long) roomsX * roomsY) {
+            throw new PacmanConfigurationException("A maze of " + width + "x" + height
+                + " has room for " + (long) roomsX * roomsY + " units, not "
+                + ((long) ghosts + players) + ".");
+        }
+
+        SplittableRandom random = new SplittableRandom(seed);
+        byte[] cells = new byte[width * height];
+        Arrays.fill(cells, (byte) '#');
+        carve(cells, roomsX, roomsY, random);
+        for (int id = 0; id < cells.length; id++) {
+            if (cells[id] == ' ' && random.nextDouble() < pelletDensity) {
+                cells[id] = '.';
+            }
+        }
+        place(cells, roomsX, roomsY, ghosts, 'G', random);
+        place(cells, roomsX, roomsY, players, 'P', random);
+        return new LevelTemplate("maze-" + width + "x" + height + "-" + seed,
+            width, height, cells);
+    }
+
+    /**
+     * Opens the rooms and the walls between them, a row at a time.
+     */
+    private void carve(byte[] cells, int roomsX, int roomsY, SplittableRandom random) {
+        for (int row = 0; row < roomsY; row++) {
+            int y = 2 * row + 1;
+            int runStart = 0;
+            for (int column = 0; column < roomsX; column++) {
+                int x = 2 * column + 1;
+                cells[y * width + x] = ' ';
+                boolean last = column == roomsX - 1;
+                boolean closeRun = row > 0 && (last || random.nextBoolean());
+                if (closeRun) {
+                    int up = 2 * (runStart + random.nextInt(column - runStart + 1)) + 1;
+                    cells[(y - 1) * width + up] = ' ';
+                    runStart = column + 1;
+                } else if (!last) {
+                    cells[y * width + x + 1] = ' ';
+                }
+                // Walls the maze did not need may still be opened.
+                if (!last && cells[y * width + x + 1] == '#'
+                    && random.nextDouble() < corridorDensity) {
+                    cells[y * width + x + 1] = ' ';
+                }
+                if (row > 0 && cells[(y - 1) * width + x] == '#'
+                    && random.nextDouble() < corridorDensity) {
+                    cells[(y - 1) * width + x] = ' ';
+                }
+            }
+        }
+    }
+
+    /**
+     * Puts units in random rooms that do not have a unit yet.
+     */
+    private void place(byte[] cells, int roomsX, int roomsY, int count, char unit,
+                       SplittableRandom random) {
+        for (int placed = 0; placed < count; placed++) {
+            int id;
+            do {
+                int x = 2 * random.nextInt(roomsX) + 1;
+                int y = 2 * random.nextInt(roomsY) + 1;
+                id = y * width + x;
+            } while (cells[id] == 'G' || cells[id] == 'P');
+            cells[id] = (byte) unit;
+        }
+    }
+
+    /**
+     * Writes a maze as a text map that {@link MapParser} accepts.
+     *
+     * @param maze
+     *            The maze to write.
+     * @param output
+     *            The stream to write to, which is flushed but not closed.
+     * @throws IOException
+     *             when the stream could not be written.
+     */
+    public static void write(LevelTemplate maze, OutputStream output) throws IOException {
+        OutputStream buffered = new BufferedOutputStream(output);
+        for (int y = 0; y < maze.getHeight(); y++) {
+            if (y > 0) {
+                buffered.write('\n');
+            }
+            for (int x = 0; x < maze.getWidth(); x++) {
+                buffered.write(maze.getCell(x, y));
+            }
+        }
+        buffered.flush();
+    }
+
+    /**
+     * Generates a maze and writes it to a file, as a binary map if the file
+     * name ends in <code>.jpm</code> and as a text map otherwise.
+     *
+     * @param args
+     *            The width, height and seed of the maze, and the file to
+     *            write it to.
+     * @throws IOException
+     *             when the file could not be written.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 4) {
+            throw new IllegalArgumentException(
+                "Usage: MazeGenerator <width> <height> <seed> <file>");
+        }
+        LevelTemplate maze = new MazeGenerator(Long.parseLong(args[2]))
+            .withSize(Integer.parseInt(args[0]), Integer.parseInt(args[1]))
+            .generate();
+        if (args[3].endsWith(".jpm")) {
+            BinaryMapFormat.write(maze, Paths.get(args[3]));
+        } else {
+            try (OutputStream output = Files.newOutputStream(Paths.get(args[3]))) {
+                write(maze, output);
+            }
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package jpacman.level;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Schedules the moves of the NPCs of every level on one fixed pool of worker
+ * threads, sized to the number of processors. Starting and stopping a level
+ * only adds and removes entries from the schedule, so no threads are created
+ * or destroyed no matter how many levels are running or how often they are
+ * paused.
+ * <p>
+ * The workers are daemon threads, so the shared scheduler never keeps the
+ * virtual machine alive.
+ */
+public final class NpcScheduler {
+
+    /**
+     * The scheduler shared by all levels.
+     */
+    private static final NpcScheduler SHARED =
+        new NpcScheduler(Runtime.getRuntime().availableProcessors());
+
+    /**
+     * The pool executing the moves.
+     */
+    private final ScheduledThreadPoolExecutor executor;
+
+    /**
+     * Creates a new scheduler.
+     *
+     * @param threads
+     *            The number of worker threads.
+     */
+    NpcScheduler(int threads) {
+        assert threads > 0;
+        this.executor = new ScheduledThreadPoolExecutor(threads, new WorkerFactory());
+        executor.setRemoveOnCancelPolicy(true);
+        executor.prestartAllCoreThreads();
+    }
+
+    /**
+     * @return The scheduler shared by all levels.
+     */
+    public static NpcScheduler getShared() {
+        return SHARED;
+    }
+
+    /**
+     * Schedules a task to run once after a delay.
+     *
+     * @param task
+     *            The task to run.
+     * @param delay
+     *            The delay in milliseconds.
+     * @return The pending task, which can be cancelled.
+     */
+    public ScheduledFuture<?> schedule(Runnable task, long delay) {
+        return executor.schedule(task, delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return The number of worker threads of this scheduler.
+     */
+    public int getThreadCount() {
+        return executor.getCorePoolSize();
+    }
+
+    /**
+     * @return The number of tasks waiting to run.
+     */
+    public int getPendingTasks() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * Creates the daemon worker threads of a scheduler.
+     */
+    private static final class WorkerFactory implements ThreadFactory {
+
+        /**
+         * The number of threads created so far, used to name them.
+         */
+        private final AtomicInteger created = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "npc-scheduler-" + created.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package jpacman.level;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jpacman.board.Board;
+import jpacman.board.Unit;
+import jpacman.board.UnitRegistry;
+
+/**
+ * A live count of the pellets on a board. The count is taken once when the
+ * counter is created and then follows the pellets arriving on and leaving
+ * the board through its {@link UnitRegistry}, so reading it never requires
+ * looking at the board.
+ */
+public final class PelletCounter implements UnitRegistry.UnitObserver {
+
+    /**
+     * The number of pellets on the board when counting started.
+     */
+    private final int initial;
+
+    /**
+     * The number of pellets currently on the board.
+     */
+    private final AtomicInteger remaining;
+
+    /**
+     * Counts the pellets on a board and keeps counting them as they are
+     * eaten.
+     *
+     * @param board
+     *            The board to count the pellets of.
+     */
+    public PelletCounter(Board board) {
+        assert board != null;
+        UnitRegistry units = board.getUnits();
+        this.initial = units.count(Pellet.class);
+        this.remaining = new AtomicInteger(initial);
+        units.addObserver(this);
+    }
+
+    /**
+     * @return The number of pellets on the board when counting started.
+     */
+    public int getInitial() {
+        return initial;
+    }
+
+    /**
+     * @return The number of pellets currently on the board.
+     */
+    public int getRemaining() {
+        return remaining.get();
+    }
+
+    @Override
+    public void unitAdded(Unit unit) {
+        if (unit instanceof Pellet) {
+            remaining.incrementAndGet();
+        }
+    }
+
+    @Override
+    public void unitRemoved(Unit unit) {
+        if (unit instanceof Pellet) {
+            int left = remaining.decrementAndGet();
+            assert left >= 0;
+        }
+    }
+}
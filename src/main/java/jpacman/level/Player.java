@@ -1,6 +1,8 @@
 package jpacman.level;
 
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import jpacman.board.Unit;
 import jpacman.sprite.Sprite;
@@ -39,6 +41,11 @@ public class Player extends Unit {
      */
     private Unit killer;
 
+    /**
+     * The objects observing the score and life of this player.
+     */
+    private final List<PlayerObserver> observers;
+
     /**
      * Creates a new player with a score of 0 points.
      *
@@ -52,9 +59,37 @@ public class Player extends Unit {
         this.alive = true;
         this.sprites = spriteMap;
         this.deathSprite = deathAnimation;
+        this.observers = new CopyOnWriteArrayList<>();
         deathSprite.setAnimating(false);
     }
 
+    /**
+     * Adds an observer that will be notified when the score of this player
+     * changes or this player dies or comes back alive.
+     *
+     * @param observer
+     *            The observer that will be notified.
+     */
+    public void addObserver(PlayerObserver observer) {
+        observers.add(observer);
+    }
+
+    /**
+     * Removes an observer if it was listed.
+     *
+     * @param observer
+     *            The observer to be removed.
+     */
+    public void removeObserver(PlayerObserver observer) {
+        observers.remove(observer);
+    }
+
+    private void notifyObservers() {
+        for (PlayerObserver observer : observers) {
+            observer.playerChanged(this);
+        }
+    }
+
     /**
      * Returns whether this player is alive or not.
      *
@@ -80,7 +115,11 @@ public class Player extends Unit {
         if (!isAlive) {
             deathSprite.restart();
         }
+        boolean changed = alive != isAlive;
         this.alive = isAlive;
+        if (changed) {
+            notifyObservers();
+        }
     }
 
     /**
@@ -127,5 +166,26 @@ public class Player extends Unit {
      */
     public void addPoints(int points) {
         score += points;
+        if (points != 0) {
+            notifyObservers();
+        }
+    }
+
+    /**
+     * An observer that will be notified when the score or the life of a
+     * player changes. Observers are notified on the thread that changed the
+     * player, usually while its level is locked, so they should hand the
+     * work off rather than do it right away.
+     */
+    public interface PlayerObserver {
+
+        /**
+         * The score of the player changed, or the player died or came back
+         * alive.
+         *
+         * @param player
+         *            The player that changed.
+         */
+        void playerChanged(Player player);
     }
 }
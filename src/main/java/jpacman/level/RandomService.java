@@ -0,0 +1,59 @@
+package jpacman.level;
+
+import java.util.SplittableRandom;
+
+/**
+ * The source of randomness of a game. Every ghost draws from its own stream,
+ * split from one master generator, so the ghosts never contend for a shared
+ * generator, drawing numbers does not allocate, and a game started with the
+ * same seed makes the same random choices again.
+ */
+public final class RandomService {
+
+    /**
+     * The seed of the master generator.
+     */
+    private final long seed;
+
+    /**
+     * The generator all streams are split from.
+     */
+    private final SplittableRandom master;
+
+    /**
+     * Creates a new service with a seed of its own.
+     */
+    public RandomService() {
+        this(new SplittableRandom().nextLong());
+    }
+
+    /**
+     * Creates a new service with the given seed.
+     *
+     * @param seed
+     *            The seed of the master generator.
+     */
+    public RandomService(long seed) {
+        this.seed = seed;
+        this.master = new SplittableRandom(seed);
+    }
+
+    /**
+     * @return The seed of this service, which can be used to create a
+     *         service making the same random choices.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Splits off a new, independent stream of random numbers. Streams are
+     * split off in a fixed sequence, so the n-th stream of two services with
+     * the same seed produces the same numbers.
+     *
+     * @return A new random generator, to be used by a single thread at a time.
+     */
+    public synchronized SplittableRandom split() {
+        return master.split();
+    }
+}
@@ -0,0 +1,204 @@
+package jpacman.level;
+
+import java.util.List;
+
+import jpacman.board.Direction;
+import jpacman.npc.Ghost;
+import jpacman.npc.ghost.DistanceOracle;
+
+/**
+ * Runs a {@link Level} on a logical clock instead of the wall clock. Time
+ * advances in fixed ticks: every tick first moves the players as told by a
+ * {@link PlayerController}, then moves every ghost whose
+ * {@link Ghost#getInterval()} has passed since its previous move. Nothing
+ * waits for real time to pass, so a level runs as fast as the moves can be
+ * computed, all on the calling thread. The level is run headless: its moves
+ * publish no snapshots and its observers are not told it was won or lost.
+ * <p>
+ * The random variation of the ghosts is seeded, so two engines with the same
+ * seed, level and controller make exactly the same moves.
+ */
+public class SimulationEngine {
+
+    /**
+     * The level being simulated.
+     */
+    private final Level level;
+
+    /**
+     * Decides the moves of the players.
+     */
+    private final PlayerController controller;
+
+    /**
+     * The logical length of a tick in milliseconds.
+     */
+    private final long tickLength;
+
+    /**
+     * The ghosts of the level, in a fixed order.
+     */
+    private final Ghost[] ghosts;
+
+    /**
+     * The players of the level, taken when the level is started.
+     */
+    private Player[] players;
+
+    /**
+     * The time in milliseconds until each ghost moves next.
+     */
+    private final long[] untilMove;
+
+    /**
+     * The number of ticks simulated so far.
+     */
+    private long ticks;
+
+    /**
+     * <code>true</code> iff the level has been started.
+     */
+    private boolean started;
+
+    /**
+     * Creates a new engine for a level. The level is started on the first
+     * tick. The distance table of the ghosts is built here, unless the level
+     * shares one that is built already, such as the table of a
+     * {@link LevelTemplate}, so that the simulation itself only moves units.
+     *
+     * @param level
+     *            The level to simulate, with its players registered.
+     * @param controller
+     *            Decides the moves of the players.
+     * @param tickLength
+     *            The logical length of a tick in milliseconds.
+     * @param seed
+     *            The seed for the random variation of the ghosts.
+     */
+    public SimulationEngine(Level level, PlayerController controller,
+                            long tickLength, long seed) {
+        assert level != null;
+        assert controller != null;
+        assert tickLength > 0;
+        this.level = level;
+        this.controller = controller;
+        this.tickLength = tickLength;
+
+        List<Ghost> npcs = level.getGhosts();
+        this.ghosts = npcs.toArray(new Ghost[0]);
+        this.untilMove = new long[ghosts.length];
+        for (Ghost ghost : ghosts) {
+            // Wait for the table instead of racing its background build, so
+            // every run does the same work from the first tick on.
+            DistanceOracle oracle = ghost.getDistanceOracle();
+            if (oracle != null) {
+                oracle.build();
+            }
+        }
+        level.setRandomService(new RandomService(seed));
+        level.setHeadless(true);
+        this.players = new Player[0];
+        this.ticks = 0L;
+        this.started = false;
+    }
+
+    /**
+     * Simulates a single tick, unless the level is finished.
+     *
+     * @return <code>true</code> iff the level is still running after the
+     *         tick.
+     */
+    public boolean step() {
+        if (!started) {
+            start();
+        }
+        if (isFinished()) {
+            return false;
+        }
+        ticks++;
+        for (Player player : players) {
+            Direction direction = controller.nextMove(player, ticks);
+            if (direction != null && player.hasSquare()) {
+                level.move(player, direction);
+            }
+        }
+        for (int i = 0; i < ghosts.length && !isFinished(); i++) {
+            untilMove[i] -= tickLength;
+            while (untilMove[i] <= 0 && !isFinished()) {
+                Ghost ghost = ghosts[i];
+                Direction direction = ghost.nextMove();
+                if (direction != null) {
+                    level.move(ghost, direction);
+                }
+                untilMove[i] += ghost.getInterval();
+            }
+        }
+        return !isFinished();
+    }
+
+    /**
+     * Simulates ticks until the level is finished or the maximum number of
+     * ticks has been simulated, and stops the level.
+     *
+     * @param maxTicks
+     *            The maximum number of ticks to simulate.
+     * @return The number of ticks simulated by this call.
+     */
+    public long run(long maxTicks) {
+        long before = ticks;
+        while (ticks - before < maxTicks && step()) {
+            // keep ticking.
+        }
+        level.stop();
+        return ticks - before;
+    }
+
+    private void start() {
+        started = true;
+        players = level.getPlayers().toArray(new Player[0]);
+        for (int i = 0; i < ghosts.length; i++) {
+            untilMove[i] = ghosts[i].getInterval() / 2;
+        }
+        level.start(false);
+    }
+
+    /**
+     * @return <code>true</code> iff the level has been stopped, won or lost.
+     */
+    public boolean isFinished() {
+        return started && (!level.isInProgress() || !level.isAnyPlayerAlive()
+            || level.remainingPellets() == 0);
+    }
+
+    /**
+     * @return The number of ticks simulated so far.
+     */
+    public long getTicks() {
+        return ticks;
+    }
+
+    /**
+     * @return The logical time that has passed in milliseconds.
+     */
+    public long getTime() {
+        return ticks * tickLength;
+    }
+
+    /**
+     * Decides the moves of the players in a simulation.
+     */
+    public interface PlayerController {
+
+        /**
+         * Decides the move of a player in the current tick.
+         *
+         * @param player
+         *            The player to move.
+         * @param tick
+         *            The number of the current tick, starting at 1.
+         * @return The direction to move the player in, or <code>null</code>
+         *         to keep the player where it is.
+         */
+        Direction nextMove(Player player, long tick);
+    }
+}
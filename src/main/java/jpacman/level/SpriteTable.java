@@ -0,0 +1,76 @@
+package jpacman.level;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import jpacman.sprite.Sprite;
+
+/**
+ * The sprites that the snapshots of a level refer to by id. Snapshots hold
+ * small integer ids instead of sprites, so that they can be copied, compared
+ * and sent elsewhere, such as to network spectators, that look the sprites up
+ * in this table.
+ * <p>
+ * Ids are handed out in order, starting at 0, the first time a sprite is
+ * seen, and never change. Only the level adds sprites, while holding its move
+ * lock; every sprite a published snapshot refers to is in the table before
+ * that snapshot is published, so readers can look ids up from any thread.
+ */
+public final class SpriteTable {
+
+    /**
+     * The sprites, indexed by id. Replaced as a whole when a sprite is added.
+     */
+    private volatile Sprite[] sprites;
+
+    /**
+     * The id of every sprite in the table. Only used by the level.
+     */
+    private final Map<Sprite, Integer> ids;
+
+    /**
+     * Creates a new, empty table.
+     */
+    SpriteTable() {
+        this.sprites = new Sprite[0];
+        this.ids = new IdentityHashMap<>();
+    }
+
+    /**
+     * Returns the id of a sprite, adding it to the table if it is new.
+     *
+     * @param sprite
+     *            The sprite to look up.
+     * @return The id of the sprite.
+     */
+    int idOf(Sprite sprite) {
+        Integer id = ids.get(sprite);
+        if (id != null) {
+            return id;
+        }
+        Sprite[] grown = Arrays.copyOf(sprites, sprites.length + 1);
+        grown[sprites.length] = sprite;
+        ids.put(sprite, sprites.length);
+        sprites = grown;
+        return grown.length - 1;
+    }
+
+    /**
+     * Returns the sprite with the given id.
+     *
+     * @param id
+     *            The id of the sprite, as found in a snapshot.
+     * @return The sprite with that id.
+     */
+    public Sprite getSprite(int id) {
+        return sprites[id];
+    }
+
+    /**
+     * @return The number of sprites in the table.
+     */
+    public int size() {
+        return sprites.length;
+    }
+}
@@ -3,13 +3,16 @@ package jpacman.npc;
 import jpacman.board.Direction;
 import jpacman.board.Square;
 import jpacman.board.Unit;
+import jpacman.level.PelletCounter;
+import jpacman.npc.ghost.DistanceOracle;
+import jpacman.npc.ghost.PlayerDistances;
 import jpacman.sprite.Sprite;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.Random;
+import java.util.SplittableRandom;
 
 /**
  * A non-player unit.
@@ -32,6 +35,29 @@ public abstract class Ghost extends Unit {
      */
     private final int intervalVariation;
 
+    /**
+     * The distance table of the board this ghost is on, or <code>null</code>
+     * if there is none.
+     */
+    private DistanceOracle distanceOracle;
+
+    /**
+     * The distance fields towards the players of the level this ghost is in,
+     * or <code>null</code> if there are none.
+     */
+    private PlayerDistances playerDistances;
+
+    /**
+     * The live count of the pellets of the level this ghost is in, or
+     * <code>null</code> if there is none.
+     */
+    private PelletCounter pelletCounter;
+
+    /**
+     * The source of the random variation in this ghost's moves.
+     */
+    private SplittableRandom random;
+
     /**
      * Calculates the next move for this unit and returns the direction to move
      * in.
@@ -64,6 +90,7 @@ public abstract class Ghost extends Unit {
         this.sprites = spriteMap;
         this.intervalVariation = intervalVariation;
         this.moveInterval = moveInterval;
+        this.random = new SplittableRandom();
     }
 
     @Override
@@ -71,13 +98,89 @@ public abstract class Ghost extends Unit {
         return sprites.get(getDirection());
     }
 
+    /**
+     * Returns the distance table of the board this ghost is on.
+     *
+     * @return The distance oracle, or <code>null</code> if none was provided.
+     */
+    public DistanceOracle getDistanceOracle() {
+        return distanceOracle;
+    }
+
+    /**
+     * Provides the distance table of the board this ghost is on, allowing the
+     * AI to look up distances instead of searching for them.
+     *
+     * @param oracle
+     *            The distance oracle of the board.
+     */
+    public void setDistanceOracle(DistanceOracle oracle) {
+        this.distanceOracle = oracle;
+    }
+
+    /**
+     * Returns the distance fields towards the players of the level this ghost
+     * is in.
+     *
+     * @return The player distances, or <code>null</code> if none were
+     *         provided.
+     */
+    public PlayerDistances getPlayerDistances() {
+        return playerDistances;
+    }
+
+    /**
+     * Provides the distance fields towards the players of the level this
+     * ghost is in, which the level keeps up to date as the players move.
+     *
+     * @param distances
+     *            The player distances of the level.
+     */
+    public void setPlayerDistances(PlayerDistances distances) {
+        this.playerDistances = distances;
+    }
+
+    /**
+     * Returns the live count of the pellets of the level this ghost is in.
+     *
+     * @return The pellet counter, or <code>null</code> if none was provided.
+     */
+    public PelletCounter getPelletCounter() {
+        return pelletCounter;
+    }
+
+    /**
+     * Provides the live count of the pellets of the level this ghost is in,
+     * so that the AI can react to the progress of the player.
+     *
+     * @param counter
+     *            The pellet counter of the level.
+     */
+    public void setPelletCounter(PelletCounter counter) {
+        this.pelletCounter = counter;
+    }
+
+    /**
+     * Replaces the source of the random variation in this ghost's moves, so
+     * that its moves can be reproduced. The level gives every ghost its own
+     * stream of its game's {@link jpacman.level.RandomService}.
+     *
+     * @param source
+     *            The random generator to use from now on, which is not shared
+     *            with other ghosts.
+     */
+    public void setRandom(SplittableRandom source) {
+        assert source != null;
+        this.random = source;
+    }
+
     /**
      * The time that should be taken between moves.
      *
      * @return The suggested delay between moves in milliseconds.
      */
     public long getInterval() {
-        return this.moveInterval + new Random().nextInt(this.intervalVariation);
+        return this.moveInterval + random.nextInt(this.intervalVariation);
     }
 
     /**
@@ -97,7 +200,7 @@ public abstract class Ghost extends Unit {
         if (directions.isEmpty()) {
             return null;
         }
-        int i = new Random().nextInt(directions.size());
+        int i = random.nextInt(directions.size());
         return directions.get(i);
     }
 }
@@ -0,0 +1,232 @@
+package jpacman.npc.ghost;
+
+import java.util.Arrays;
+
+import jpacman.board.Board;
+import jpacman.board.Direction;
+import jpacman.board.Square;
+import jpacman.board.Unit;
+
+/**
+ * An A* search over the squares of a board. The search is guided by the
+ * Manhattan distance to the destination, measured around the edges of the
+ * board since the board wraps. That estimate never exceeds the real walking
+ * distance, so the paths found are as short as the ones found by
+ * {@link BreadthFirstSearch}, while far fewer squares are expanded when the
+ * destination is close or the board is open.
+ * <p>
+ * Squares that are not on a board have no position, in which case the
+ * estimate is 0 and the search behaves like Dijkstra's algorithm.
+ * <p>
+ * Instances are not thread safe; use {@link #forCurrentThread()} to obtain
+ * the instance of the calling thread.
+ */
+final class AStarSearch extends SquareSearch {
+
+    /**
+     * The search of each thread.
+     */
+    private static final ThreadLocal<AStarSearch> SEARCHES =
+        ThreadLocal.withInitial(AStarSearch::new);
+
+    /**
+     * The number of steps from the start to each reached square, by position
+     * in the arrays of the search. Only valid for squares reached in the
+     * current search.
+     */
+    private int[] costs;
+
+    /**
+     * The generation in which each square was expanded, by position in the
+     * arrays of the search.
+     */
+    private int[] closed;
+
+    /**
+     * The binary heap of squares waiting to be expanded. Squares whose cost
+     * improved are added again rather than moved, so the heap may hold stale
+     * entries which are skipped when they come up.
+     */
+    private Square[] open;
+
+    /**
+     * The estimated length of a path through each square in the heap.
+     */
+    private int[] estimates;
+
+    /**
+     * The cost of each square in the heap at the time it was added.
+     */
+    private int[] entryCosts;
+
+    /**
+     * The number of entries in the heap.
+     */
+    private int count;
+
+    /**
+     * The number of squares expanded by the last search.
+     */
+    private int expanded;
+
+    /**
+     * Creates a new search with buffers of the initial capacity.
+     */
+    private AStarSearch() {
+        super();
+        this.costs = new int[INITIAL_CAPACITY];
+        this.closed = new int[INITIAL_CAPACITY];
+        this.open = new Square[INITIAL_CAPACITY];
+        this.estimates = new int[INITIAL_CAPACITY];
+        this.entryCosts = new int[INITIAL_CAPACITY];
+    }
+
+    /**
+     * @return The search belonging to the calling thread.
+     */
+    static AStarSearch forCurrentThread() {
+        return SEARCHES.get();
+    }
+
+    @Override
+    boolean findPath(Square from, Square to, Unit traveller) {
+        Board board = from.getBoard();
+        try {
+            count = 0;
+            expanded = 0;
+            begin(from);
+            int generation = generation();
+            costs[indexOf(from)] = 0;
+            push(from, estimate(board, from, to), 0);
+            while (count > 0) {
+                int cost = entryCosts[0];
+                Square square = pop();
+                int index = indexOf(square);
+                if (closed[index] == generation || costs[index] != cost) {
+                    continue;
+                }
+                closed[index] = generation;
+                expanded++;
+                if (square.equals(to)) {
+                    finish(square);
+                    break;
+                }
+                for (Direction direction : DIRECTIONS) {
+                    Square target = square.getSquareAt(direction);
+                    if (traveller != null && !target.isAccessibleTo(traveller)) {
+                        continue;
+                    }
+                    int next = cost + 1;
+                    int targetIndex = indexOf(target);
+                    if (isReached(target) && (closed[targetIndex] == generation
+                        || costs[targetIndex] <= next)) {
+                        continue;
+                    }
+                    reach(target, direction);
+                    costs[targetIndex] = next;
+                    push(target, next + estimate(board, target, to), next);
+                }
+            }
+        } finally {
+            clearHeap();
+            end();
+        }
+        return hasPath();
+    }
+
+    /**
+     * @return The number of squares expanded by the last search.
+     */
+    int getExpanded() {
+        return expanded;
+    }
+
+    @Override
+    protected void grow(int capacity) {
+        costs = Arrays.copyOf(costs, capacity);
+        closed = Arrays.copyOf(closed, capacity);
+    }
+
+    private static int estimate(Board board, Square square, Square to) {
+        if (board == null || square.getBoard() != board || to.getBoard() != board) {
+            return 0;
+        }
+        return board.manhattanDistance(square, to);
+    }
+
+    /**
+     * Orders heap entries by estimate, preferring the entry that is further
+     * from the start when estimates are equal, since it is likely closer to
+     * the destination.
+     */
+    private boolean before(int i, int j) {
+        return estimates[i] < estimates[j]
+            || (estimates[i] == estimates[j] && entryCosts[i] > entryCosts[j]);
+    }
+
+    private void push(Square square, int estimate, int cost) {
+        if (count == open.length) {
+            int capacity = open.length * 2;
+            open = Arrays.copyOf(open, capacity);
+            estimates = Arrays.copyOf(estimates, capacity);
+            entryCosts = Arrays.copyOf(entryCosts, capacity);
+        }
+        open[count] = square;
+        estimates[count] = estimate;
+        entryCosts[count] = cost;
+        int i = count++;
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (!before(i, parent)) {
+                break;
+            }
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private Square pop() {
+        Square top = open[0];
+        count--;
+        swap(0, count);
+        open[count] = null;
+        int i = 0;
+        while (true) {
+            int smallest = i;
+            int left = 2 * i + 1;
+            int right = left + 1;
+            if (left < count && before(left, smallest)) {
+                smallest = left;
+            }
+            if (right < count && before(right, smallest)) {
+                smallest = right;
+            }
+            if (smallest == i) {
+                return top;
+            }
+            swap(i, smallest);
+            i = smallest;
+        }
+    }
+
+    private void swap(int i, int j) {
+        Square square = open[i];
+        open[i] = open[j];
+        open[j] = square;
+        int estimate = estimates[i];
+        estimates[i] = estimates[j];
+        estimates[j] = estimate;
+        int cost = entryCosts[i];
+        entryCosts[i] = entryCosts[j];
+        entryCosts[j] = cost;
+    }
+
+    /**
+     * Empties the heap, so that it does not keep the squares of a board alive
+     * once the search is done.
+     */
+    private void clearHeap() {
+        Arrays.fill(open, 0, count, null);
+        count = 0;
+    }
+}
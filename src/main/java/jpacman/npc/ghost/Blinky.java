@@ -1,13 +1,12 @@
 package jpacman.npc.ghost;
 
-import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
 import jpacman.board.Unit;
 import jpacman.board.Direction;
 import jpacman.board.Square;
-import jpacman.level.Player;
+import jpacman.level.PelletCounter;
 import jpacman.npc.Ghost;
 import jpacman.sprite.Sprite;
 
@@ -53,18 +52,44 @@ public class Blinky extends Ghost {
      */
     private static final int MOVE_INTERVAL = 250;
 
+    /**
+     * The number of pellets left at which Blinky starts to speed up.
+     */
+    private static final int FEW_PELLETS = 20;
+
+    /**
+     * The percentage of his usual interval Blinky waits between moves once
+     * there are only a few pellets left.
+     */
+    private static final int SPEED_UP_PERCENTAGE = 80;
+
     /**
      * Creates a new "Blinky", a.k.a. "Shadow".
      *
      * @param spriteMap
      *            The sprites for this ghost.
      */
-    // TODO Blinky should speed up when there are a few pellets left, but he
-    // has no way to find out how many there are.
     public Blinky(Map<Direction, Sprite> spriteMap) {
         super(spriteMap, MOVE_INTERVAL, INTERVAL_VARIATION);
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * Blinky drastically speeds up when there are only a few pellets left.
+     * </p>
+     */
+    @Override
+    public long getInterval() {
+        long interval = super.getInterval();
+        PelletCounter pellets = getPelletCounter();
+        if (pellets != null && pellets.getRemaining() <= FEW_PELLETS) {
+            return interval * SPEED_UP_PERCENTAGE / 100;
+        }
+        return interval;
+    }
+
     /**
      * {@inheritDoc}
      *
@@ -84,17 +109,13 @@ public class Blinky extends Ghost {
 
         // TODO Blinky should patrol his corner every once in a while
         // TODO Implement his actual behaviour instead of simply chasing.
-        Unit nearest = Navigation.findNearest(Player.class, getSquare());
+        Unit nearest = Navigation.findNearestPlayer(this);
         if (nearest == null) {
             return Optional.empty();
         }
         assert nearest.hasSquare();
         Square target = nearest.getSquare();
 
-        List<Direction> path = Navigation.shortestPath(getSquare(), target, this);
-        if (path != null && !path.isEmpty()) {
-            return Optional.ofNullable(path.get(0));
-        }
-        return Optional.empty();
+        return Optional.ofNullable(Navigation.firstStepTowards(this, target));
     }
 }
@@ -0,0 +1,155 @@
+package jpacman.npc.ghost;
+
+import jpacman.board.Direction;
+import jpacman.board.Square;
+import jpacman.board.Unit;
+
+/**
+ * A breadth first search over the squares of a board. Besides the arrays of
+ * {@link SquareSearch} it keeps its queue in a ring buffer that is reused from
+ * one search to the next, so once the buffers have grown to the size of the
+ * board a search does not allocate any memory.
+ * <p>
+ * Instances are not thread safe; use {@link #forCurrentThread()} to obtain
+ * the instance of the calling thread.
+ */
+final class BreadthFirstSearch extends SquareSearch {
+
+    /**
+     * The search of each thread.
+     */
+    private static final ThreadLocal<BreadthFirstSearch> SEARCHES =
+        ThreadLocal.withInitial(BreadthFirstSearch::new);
+
+    /**
+     * The ring buffer of squares waiting to be expanded.
+     */
+    private Square[] queue;
+
+    /**
+     * The position of the first square in the queue.
+     */
+    private int head;
+
+    /**
+     * The number of squares in the queue.
+     */
+    private int count;
+
+    /**
+     * Creates a new search with buffers of the initial capacity.
+     */
+    private BreadthFirstSearch() {
+        super();
+        this.queue = new Square[INITIAL_CAPACITY];
+    }
+
+    /**
+     * @return The search belonging to the calling thread.
+     */
+    static BreadthFirstSearch forCurrentThread() {
+        return SEARCHES.get();
+    }
+
+    @Override
+    boolean findPath(Square from, Square to, Unit traveller) {
+        try {
+            start(from);
+            while (count > 0) {
+                Square square = poll();
+                if (square.equals(to)) {
+                    finish(square);
+                    break;
+                }
+                for (Direction direction : DIRECTIONS) {
+                    Square target = square.getSquareAt(direction);
+                    if (!isReached(target)
+                        && (traveller == null || target.isAccessibleTo(traveller))) {
+                        visit(target, direction);
+                    }
+                }
+            }
+        } finally {
+            clearQueue();
+            end();
+        }
+        return hasPath();
+    }
+
+    /**
+     * Finds the nearest unit of the given type, ignoring terrain.
+     *
+     * @param type
+     *            The type of unit to search for.
+     * @param from
+     *            The starting location for the search.
+     * @return The nearest unit of the given type, or <code>null</code> if no
+     *         such unit could be found.
+     */
+    Unit findNearest(Class<? extends Unit> type, Square from) {
+        Unit result = null;
+        try {
+            start(from);
+            while (count > 0) {
+                Square square = poll();
+                result = Navigation.findUnit(type, square);
+                if (result != null) {
+                    break;
+                }
+                for (Direction direction : DIRECTIONS) {
+                    Square target = square.getSquareAt(direction);
+                    if (!isReached(target)) {
+                        visit(target, direction);
+                    }
+                }
+            }
+        } finally {
+            clearQueue();
+            end();
+        }
+        return result;
+    }
+
+    private void start(Square from) {
+        head = 0;
+        count = 0;
+        begin(from);
+        offer(from);
+    }
+
+    private void visit(Square square, Direction direction) {
+        reach(square, direction);
+        offer(square);
+    }
+
+    private void offer(Square square) {
+        if (count == queue.length) {
+            Square[] larger = new Square[queue.length * 2];
+            for (int i = 0; i < count; i++) {
+                larger[i] = queue[(head + i) % queue.length];
+            }
+            queue = larger;
+            head = 0;
+        }
+        queue[(head + count) % queue.length] = square;
+        count++;
+    }
+
+    private Square poll() {
+        Square square = queue[head];
+        queue[head] = null;
+        head = (head + 1) % queue.length;
+        count--;
+        return square;
+    }
+
+    /**
+     * Empties the queue, so that it does not keep the squares of a board
+     * alive once the search is done.
+     */
+    private void clearQueue() {
+        while (count > 0) {
+            poll();
+        }
+    }
+}
@@ -1,14 +1,12 @@
 package jpacman.npc.ghost;
 
 import java.util.EnumMap;
-import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
 import jpacman.board.Direction;
 import jpacman.board.Square;
 import jpacman.board.Unit;
-import jpacman.level.Player;
 import jpacman.sprite.Sprite;
 import jpacman.npc.Ghost;
 
@@ -94,21 +92,40 @@ public class Clyde extends Ghost {
     public Optional<Direction> nextAiMove() {
         assert hasSquare();
 
-        Unit nearest = Navigation.findNearest(Player.class, getSquare());
+        Unit nearest = Navigation.findNearestPlayer(this);
         if (nearest == null) {
             return Optional.empty();
         }
         assert nearest.hasSquare();
         Square target = nearest.getSquare();
 
-        List<Direction> path = Navigation.shortestPath(getSquare(), target, this);
-        if (path != null && !path.isEmpty()) {
-            Direction direction = path.get(0);
-            if (path.size() <= SHYNESS) {
-                return Optional.ofNullable(OPPOSITES.get(direction));
+        Square from = getSquare();
+        Direction direction;
+        int distance;
+        PlayerDistances players = getPlayerDistances();
+        DistanceField field = players == null ? null : players.fieldTo(target);
+        DistanceOracle oracle = getDistanceOracle();
+        if (field != null) {
+            direction = field.firstStep(from);
+            distance = field.distance(from);
+        } else if (oracle != null && oracle.covers(from)) {
+            direction = oracle.firstStep(from, target);
+            distance = oracle.distance(from, target);
+        } else {
+            BreadthFirstSearch search = BreadthFirstSearch.forCurrentThread();
+            if (!search.findPath(from, target, this)) {
+                return Optional.empty();
             }
-            return Optional.of(direction);
+            direction = search.firstStep();
+            distance = search.pathLength();
         }
-        return Optional.empty();
+
+        if (direction == null) {
+            return Optional.empty();
+        }
+        if (distance <= SHYNESS) {
+            return Optional.ofNullable(OPPOSITES.get(direction));
+        }
+        return Optional.of(direction);
     }
 }
@@ -0,0 +1,167 @@
+package jpacman.npc.ghost;
+
+import java.util.Arrays;
+
+import jpacman.board.Board;
+import jpacman.board.Direction;
+import jpacman.board.Square;
+import jpacman.board.Unit;
+
+/**
+ * The walking distance from every square of a {@link Board} to one source
+ * square, computed with a single breadth first search. Any number of
+ * travellers can then read their distance to the source, and the first step
+ * towards it, with a lookup. If the board has a ready {@link DistanceOracle}
+ * that contains the source, the field reads its distances from the table of
+ * the oracle instead, which gives the same answers without a search.
+ * <p>
+ * A field is immutable once created, so it can be read by any thread.
+ */
+public final class DistanceField {
+
+    /**
+     * The distance reported for squares that cannot reach the source.
+     */
+    public static final int UNREACHABLE = -1;
+
+    /**
+     * The board the distances are measured on.
+     */
+    private final Board board;
+
+    /**
+     * The square all distances are measured to.
+     */
+    private final Square source;
+
+    /**
+     * The distance to the source of each square, by square id, or
+     * <code>null</code> if the distances are read from the oracle.
+     */
+    private final int[] distances;
+
+    /**
+     * The oracle the distances are read from, or <code>null</code> if they
+     * were computed by this field.
+     */
+    private final DistanceOracle oracle;
+
+    /**
+     * Computes the distance from every square on the board to the source.
+     *
+     * @param board
+     *            The board to measure distances on.
+     * @param source
+     *            The square to measure distances to.
+     * @param traveller
+     *            The unit whose access rights determine which squares can be
+     *            walked on.
+     */
+    public DistanceField(Board board, Square source, Unit traveller) {
+        this(board, source, traveller, null);
+    }
+
+    /**
+     * Creates the distance field towards a source, read from the table of an
+     * oracle if it is ready and contains the source, and computed from
+     * every square on the board otherwise.
+     *
+     * @param board
+     *            The board to measure distances on.
+     * @param source
+     *            The square to measure distances to.
+     * @param traveller
+     *            The unit whose access rights determine which squares can be
+     *            walked on.
+     * @param oracle
+     *            The distance oracle of the board for the same traveller, or
+     *            <code>null</code> if there is none.
+     */
+    public DistanceField(Board board, Square source, Unit traveller, DistanceOracle oracle) {
+        assert board != null;
+        assert source != null;
+        this.board = board;
+        this.source = source;
+        if (oracle != null && oracle.covers(source)) {
+            this.oracle = oracle;
+            this.distances = null;
+        } else {
+            this.oracle = null;
+            this.distances = new int[board.getSquareCount()];
+            Arrays.fill(distances, UNREACHABLE);
+            if (source.isAccessibleTo(traveller)) {
+                fill(traveller);
+            }
+        }
+    }
+
+    private void fill(Unit traveller) {
+        int[] queue = new int[distances.length];
+        int head = 0;
+        int tail = 0;
+        distances[source.getId()] = 0;
+        queue[tail++] = source.getId();
+        while (head < tail) {
+            int current = queue[head++];
+            Square square = board.squareById(current);
+            for (Direction direction : Direction.values()) {
+                Square neighbour = square.getSquareAt(direction);
+                int id = neighbour.getId();
+                if (distances[id] == UNREACHABLE && neighbour.isAccessibleTo(traveller)) {
+                    distances[id] = distances[current] + 1;
+                    queue[tail++] = id;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return The square all distances are measured to.
+     */
+    public Square getSource() {
+        return source;
+    }
+
+    /**
+     * Returns the walking distance from a square to the source.
+     *
+     * @param from
+     *            The square to measure from.
+     * @return The number of steps on a shortest path to the source, or
+     *         {@link #UNREACHABLE} if the source cannot be reached.
+     */
+    public int distance(Square from) {
+        int id = from.getId();
+        if (id < 0 || id >= board.getSquareCount() || board.squareById(id) != from) {
+            return UNREACHABLE;
+        }
+        if (oracle != null) {
+            // Walking distances are the same both ways.
+            return oracle.distance(source, from);
+        }
+        return distances[id];
+    }
+
+    /**
+     * Returns the first step of the shortest path from a square to the
+     * source. When there are several shortest paths, the step is the one
+     * {@link Navigation#shortestPath(Square, Square, Unit)} would take.
+     *
+     * @param from
+     *            The square to start from.
+     * @return The direction of the first step, or <code>null</code> if the
+     *         square is the source or cannot reach it.
+     */
+    public Direction firstStep(Square from) {
+        int remaining = distance(from);
+        if (remaining <= 0) {
+            return null;
+        }
+        for (Direction direction : Direction.values()) {
+            if (distance(from.getSquareAt(direction)) == remaining - 1) {
+                return direction;
+            }
+        }
+        return null;
+    }
+}
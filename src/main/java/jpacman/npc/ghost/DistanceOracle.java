@@ -0,0 +1,249 @@
+package jpacman.npc.ghost;
+
+import java.util.concurrent.CompletableFuture;
+
+import jpacman.board.Board;
+import jpacman.board.Direction;
+import jpacman.board.Square;
+import jpacman.board.Unit;
+
+/**
+ * An all-pairs distance table for the accessible squares of a {@link Board}.
+ * Once built, the walking distance between any two squares and the first step
+ * of a shortest path between them are simple table lookups, instead of a
+ * breadth first search per question.
+ * <p>
+ * The table is dense, so its size grows quadratically with the number of
+ * accessible squares. Use {@link #estimateTableBytes(int)} to decide whether
+ * a board is small enough; boards with more than {@link #MAX_SQUARES}
+ * accessible squares are never indexed. Boards with the same terrain, such as
+ * the boards of levels made from the same map, can share one
+ * {@link DistanceTable}.
+ */
+public final class DistanceOracle {
+
+    /**
+     * The distance reported for squares that cannot reach each other.
+     */
+    public static final int UNREACHABLE = -1;
+
+    /**
+     * The largest number of accessible squares for which a table is built.
+     * At two bytes per entry this caps the table at 32 MiB.
+     */
+    public static final int MAX_SQUARES = 4096;
+
+    /**
+     * The board this oracle answers questions for.
+     */
+    private final Board board;
+
+    /**
+     * The unit whose access rights determine which squares can be walked on.
+     */
+    private final Unit traveller;
+
+    /**
+     * The table the answers are looked up in.
+     */
+    private final DistanceTable table;
+
+    /**
+     * Creates a new oracle with an empty table of its own. The table is not
+     * available until {@link #build()} has completed.
+     *
+     * @param board
+     *            The board to compute distances on.
+     * @param traveller
+     *            The unit whose access rights determine which squares can be
+     *            walked on.
+     */
+    public DistanceOracle(Board board, Unit traveller) {
+        this(board, traveller, new DistanceTable());
+    }
+
+    /**
+     * Creates a new oracle that answers from a table, which may be shared
+     * with the oracles of other boards with the same terrain.
+     * <p>
+     * Precondition: if the table is built or being built from another board,
+     * every square of this board is accessible iff the square with the same
+     * id on that board is.
+     *
+     * @param board
+     *            The board to answer questions for.
+     * @param traveller
+     *            The unit whose access rights determine which squares can be
+     *            walked on.
+     * @param table
+     *            The table to answer from, which this oracle builds if it has
+     *            not been built yet.
+     */
+    public DistanceOracle(Board board, Unit traveller, DistanceTable table) {
+        assert board != null;
+        assert traveller != null;
+        assert table != null;
+        this.board = board;
+        this.traveller = traveller;
+        this.table = table;
+    }
+
+    /**
+     * @return The table this oracle answers from.
+     */
+    public DistanceTable getTable() {
+        return table;
+    }
+
+    /**
+     * Creates a new oracle and builds its table on a background thread.
+     *
+     * @param board
+     *            The board to compute distances on.
+     * @param traveller
+     *            The unit whose access rights determine which squares can be
+     *            walked on.
+     * @return The new oracle, which becomes ready once the build finishes.
+     */
+    public static DistanceOracle buildInBackground(Board board, Unit traveller) {
+        DistanceOracle oracle = new DistanceOracle(board, traveller);
+        CompletableFuture.runAsync(oracle::build);
+        return oracle;
+    }
+
+    /**
+     * Estimates the size of the table for a board with the given number of
+     * accessible squares.
+     *
+     * @param squares
+     *            The number of accessible squares.
+     * @return The size of the distance table in bytes.
+     */
+    public static long estimateTableBytes(int squares) {
+        return (long) squares * squares * Short.BYTES;
+    }
+
+    /**
+     * Builds the distance table by running a breadth first search from every
+     * accessible square. Does nothing if the table was already built or the
+     * board has more than {@link #MAX_SQUARES} accessible squares.
+     */
+    public void build() {
+        table.build(board, traveller);
+    }
+
+    /**
+     * Returns the position of a square in the distance table.
+     *
+     * @param square
+     *            The square to look up.
+     * @return The index of the square in the table, or {@link #UNREACHABLE}
+     *         if the square is not in the table.
+     */
+    private int indexOf(Square square) {
+        int id = square.getId();
+        if (id < 0 || id >= board.getSquareCount() || board.squareById(id) != square) {
+            return UNREACHABLE;
+        }
+        return table.indexOf(id);
+    }
+
+    /**
+     * @return <code>true</code> iff the table has been built and can be
+     *         queried.
+     */
+    public boolean isReady() {
+        return table.isReady();
+    }
+
+    /**
+     * Determines whether this oracle can answer questions about paths
+     * starting on the given square.
+     *
+     * @param from
+     *            The square a path would start on.
+     * @return <code>true</code> iff the table is built and contains the
+     *         square.
+     */
+    public boolean covers(Square from) {
+        return isReady() && indexOf(from) != UNREACHABLE;
+    }
+
+    /**
+     * Returns the walking distance between two squares.
+     * <p>
+     * Precondition: <code>covers(from)</code>.
+     *
+     * @param from
+     *            The starting square.
+     * @param to
+     *            The destination.
+     * @return The number of steps on a shortest path, or {@link #UNREACHABLE}
+     *         if the destination cannot be reached.
+     */
+    public int distance(Square from, Square to) {
+        assert covers(from);
+        if (from.equals(to)) {
+            return 0;
+        }
+        int target = indexOf(to);
+        if (target == UNREACHABLE) {
+            return UNREACHABLE;
+        }
+        return table.distance(indexOf(from), target);
+    }
+
+    /**
+     * Returns the first step of the shortest path between two squares. When
+     * there are several shortest paths, the step is the one
+     * {@link Navigation#shortestPath(Square, Square, Unit)} would take.
+     * <p>
+     * Precondition: <code>covers(from)</code>.
+     *
+     * @param from
+     *            The starting square.
+     * @param to
+     *            The destination.
+     * @return The direction of the first step, or <code>null</code> if the
+     *         destination is the current square or cannot be reached.
+     */
+    public Direction firstStep(Square from, Square to) {
+        int remaining = distance(from, to);
+        if (remaining <= 0) {
+            return null;
+        }
+        int target = indexOf(to);
+        for (Direction direction : Direction.values()) {
+            int neighbour = indexOf(from.getSquareAt(direction));
+            if (neighbour != UNREACHABLE
+                && table.distance(target, neighbour) == remaining - 1) {
+                return direction;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return The number of squares in the table, or 0 if it has not been
+     *         built.
+     */
+    public int getSize() {
+        return table.getSize();
+    }
+
+    /**
+     * @return The size of the distance table in bytes, or 0 if it has not been
+     *         built.
+     */
+    public long getTableBytes() {
+        return estimateTableBytes(getSize());
+    }
+
+    /**
+     * @return The time it took to build the table in nanoseconds, or 0 if it
+     *         has not been built.
+     */
+    public long getBuildTime() {
+        return table.getBuildTime();
+    }
+}
@@ -0,0 +1,217 @@
+package jpacman.npc.ghost;
+
+import java.util.Arrays;
+
+import jpacman.board.Board;
+import jpacman.board.Direction;
+import jpacman.board.Square;
+import jpacman.board.Unit;
+
+/**
+ * The all-pairs walking distances between the accessible squares of a board,
+ * which a {@link DistanceOracle} answers its questions from. The table only
+ * holds numbers, indexed by square id, and no squares or units, so it can be
+ * kept after the board it was built on is gone and shared by the oracles of
+ * every board with the same terrain.
+ */
+public final class DistanceTable {
+
+    /**
+     * The number of directions a square can be left in.
+     */
+    private static final int DIRECTIONS = Direction.values().length;
+
+    /**
+     * The index in the table of each square, by square id, with
+     * {@link DistanceOracle#UNREACHABLE} for squares that are not in the
+     * table.
+     */
+    private int[] index;
+
+    /**
+     * The number of squares in the table.
+     */
+    private int size;
+
+    /**
+     * The distances, with the distance from square i to square j stored at
+     * <code>i * size + j</code>.
+     */
+    private short[] distances;
+
+    /**
+     * The time it took to build the table, in nanoseconds.
+     */
+    private long buildTime;
+
+    /**
+     * <code>true</code> iff the table has been built and can be queried.
+     */
+    private volatile boolean ready;
+
+    /**
+     * <code>true</code> iff the table was found to have too many squares, so
+     * that it is never built and later builds return at once.
+     */
+    private volatile boolean tooLarge;
+
+    /**
+     * Creates a new, empty table, which is not available until it has been
+     * built.
+     */
+    public DistanceTable() {
+        this.ready = false;
+        this.tooLarge = false;
+    }
+
+    /**
+     * Builds the table by running a breadth first search from every
+     * accessible square of a board. Does nothing if the table was already
+     * built or the board has more than {@link DistanceOracle#MAX_SQUARES}
+     * accessible squares, which is only counted once, so that a table shared
+     * by the levels of a large map does not count them for every level.
+     *
+     * @param board
+     *            The board to compute distances on.
+     * @param traveller
+     *            The unit whose access rights determine which squares can be
+     *            walked on.
+     */
+    synchronized void build(Board board, Unit traveller) {
+        if (ready || tooLarge) {
+            return;
+        }
+        long start = System.nanoTime();
+
+        Square[] squares = indexSquares(board, traveller);
+        if (size > DistanceOracle.MAX_SQUARES) {
+            index = null;
+            tooLarge = true;
+            return;
+        }
+
+        int[] neighbours = new int[size * DIRECTIONS];
+        for (int i = 0; i < size; i++) {
+            for (Direction direction : Direction.values()) {
+                neighbours[i * DIRECTIONS + direction.ordinal()] =
+                    index[squares[i].getSquareAt(direction).getId()];
+            }
+        }
+
+        short[] table = new short[size * size];
+        Arrays.fill(table, (short) DistanceOracle.UNREACHABLE);
+        int[] queue = new int[size];
+        for (int source = 0; source < size; source++) {
+            fillRow(table, source * size, source, neighbours, queue);
+        }
+
+        distances = table;
+        buildTime = System.nanoTime() - start;
+        ready = true;
+    }
+
+    private Square[] indexSquares(Board board, Unit traveller) {
+        int count = board.getSquareCount();
+        Square[] squares = new Square[count];
+        index = new int[count];
+        size = 0;
+        for (int id = 0; id < count; id++) {
+            Square square = board.squareById(id);
+            if (square.isAccessibleTo(traveller)) {
+                index[id] = size;
+                squares[size] = square;
+                size++;
+            } else {
+                index[id] = DistanceOracle.UNREACHABLE;
+            }
+        }
+        return Arrays.copyOf(squares, size);
+    }
+
+    private static void fillRow(short[] table, int row, int source,
+                                int[] neighbours, int[] queue) {
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = source;
+        table[row + source] = 0;
+        while (head < tail) {
+            int current = queue[head++];
+            short next = (short) (table[row + current] + 1);
+            for (int d = 0; d < DIRECTIONS; d++) {
+                int neighbour = neighbours[current * DIRECTIONS + d];
+                if (neighbour != DistanceOracle.UNREACHABLE
+                    && table[row + neighbour] == DistanceOracle.UNREACHABLE) {
+                    table[row + neighbour] = next;
+                    queue[tail++] = neighbour;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return <code>true</code> iff the table has been built and can be
+     *         queried.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * @return <code>true</code> iff a build found the board to have more
+     *         than {@link DistanceOracle#MAX_SQUARES} accessible squares, so
+     *         that the table will never be ready.
+     */
+    public boolean isTooLarge() {
+        return tooLarge;
+    }
+
+    /**
+     * Returns the position of a square in the table.
+     * <p>
+     * Precondition: the table is ready.
+     *
+     * @param id
+     *            The id of the square.
+     * @return The index of the square in the table, or
+     *         {@link DistanceOracle#UNREACHABLE} if the square is not in the
+     *         table.
+     */
+    int indexOf(int id) {
+        if (id < 0 || id >= index.length) {
+            return DistanceOracle.UNREACHABLE;
+        }
+        return index[id];
+    }
+
+    /**
+     * Returns the distance between two squares of the table.
+     * <p>
+     * Precondition: the table is ready.
+     *
+     * @param from
+     *            The index of the first square in the table.
+     * @param to
+     *            The index of the second square in the table.
+     * @return The number of steps on a shortest path, or
+     *         {@link DistanceOracle#UNREACHABLE}.
+     */
+    int distance(int from, int to) {
+        return distances[from * size + to];
+    }
+
+    /**
+     * @return The number of squares in the table, or 0 if it has not been
+     *         built.
+     */
+    public int getSize() {
+        return ready ? size : 0;
+    }
+
+    /**
+     * @return The time it took to build the table in nanoseconds, or 0 if it
+     *         has not been built.
+     */
+    public long getBuildTime() {
+        return ready ? buildTime : 0L;
+    }
+}
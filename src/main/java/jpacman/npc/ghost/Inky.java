@@ -1,9 +1,9 @@
 package jpacman.npc.ghost;
 
+import jpacman.board.Board;
 import jpacman.board.Direction;
 import jpacman.board.Square;
 import jpacman.board.Unit;
-import jpacman.level.Player;
 import jpacman.sprite.Sprite;
 import jpacman.npc.Ghost;
 
@@ -85,7 +85,7 @@ public class Inky extends Ghost {
     public Optional<Direction> nextAiMove() {
         assert hasSquare();
         Unit blinky = Navigation.findNearest(Blinky.class, getSquare());
-        Unit player = Navigation.findNearest(Player.class, getSquare());
+        Unit player = Navigation.findNearestPlayer(this);
 
         if (blinky == null || player == null) {
             return Optional.empty();
@@ -94,21 +94,49 @@ public class Inky extends Ghost {
         assert player.hasSquare();
         Square playerDestination = player.squaresAheadOf(SQUARES_AHEAD);
 
-        List<Direction> firstHalf = Navigation.shortestPath(blinky.getSquare(),
-            playerDestination, null);
+        Square destination = repeatOffset(blinky.getSquare(), playerDestination);
+        if (destination == null) {
+            List<Direction> firstHalf = Navigation.shortestPath(blinky.getSquare(),
+                playerDestination, null);
 
-        if (firstHalf == null) {
-            return Optional.empty();
+            if (firstHalf == null) {
+                return Optional.empty();
+            }
+            destination = followPath(firstHalf, playerDestination);
         }
+        return Optional.ofNullable(Navigation.firstStepTowards(this, destination));
+    }
 
-        Square destination = followPath(firstHalf, playerDestination);
-        List<Direction> path = Navigation.shortestPath(getSquare(),
-            destination, this);
-
-        if (path != null && !path.isEmpty()) {
-            return Optional.ofNullable(path.get(0));
+    /**
+     * Walks the shortest path from one square to another, ignoring terrain,
+     * once more from the second square. Without terrain every shortest path
+     * on a board that wraps around moves the same number of columns and
+     * rows, with ties going west and north like the breadth first search of
+     * {@link Navigation#shortestPath(Square, Square, Unit)},
+     * so the destination is found without a search.
+     *
+     * @param from
+     *            The start of the path.
+     * @param to
+     *            The end of the path, where it is walked again from.
+     * @return The destination, or <code>null</code> if the squares are not
+     *         on the same board.
+     */
+    static Square repeatOffset(Square from, Square to) {
+        Board board = to.getBoard();
+        if (board == null || from.getBoard() != board) {
+            return null;
         }
-        return Optional.empty();
+        int width = board.getWidth();
+        int height = board.getHeight();
+        int x = to.getX() + shortestOffset(to.getX() - from.getX(), width);
+        int y = to.getY() + shortestOffset(to.getY() - from.getY(), height);
+        return board.squareAt(Math.floorMod(x, width), Math.floorMod(y, height));
+    }
+
+    private static int shortestOffset(int offset, int size) {
+        int forward = Math.floorMod(offset, size);
+        return forward < size - forward ? forward : forward - size;
     }
 
 
@@ -1,14 +1,15 @@
 package jpacman.npc.ghost;
 
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Set;
 
 import jpacman.board.Direction;
 import jpacman.board.Square;
 import jpacman.board.Unit;
 import jpacman.board.Board;
+import jpacman.level.Player;
+import jpacman.npc.Ghost;
 
 /**
  * Navigation provides utility to navigate on {@link Square}s.
@@ -21,7 +22,8 @@ public final class Navigation {
     }
 
     /**
-     * Calculates the shortest path. This is done by BFS. This search ensures
+     * Calculates the shortest path. This is done by BFS, using the search
+     * buffers of the calling thread. This search ensures
      * the traveller is allowed to occupy the squares on the way, or returns the
      * shortest path to the square regardless of terrain if no traveller is
      * specified.
@@ -41,40 +43,118 @@ public final class Navigation {
      */
     public static List<Direction> shortestPath(Square from, Square to,
                                                Unit traveller) {
-        if (from.equals(to)) {
-            return new ArrayList<>();
+        return shortestPath(from, to, traveller, SearchStrategy.BREADTH_FIRST);
+    }
+
+    /**
+     * Calculates the shortest path with the given search strategy, using the
+     * search buffers of the calling thread. Both strategies find paths of the
+     * same length, but when there are several shortest paths they may pick a
+     * different one.
+     *
+     * @param from
+     *            The starting square.
+     * @param to
+     *            The destination.
+     * @param traveller
+     *            The traveller attempting to reach the destination, or
+     *            <code>null</code> to ignore terrain.
+     * @param strategy
+     *            The search algorithm to use.
+     * @return The shortest path to the destination or <code>null</code> if no
+     *         such path could be found. When the destination is the current
+     *         square, an empty list is returned.
+     */
+    public static List<Direction> shortestPath(Square from, Square to,
+                                               Unit traveller,
+                                               SearchStrategy strategy) {
+        SquareSearch search = strategy == SearchStrategy.A_STAR
+            ? AStarSearch.forCurrentThread()
+            : BreadthFirstSearch.forCurrentThread();
+        if (!search.findPath(from, to, traveller)) {
+            return null;
         }
+        Direction[] path = new Direction[search.pathLength()];
+        search.pathInto(path);
+        return new ArrayList<>(Arrays.asList(path));
+    }
 
-        List<Node> targets = new ArrayList<>();
-        Set<Square> visited = new HashSet<>();
-        targets.add(new Node(null, from, null));
-        while (!targets.isEmpty()) {
-            Node node = targets.remove(0);
-            Square square = node.getSquare();
-            if (square.equals(to)) {
-                return node.getPath();
-            }
-            visited.add(square);
-            addNewTargets(traveller, targets, visited, node, square);
+    /**
+     * Determines the first step of the shortest path from one square to
+     * another. The answer is looked up in the distance oracle if it covers
+     * the starting square, and computed with a breadth first search
+     * otherwise.
+     *
+     * @param from
+     *            The starting square.
+     * @param to
+     *            The destination.
+     * @param traveller
+     *            The traveller attempting to reach the destination.
+     * @param oracle
+     *            The distance oracle of the board, or <code>null</code> if
+     *            there is none.
+     * @return The direction of the first step, or <code>null</code> if the
+     *         destination is the current square or cannot be reached.
+     */
+    public static Direction firstStep(Square from, Square to, Unit traveller,
+                                      DistanceOracle oracle) {
+        if (oracle != null && oracle.covers(from)) {
+            return oracle.firstStep(from, to);
+        }
+        BreadthFirstSearch search = BreadthFirstSearch.forCurrentThread();
+        if (!search.findPath(from, to, traveller)) {
+            return null;
         }
-        return null;
+        return search.firstStep();
     }
 
-    private static void addNewTargets(Unit traveller, List<Node> targets,
-                                      Set<Square> visited, Node node, Square square) {
-        for (Direction direction : Direction.values()) {
-            Square target = square.getSquareAt(direction);
-            if (!visited.contains(target)
-                && (traveller == null || target.isAccessibleTo(traveller))) {
-                targets.add(new Node(direction, target, node));
-            }
+    /**
+     * Determines the first step of a ghost towards a square. The answer is
+     * read from the distance field of a player standing on the square if
+     * there is one, and otherwise determined as in
+     * {@link #firstStep(Square, Square, Unit, DistanceOracle)}.
+     *
+     * @param ghost
+     *            The ghost that wants to move.
+     * @param target
+     *            The destination.
+     * @return The direction of the first step, or <code>null</code> if the
+     *         destination is the current square or cannot be reached.
+     */
+    public static Direction firstStepTowards(Ghost ghost, Square target) {
+        PlayerDistances players = ghost.getPlayerDistances();
+        DistanceField field = players == null ? null : players.fieldTo(target);
+        if (field != null) {
+            return field.firstStep(ghost.getSquare());
         }
+        return firstStep(ghost.getSquare(), target, ghost, ghost.getDistanceOracle());
     }
 
     /**
-     * Finds the nearest unit of the given type and returns its location. This
-     * method will perform a breadth first search starting from the given
-     * square.
+     * Finds the player nearest to a ghost, ignoring terrain. The players of
+     * the ghost's level are used if it has them, otherwise the board is
+     * searched with {@link #findNearest(Class, Square)}.
+     *
+     * @param ghost
+     *            The ghost looking for a player.
+     * @return The nearest player, or <code>null</code> if there is none.
+     */
+    public static Unit findNearestPlayer(Ghost ghost) {
+        PlayerDistances players = ghost.getPlayerDistances();
+        if (players != null) {
+            return players.nearestTo(ghost.getSquare());
+        }
+        return findNearest(Player.class, ghost.getSquare());
+    }
+
+    /**
+     * Finds the nearest unit of the given type, ignoring terrain. If the
+     * square is on a board, only the units of that type in the board's
+     * {@link jpacman.board.UnitRegistry} are looked at. Otherwise, or if
+     * several units are equally near, this method performs a breadth first
+     * search starting from the given square, so that the tie goes to the
+     * unit the search reaches first.
      *
      * @param type
      *            The type of unit to search for.
@@ -85,27 +165,13 @@ public final class Navigation {
      */
     public static Unit findNearest(Class<? extends Unit> type,
                                              Square currentLocation) {
-        List<Square> toDo = new ArrayList<>();
-        Set<Square> visited = new HashSet<>();
-
-        toDo.add(currentLocation);
-
-        while (!toDo.isEmpty()) {
-            Square square = toDo.remove(0);
-            Unit unit = findUnit(type, square);
-            if (unit != null) {
-                assert unit.hasSquare();
-                return unit;
-            }
-            visited.add(square);
-            for (Direction direction : Direction.values()) {
-                Square newTarget = square.getSquareAt(direction);
-                if (!visited.contains(newTarget) && !toDo.contains(newTarget)) {
-                    toDo.add(newTarget);
-                }
-            }
+        Board board = currentLocation.getBoard();
+        Unit unit = board == null ? null : board.getUnits().nearest(type, currentLocation);
+        if (unit == null && (board == null || board.getUnits().count(type) > 0)) {
+            unit = BreadthFirstSearch.forCurrentThread().findNearest(type, currentLocation);
         }
-        return null;
+        assert unit == null || unit.hasSquare();
+        return unit;
     }
 
     /**
@@ -119,16 +185,7 @@ public final class Navigation {
      * @return the first unit found of type clazz, or null.
      */
     public static <T extends Unit> T findUnitInBoard(Class<T> clazz, Board board) {
-        for (int y = 0; y < board.getHeight(); y++) {
-            for (int x = 0; x < board.getWidth(); x++) {
-                final T ghost = Navigation.findUnit(clazz, board.squareAt(x, y));
-                if (ghost != null) {
-                    return ghost;
-                }
-            }
-        }
-
-        return null;
+        return board.getUnits().first(clazz);
     }
 
     /**
@@ -144,93 +201,9 @@ public final class Navigation {
      * @return A unit of type T, iff such a unit occupies this square, or
      *         <code>null</code> of none does.
      */
-    @SuppressWarnings("unchecked")
     public static <T extends Unit> T findUnit(Class<T> type, Square square) {
-        for (Unit unit : square.getOccupants()) {
-            if (type.isInstance(unit)) {
-                assert unit.hasSquare();
-                return (T) unit;
-            }
-        }
-        return null;
-    }
-
-    /**
-     * Helper class to keep track of the path.
-     *
-     * @author Jeroen Roosen
-     */
-    private static final class Node {
-
-        /**
-         * The direction for this node, which is <code>null</code> for the root
-         * node.
-         */
-        private final Direction direction;
-
-        /**
-         * The parent node, which is <code>null</code> for the root node.
-         */
-        private final Node parent;
-
-        /**
-         * The square associated with this node.
-         */
-        private final Square square;
-
-        /**
-         * Creates a new node.
-         *
-         * @param direction
-         *            The direction, which is <code>null</code> for the root
-         *            node.
-         * @param square
-         *            The square.
-         * @param parent
-         *            The parent node, which is <code>null</code> for the root
-         *            node.
-         */
-        Node(Direction direction, Square square, Node parent) {
-            this.direction = direction;
-            this.square = square;
-            this.parent = parent;
-        }
-
-        /**
-         * @return The direction for this node, or <code>null</code> if this
-         *         node is a root node.
-         */
-        private Direction getDirection() {
-            return direction;
-        }
-
-        /**
-         * @return The square for this node.
-         */
-        private Square getSquare() {
-            return square;
-        }
-
-        /**
-         * @return The parent node, or <code>null</code> if this node is a root
-         *         node.
-         */
-        private Node getParent() {
-            return parent;
-        }
-
-        /**
-         * Returns the list of values from the root of the tree to this node.
-         *
-         * @return The list of values from the root of the tree to this node.
-         */
-        private List<Direction> getPath() {
-            if (parent == null) {
-                return new ArrayList<>();
-            }
-            List<Direction> path = parent.getPath();
-            path.add(getDirection());
-            return path;
-        }
+        T unit = square.findOccupant(type);
+        assert unit == null || unit.hasSquare();
+        return unit;
     }
 }
@@ -1,13 +1,11 @@
 package jpacman.npc.ghost;
 
-import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
 import jpacman.board.Direction;
 import jpacman.board.Square;
 import jpacman.board.Unit;
-import jpacman.level.Player;
 import jpacman.sprite.Sprite;
 import jpacman.npc.Ghost;
 
@@ -91,17 +89,13 @@ public class Pinky extends Ghost {
     public Optional<Direction> nextAiMove() {
         assert hasSquare();
 
-        Unit player = Navigation.findNearest(Player.class, getSquare());
+        Unit player = Navigation.findNearestPlayer(this);
         if (player == null) {
             return Optional.empty();
         }
         assert player.hasSquare();
         Square destination = player.squaresAheadOf(SQUARES_AHEAD);
 
-        List<Direction> path = Navigation.shortestPath(getSquare(), destination, this);
-        if (path != null && !path.isEmpty()) {
-            return Optional.ofNullable(path.get(0));
-        }
-        return Optional.empty();
+        return Optional.ofNullable(Navigation.firstStepTowards(this, destination));
     }
 }
@@ -0,0 +1,148 @@
+package jpacman.npc.ghost;
+
+import java.util.Arrays;
+
+import jpacman.board.Board;
+import jpacman.board.Square;
+import jpacman.level.Player;
+import jpacman.npc.Ghost;
+
+/**
+ * The {@link DistanceField}s towards the players of a level, shared by all
+ * ghosts on its board. The level recomputes the field of a player only when
+ * that player changes square, so the ghosts no longer each search the board
+ * for the players on every move. Once the distance oracle of the board is
+ * ready, recomputing a field is a lookup in its table instead of a search.
+ */
+public final class PlayerDistances {
+
+    /**
+     * The board the players are on.
+     */
+    private final Board board;
+
+    /**
+     * The ghost whose access rights determine which squares can be walked
+     * on, and whose distance oracle is used when it is ready.
+     */
+    private final Ghost traveller;
+
+    /**
+     * The tracked players, in order of registration.
+     */
+    private volatile Player[] players;
+
+    /**
+     * The distance field of each tracked player, at the same index.
+     */
+    private volatile DistanceField[] fields;
+
+    /**
+     * Creates a new set of distance fields without any players.
+     *
+     * @param board
+     *            The board the players are on.
+     * @param traveller
+     *            The ghost whose access rights determine which squares can be
+     *            walked on.
+     */
+    public PlayerDistances(Board board, Ghost traveller) {
+        assert board != null;
+        this.board = board;
+        this.traveller = traveller;
+        this.players = new Player[0];
+        this.fields = new DistanceField[0];
+    }
+
+    /**
+     * Recomputes the distance field of a player if the player changed square
+     * since the last update, and starts tracking the player if this is the
+     * first update.
+     *
+     * @param player
+     *            The player that was placed or moved.
+     */
+    public synchronized void update(Player player) {
+        assert player != null;
+        Player[] currentPlayers = players;
+        DistanceField[] currentFields = fields;
+
+        int index = Arrays.asList(currentPlayers).indexOf(player);
+        if (index < 0) {
+            index = currentPlayers.length;
+            currentPlayers = Arrays.copyOf(currentPlayers, index + 1);
+            currentPlayers[index] = player;
+            currentFields = Arrays.copyOf(currentFields, index + 1);
+        } else if (currentFields[index] != null && player.hasSquare()
+            && currentFields[index].getSource().equals(player.getSquare())) {
+            return;
+        } else {
+            currentFields = currentFields.clone();
+        }
+
+        currentFields[index] = player.hasSquare()
+            ? new DistanceField(board, player.getSquare(), traveller,
+                traveller.getDistanceOracle())
+            : null;
+        fields = currentFields;
+        players = currentPlayers;
+    }
+
+    /**
+     * Finds the player nearest to a square, ignoring terrain, with the same
+     * answer as the breadth first search of
+     * {@link Navigation#findNearest(Class, Square)} used to give. Distances
+     * are measured with {@link Board#manhattanDistance(Square, Square)},
+     * which is what the search measures when terrain is ignored. The search
+     * itself is only run when several players are equally near, so that the
+     * tie goes to the player it reaches first, or when the board holds
+     * players that were never tracked.
+     *
+     * @param location
+     *            The square to measure from.
+     * @return The nearest player on the board, or <code>null</code> if no
+     *         player is on the board.
+     */
+    public Player nearestTo(Square location) {
+        Player nearest = null;
+        int best = Integer.MAX_VALUE;
+        boolean tied = false;
+        int placed = 0;
+        for (Player player : players) {
+            if (player.hasSquare()) {
+                placed++;
+                int distance = board.manhattanDistance(location, player.getSquare());
+                if (distance < best) {
+                    best = distance;
+                    nearest = player;
+                    tied = false;
+                } else if (distance == best) {
+                    tied = true;
+                }
+            }
+        }
+        if (tied || placed != board.getUnits().count(Player.class)) {
+            return (Player) BreadthFirstSearch.forCurrentThread()
+                .findNearest(Player.class, location);
+        }
+        return nearest;
+    }
+
+    /**
+     * Returns the up-to-date distance field towards a square, if a tracked
+     * player is standing on it.
+     *
+     * @param target
+     *            The square to find a field for.
+     * @return The distance field with the target as its source, or
+     *         <code>null</code> if there is none.
+     */
+    public DistanceField fieldTo(Square target) {
+        for (DistanceField field : fields) {
+            if (field != null && field.getSource().equals(target)) {
+                return field;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,19 @@
+package jpacman.npc.ghost;
+
+/**
+ * The algorithms {@link Navigation} can use to find a shortest path.
+ */
+public enum SearchStrategy {
+
+    /**
+     * Breadth first search, which expands squares in order of their distance
+     * from the start.
+     */
+    BREADTH_FIRST,
+
+    /**
+     * A* search, which expands the squares that seem closest to the
+     * destination first.
+     */
+    A_STAR
+}
@@ -0,0 +1,321 @@
+package jpacman.npc.ghost;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import jpacman.board.Board;
+import jpacman.board.Direction;
+import jpacman.board.Square;
+import jpacman.board.Unit;
+
+/**
+ * Base class for path searches over the squares of a board that keep their
+ * state in arrays indexed by {@link Square#getId()}. It records which squares
+ * have been reached and the direction each was entered from, and rebuilds the
+ * path that was found by walking those directions back. The arrays are reused
+ * from one search to the next.
+ * <p>
+ * Squares that are not on the board of the starting square, such as squares
+ * linked by hand without a board, have no usable id. They are given a
+ * position in the arrays after the squares of the board when the search first
+ * meets them.
+ */
+abstract class SquareSearch {
+
+    /**
+     * The initial capacity of the per-square arrays.
+     */
+    protected static final int INITIAL_CAPACITY = 256;
+
+    /**
+     * The directions, indexed by their ordinal.
+     */
+    protected static final Direction[] DIRECTIONS = Direction.values();
+
+    /**
+     * Marker for squares without a parent, i.e. the start of the search.
+     */
+    private static final byte NO_PARENT = -1;
+
+    /**
+     * The generation in which each square was last reached.
+     */
+    private int[] visited;
+
+    /**
+     * The ordinal of the direction each reached square was entered from.
+     */
+    private byte[] parents;
+
+    /**
+     * The number of the current search. A square has been reached in this
+     * search iff its entry in {@link #visited} equals this value.
+     */
+    private int generation;
+
+    /**
+     * The board of the start of the current search, or <code>null</code> if
+     * the start is not on a board.
+     */
+    private Board board;
+
+    /**
+     * The number of squares on {@link #board}, after which the squares that
+     * are not on it are put in the arrays.
+     */
+    private int boardSize;
+
+    /**
+     * The position in the arrays of the squares met in the current search
+     * that are not on {@link #board}.
+     */
+    private final Map<Square, Integer> offBoard = new IdentityHashMap<>();
+
+    /**
+     * The start of the current search.
+     */
+    private Square start;
+
+    /**
+     * The steps of the last path that was found, from the start to the
+     * destination, in the first {@link #length} elements.
+     */
+    private Direction[] steps;
+
+    /**
+     * The number of steps of the last path that was found, or -1 if the last
+     * search failed.
+     */
+    private int length;
+
+    /**
+     * Creates a new search with arrays of the initial capacity.
+     */
+    protected SquareSearch() {
+        this.visited = new int[INITIAL_CAPACITY];
+        this.parents = new byte[INITIAL_CAPACITY];
+        this.steps = new Direction[INITIAL_CAPACITY];
+        this.generation = 0;
+        this.length = -1;
+    }
+
+    /**
+     * Searches for the shortest path between two squares. This search ensures
+     * the traveller is allowed to occupy the squares on the way, or ignores
+     * terrain if no traveller is specified. The path that was found can be
+     * inspected with {@link #firstStep()}, {@link #pathLength()} and
+     * {@link #pathInto(Direction[])}.
+     *
+     * @param from
+     *            The starting square.
+     * @param to
+     *            The destination.
+     * @param traveller
+     *            The traveller attempting to reach the destination, or
+     *            <code>null</code> to ignore terrain.
+     * @return <code>true</code> iff a path was found.
+     */
+    abstract boolean findPath(Square from, Square to, Unit traveller);
+
+    /**
+     * Starts a new search, forgetting all squares reached before.
+     *
+     * @param from
+     *            The starting square.
+     */
+    protected void begin(Square from) {
+        generation++;
+        if (generation == 0) {
+            Arrays.fill(visited, 0);
+            generation = 1;
+        }
+        board = from.getBoard();
+        boardSize = board == null ? 0 : board.getSquareCount();
+        if (!offBoard.isEmpty()) {
+            offBoard.clear();
+        }
+        start = from;
+        length = -1;
+        reach(from, null);
+    }
+
+    /**
+     * Records the path that was found by walking back from its destination
+     * to the start.
+     *
+     * @param square
+     *            The destination of the path.
+     */
+    protected void finish(Square square) {
+        int size = 0;
+        for (Square at = square; !at.equals(start); size++) {
+            at = at.getSquareAt(opposite(parentOf(at)));
+        }
+        if (size > steps.length) {
+            steps = new Direction[Math.max(size, steps.length * 2)];
+        }
+        length = size;
+        Square at = square;
+        while (!at.equals(start)) {
+            Direction step = parentOf(at);
+            steps[--size] = step;
+            at = at.getSquareAt(opposite(step));
+        }
+    }
+
+    /**
+     * Ends the current search, forgetting the board and the squares it
+     * visited, so that a search kept by a pooled thread does not keep a
+     * board and its units alive once its level is gone. The path that was
+     * found remains available.
+     */
+    protected void end() {
+        board = null;
+        start = null;
+        if (!offBoard.isEmpty()) {
+            offBoard.clear();
+        }
+    }
+
+    /**
+     * @return <code>true</code> iff the last search found a path.
+     */
+    protected boolean hasPath() {
+        return length >= 0;
+    }
+
+    /**
+     * Determines whether a square has been reached in the current search.
+     *
+     * @param square
+     *            The square to check.
+     * @return <code>true</code> iff the square has been reached.
+     */
+    protected boolean isReached(Square square) {
+        int index = indexOf(square);
+        return index < visited.length && visited[index] == generation;
+    }
+
+    /**
+     * Returns the position of a square in the per-square arrays of the
+     * current search, which is its id if it is on the board of the start.
+     *
+     * @param square
+     *            The square to look up.
+     * @return The position of the square in the arrays, which may be past
+     *         their current capacity.
+     */
+    protected int indexOf(Square square) {
+        if (board != null && square.getBoard() == board) {
+            return square.getId();
+        }
+        Integer index = offBoard.get(square);
+        if (index == null) {
+            index = boardSize + offBoard.size();
+            offBoard.put(square, index);
+        }
+        return index;
+    }
+
+    /**
+     * Marks a square as reached and records the direction it was entered
+     * from, replacing any direction recorded before.
+     *
+     * @param square
+     *            The square that was reached.
+     * @param direction
+     *            The direction the square was entered from, or
+     *            <code>null</code> for the starting square.
+     */
+    protected void reach(Square square, Direction direction) {
+        int index = indexOf(square);
+        if (index >= visited.length) {
+            int capacity = Math.max(index + 1, visited.length * 2);
+            visited = Arrays.copyOf(visited, capacity);
+            parents = Arrays.copyOf(parents, capacity);
+            grow(capacity);
+        }
+        visited[index] = generation;
+        parents[index] = direction == null ? NO_PARENT : (byte) direction.ordinal();
+    }
+
+    /**
+     * Called when the per-square arrays grow, so that subclasses can grow
+     * their own per-square arrays along.
+     *
+     * @param capacity
+     *            The new number of squares the arrays can hold.
+     */
+    protected void grow(int capacity) {
+        // no arrays of our own by default.
+    }
+
+    /**
+     * @return The number of the current search.
+     */
+    protected int generation() {
+        return generation;
+    }
+
+    /**
+     * Returns the first step of the last path that was found.
+     * <p>
+     * Precondition: the last call to
+     * {@link #findPath(Square, Square, Unit)} succeeded.
+     *
+     * @return The direction of the first step, or <code>null</code> if the
+     *         path is empty.
+     */
+    Direction firstStep() {
+        assert hasPath();
+        return length == 0 ? null : steps[0];
+    }
+
+    /**
+     * Returns the number of steps of the last path that was found.
+     * <p>
+     * Precondition: the last call to
+     * {@link #findPath(Square, Square, Unit)} succeeded.
+     *
+     * @return The number of steps of the path.
+     */
+    int pathLength() {
+        assert hasPath();
+        return length;
+    }
+
+    /**
+     * Copies the steps of the last path that was found into an array.
+     * <p>
+     * Precondition: the last call to
+     * {@link #findPath(Square, Square, Unit)} succeeded, and the array holds
+     * at least {@link #pathLength()} elements.
+     *
+     * @param path
+     *            The array to copy the steps into, starting at index 0.
+     */
+    void pathInto(Direction[] path) {
+        assert hasPath();
+        System.arraycopy(steps, 0, path, 0, length);
+    }
+
+    private Direction parentOf(Square square) {
+        return DIRECTIONS[parents[indexOf(square)]];
+    }
+
+    private static Direction opposite(Direction direction) {
+        switch (direction) {
+            case NORTH:
+                return Direction.SOUTH;
+            case SOUTH:
+                return Direction.NORTH;
+            case WEST:
+                return Direction.EAST;
+            case EAST:
+                return Direction.WEST;
+            default:
+                throw new IllegalArgumentException("Unknown direction: " + direction);
+        }
+    }
+}
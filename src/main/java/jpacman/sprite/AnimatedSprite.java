@@ -116,6 +116,19 @@ public class AnimatedSprite implements Sprite {
         setAnimating(true);
     }
 
+    /**
+     * Returns the index of the frame that is shown at this moment, so that
+     * callers can tell whether the animation moved on since they last drew
+     * it.
+     *
+     * @return The index of the current frame, or the number of frames if a
+     *         non-looping animation has ended.
+     */
+    public int getFrameIndex() {
+        update();
+        return current;
+    }
+
     @Override
     public void draw(Graphics graphics, int x, int y, int width, int height) {
         update();
@@ -1,6 +1,7 @@
 package jpacman.sprite;
 
 import java.awt.Graphics;
+import java.awt.Graphics2D;
 import java.awt.GraphicsConfiguration;
 import java.awt.GraphicsEnvironment;
 import java.awt.Image;
@@ -19,6 +20,12 @@ public class ImageSprite implements Sprite {
      */
     private final Image image;
 
+    /**
+     * The image scaled to the size it was last drawn at, or <code>null</code>
+     * if it has not been drawn at another size than its own.
+     */
+    private volatile ScaledImage scaled;
+
     /**
      * Creates a new sprite from an image.
      *
@@ -29,10 +36,56 @@ public class ImageSprite implements Sprite {
         this.image = img;
     }
 
+    /**
+     * Draws the image, scaled to the given size. The board draws all sprites
+     * at the same size until the window is resized, so the scaled image is
+     * kept and the sprite is copied as is from then on, until it is drawn at
+     * another size.
+     *
+     * {@inheritDoc}
+     */
     @Override
     public void draw(Graphics graphics, int x, int y, int width, int height) {
-        graphics.drawImage(image, x, y, x + width, y + height, 0, 0,
-            image.getWidth(null), image.getHeight(null), null);
+        if (width <= 0 || height <= 0) {
+            return;
+        }
+        if (width == image.getWidth(null) && height == image.getHeight(null)) {
+            graphics.drawImage(image, x, y, null);
+            return;
+        }
+        graphics.drawImage(scaledTo(graphics, width, height), x, y, null);
+    }
+
+    /**
+     * Returns the image scaled to the given size, scaling it if it was last
+     * drawn at another size.
+     *
+     * @param graphics
+     *            The graphics context the image will be drawn on.
+     * @param width
+     *            The width to scale to.
+     * @param height
+     *            The height to scale to.
+     * @return The image, scaled to the given size.
+     */
+    private Image scaledTo(Graphics graphics, int width, int height) {
+        ScaledImage current = scaled;
+        if (current == null || current.width != width || current.height != height) {
+            BufferedImage copy = newImage(graphics, width, height);
+            Graphics target = copy.getGraphics();
+            try {
+                target.drawImage(image, 0, 0, width, height, 0, 0,
+                    image.getWidth(null), image.getHeight(null), null);
+            } finally {
+                target.dispose();
+            }
+            if (current != null) {
+                current.image.flush();
+            }
+            current = new ScaledImage(copy, width, height);
+            scaled = current;
+        }
+        return current.image;
     }
 
     @Override
@@ -68,6 +121,26 @@ public class ImageSprite implements Sprite {
         return gc.createCompatibleImage(width, height, Transparency.BITMASK);
     }
 
+    /**
+     * Creates a new, empty image that is compatible with the device the given
+     * graphics context draws on, so that it can be copied onto it quickly.
+     *
+     * @param graphics
+     *            The graphics context the image will be drawn on.
+     * @param width
+     *            The width of the new image.
+     * @param height
+     *            The height of the new image.
+     * @return The new, empty image.
+     */
+    private BufferedImage newImage(Graphics graphics, int width, int height) {
+        if (graphics instanceof Graphics2D) {
+            return ((Graphics2D) graphics).getDeviceConfiguration()
+                .createCompatibleImage(width, height, Transparency.BITMASK);
+        }
+        return newImage(width, height);
+    }
+
     @Override
     public int getWidth() {
         return image.getWidth(null);
@@ -78,4 +151,30 @@ public class ImageSprite implements Sprite {
         return image.getHeight(null);
     }
 
+    /**
+     * An image scaled to a size.
+     */
+    private static final class ScaledImage {
+
+        /**
+         * The scaled image.
+         */
+        private final BufferedImage image;
+
+        /**
+         * The width the image was scaled to.
+         */
+        private final int width;
+
+        /**
+         * The height the image was scaled to.
+         */
+        private final int height;
+
+        ScaledImage(BufferedImage image, int width, int height) {
+            this.image = image;
+            this.width = width;
+            this.height = height;
+        }
+    }
 }
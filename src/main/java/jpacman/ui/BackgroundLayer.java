@@ -0,0 +1,130 @@
+package jpacman.ui;
+
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.GraphicsConfiguration;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+
+import jpacman.level.FrameSnapshot;
+
+/**
+ * The terrain of a board, drawn once into an offscreen image. The terrain
+ * does not change while a level is played, so a frame only needs to copy this
+ * image and draw the units on top of it. The image is drawn again when the
+ * level or the size it is drawn at changes.
+ */
+final class BackgroundLayer {
+
+    /**
+     * The colour of the area around and between the squares.
+     */
+    private final Color backgroundColor;
+
+    /**
+     * The image holding the terrain, or <code>null</code> if it has not been
+     * drawn yet.
+     */
+    private BufferedImage image;
+
+    /**
+     * A snapshot of the level the terrain was drawn for, or <code>null</code>
+     * if it has not been drawn yet.
+     */
+    private FrameSnapshot source;
+
+    /**
+     * The width of the image, in pixels.
+     */
+    private int width;
+
+    /**
+     * The height of the image, in pixels.
+     */
+    private int height;
+
+    /**
+     * The number of times the terrain has been drawn.
+     */
+    private int renders;
+
+    /**
+     * Creates a new, empty background layer.
+     *
+     * @param backgroundColor
+     *            The colour of the area around and between the squares.
+     */
+    BackgroundLayer(Color backgroundColor) {
+        assert backgroundColor != null;
+        this.backgroundColor = backgroundColor;
+    }
+
+    /**
+     * Draws the terrain of a snapshot, with its squares of the given size.
+     *
+     * @param graphics
+     *            The graphics context to draw on.
+     * @param frame
+     *            The snapshot to draw the terrain of.
+     * @param windowWidth
+     *            The width of the area to draw on, in pixels.
+     * @param windowHeight
+     *            The height of the area to draw on, in pixels.
+     * @param config
+     *            The configuration of the device the image will be drawn on,
+     *            or <code>null</code> if it is unknown.
+     */
+    void draw(Graphics graphics, FrameSnapshot frame, int windowWidth, int windowHeight,
+              GraphicsConfiguration config) {
+        if (windowWidth <= 0 || windowHeight <= 0) {
+            return;
+        }
+        if (image == null || !frame.hasSameTerrain(source)
+            || width != windowWidth || height != windowHeight) {
+            render(frame, windowWidth, windowHeight, config);
+        }
+        graphics.drawImage(image, 0, 0, null);
+    }
+
+    /**
+     * Draws the terrain into a new image.
+     */
+    private void render(FrameSnapshot frame, int windowWidth, int windowHeight,
+                        GraphicsConfiguration config) {
+        if (image != null) {
+            image.flush();
+        }
+        if (config == null) {
+            image = new BufferedImage(windowWidth, windowHeight, BufferedImage.TYPE_INT_RGB);
+        } else {
+            image = config.createCompatibleImage(windowWidth, windowHeight, Transparency.OPAQUE);
+        }
+        source = frame;
+        width = windowWidth;
+        height = windowHeight;
+        renders++;
+
+        int cellW = windowWidth / frame.getWidth();
+        int cellH = windowHeight / frame.getHeight();
+        Graphics graphics = image.getGraphics();
+        try {
+            graphics.setColor(backgroundColor);
+            graphics.fillRect(0, 0, windowWidth, windowHeight);
+            for (int y = 0; y < frame.getHeight(); y++) {
+                for (int x = 0; x < frame.getWidth(); x++) {
+                    frame.getTerrain(x, y).draw(graphics, x * cellW, y * cellH, cellW, cellH);
+                }
+            }
+        } finally {
+            graphics.dispose();
+        }
+    }
+
+    /**
+     * @return The number of times the terrain has been drawn, which only goes
+     *         up when the level or the size changes.
+     */
+    int getRenders() {
+        return renders;
+    }
+}
@@ -0,0 +1,151 @@
+package jpacman.ui;
+
+import java.awt.Canvas;
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics;
+import java.awt.image.BufferStrategy;
+
+import jpacman.board.Board;
+import jpacman.game.Game;
+import jpacman.level.FrameSnapshot;
+import jpacman.level.Level;
+
+/**
+ * Canvas displaying a game, drawn by a {@link FramePacer} through a buffer
+ * strategy instead of being repainted by Swing. A frame is only drawn when
+ * there is something new to show.
+ */
+class BoardCanvas extends Canvas {
+
+    /**
+     * Default serialisation ID.
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The background colour of the board.
+     */
+    private static final Color BACKGROUND_COLOR = Color.BLACK;
+
+    /**
+     * The size (in pixels) of a square on the board. The initial size of this
+     * canvas will scale to fit a board with square of this size.
+     */
+    private static final int SQUARE_SIZE = 16;
+
+    /**
+     * The number of buffers to draw with.
+     */
+    private static final int BUFFERS = 2;
+
+    /**
+     * The game to display.
+     */
+    private final Game game;
+
+    /**
+     * Draws the snapshots of the game.
+     */
+    private final FrameRenderer renderer = new FrameRenderer(BACKGROUND_COLOR);
+
+    /**
+     * The snapshot drawn last, or <code>null</code> if none was drawn yet.
+     */
+    private FrameSnapshot drawn;
+
+    /**
+     * The size the last snapshot was drawn at.
+     */
+    private final Dimension drawnSize = new Dimension();
+
+    /**
+     * The animation frame every unit of the last snapshot was drawn with.
+     */
+    private int[] drawnAnimation = new int[0];
+
+    /**
+     * Creates a new board canvas that will display the provided game.
+     *
+     * @param game
+     *            The game to display.
+     */
+    BoardCanvas(Game game) {
+        super();
+        assert game != null;
+        this.game = game;
+        setIgnoreRepaint(true);
+        setFocusable(false);
+
+        Board board = game.getLevel().getBoard();
+        Dimension size = new Dimension(board.getWidth() * SQUARE_SIZE,
+            board.getHeight() * SQUARE_SIZE);
+        setMinimumSize(size);
+        setPreferredSize(size);
+    }
+
+    /**
+     * Creates the buffers to draw with. The canvas has to be displayable.
+     */
+    void createBuffers() {
+        createBufferStrategy(BUFFERS);
+    }
+
+    /**
+     * Draws the latest snapshot of the game, unless it is the snapshot that
+     * was drawn last and none of its animations moved on to another frame, or
+     * the canvas cannot be drawn on yet.
+     *
+     * @return <code>true</code> iff a frame was drawn.
+     */
+    boolean renderFrame() {
+        BufferStrategy strategy = getBufferStrategy();
+        int width = getWidth();
+        int height = getHeight();
+        if (strategy == null || width <= 0 || height <= 0) {
+            return false;
+        }
+        Level level = game.getLevel();
+        FrameSnapshot frame = level.getSnapshot();
+        if (frame == drawn && !animationAdvanced()
+            && drawnSize.width == width && drawnSize.height == height) {
+            return false;
+        }
+        do {
+            do {
+                Graphics graphics = strategy.getDrawGraphics();
+                try {
+                    renderer.render(frame, graphics, width, height, getGraphicsConfiguration());
+                } finally {
+                    graphics.dispose();
+                }
+            } while (strategy.contentsRestored());
+            strategy.show();
+        } while (strategy.contentsLost());
+        drawn = frame;
+        drawnSize.setSize(width, height);
+        drawnAnimation = animationFrames(frame);
+        return true;
+    }
+
+    /**
+     * Determines whether any unit of the snapshot drawn last shows another
+     * animation frame than the one it was drawn with.
+     */
+    private boolean animationAdvanced() {
+        for (int i = 0; i < drawnAnimation.length; i++) {
+            if (FrameRenderer.animationFrame(drawn, i) != drawnAnimation[i]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int[] animationFrames(FrameSnapshot frame) {
+        int[] frames = new int[frame.getUnitCount()];
+        for (int i = 0; i < frames.length; i++) {
+            frames[i] = FrameRenderer.animationFrame(frame, i);
+        }
+        return frames;
+    }
+}
@@ -3,13 +3,14 @@ package jpacman.ui;
 import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Graphics;
+import java.util.BitSet;
 
 import javax.swing.JPanel;
 
-import jpacman.board.Square;
-import jpacman.board.Unit;
 import jpacman.board.Board;
 import jpacman.game.Game;
+import jpacman.level.FrameSnapshot;
+import jpacman.level.Level;
 
 /**
  * Panel displaying a game.
@@ -40,6 +41,22 @@ class BoardPanel extends JPanel {
      */
     private final Game game;
 
+    /**
+     * Draws the snapshots of the game.
+     */
+    private final FrameRenderer renderer = new FrameRenderer(BACKGROUND_COLOR);
+
+    /**
+     * The squares that changed since the last frame.
+     */
+    private final DirtySquares dirtySquares = new DirtySquares();
+
+    /**
+     * The level whose changes are being followed, or <code>null</code> if
+     * none is.
+     */
+    private Level observedLevel;
+
     /**
      * Creates a new board panel that will display the provided game.
      *
@@ -64,57 +81,73 @@ class BoardPanel extends JPanel {
     @Override
     public void paint(Graphics g) {
         assert g != null;
-        render(game.getLevel().getBoard(), g, getSize());
+        renderer.render(game.getLevel().getSnapshot(), g, getWidth(), getHeight(),
+            getGraphicsConfiguration());
     }
 
     /**
-     * Renders the board on the given graphics context to the given dimensions.
-     *
-     * @param board
-     *            The board to render.
-     * @param graphics
-     *            The graphics context to draw on.
-     * @param window
-     *            The dimensions to scale the rendered board to.
+     * Asks for the next frame to be painted. Only the squares that changed
+     * since the previous frame and the squares showing animated units are
+     * repainted, so a frame in which nothing moved costs next to nothing.
+     * When the game moves on to another level, the whole board is repainted.
      */
-    private void render(Board board, Graphics graphics, Dimension window) {
-        int cellW = window.width / board.getWidth();
-        int cellH = window.height / board.getHeight();
-
-        graphics.setColor(BACKGROUND_COLOR);
-        graphics.fillRect(0, 0, window.width, window.height);
-
-        for (int y = 0; y < board.getHeight(); y++) {
-            for (int x = 0; x < board.getWidth(); x++) {
-                int cellX = x * cellW;
-                int cellY = y * cellH;
-                Square square = board.squareAt(x, y);
-                render(square, graphics, cellX, cellY, cellW, cellH);
+    void nextFrame() {
+        Level level = game.getLevel();
+        if (level != observedLevel) {
+            if (observedLevel != null) {
+                observedLevel.removeFrameObserver(dirtySquares);
             }
+            level.addFrameObserver(dirtySquares);
+            observedLevel = level;
+            dirtySquares.drain();
+            repaint();
+            return;
+        }
+        FrameSnapshot frame = level.getSnapshot();
+        BitSet dirty = dirtySquares.drain();
+        for (int i = 0; i < frame.getUnitCount(); i++) {
+            if (FrameRenderer.isAnimated(frame, i)) {
+                dirty.set(frame.getUnitY(i) * frame.getWidth() + frame.getUnitX(i));
+            }
+        }
+        if (dirty.isEmpty()) {
+            return;
+        }
+        int cellW = getWidth() / frame.getWidth();
+        int cellH = getHeight() / frame.getHeight();
+        for (int id = dirty.nextSetBit(0); id >= 0; id = dirty.nextSetBit(id + 1)) {
+            int x = id % frame.getWidth();
+            int y = id / frame.getWidth();
+            repaint(x * cellW, y * cellH, cellW, cellH);
         }
     }
 
     /**
-     * Renders a single square on the given graphics context on the specified
-     * rectangle.
-     *
-     * @param square
-     *            The square to render.
-     * @param graphics
-     *            The graphics context to draw on.
-     * @param x
-     *            The x position to start drawing.
-     * @param y
-     *            The y position to start drawing.
-     * @param width
-     *            The width of this square (in pixels.)
-     * @param height
-     *            The height of this square (in pixels.)
+     * Collects the ids of the squares that changed in the snapshots the
+     * level published since the last frame.
      */
-    private void render(Square square, Graphics graphics, int x, int y, int width, int height) {
-        square.getSprite().draw(graphics, x, y, width, height);
-        for (Unit unit : square.getOccupants()) {
-            unit.getSprite().draw(graphics, x, y, width, height);
+    private static final class DirtySquares implements Level.FrameObserver {
+
+        /**
+         * The ids of the changed squares.
+         */
+        private BitSet changed = new BitSet();
+
+        @Override
+        public synchronized void framePublished(FrameSnapshot frame, BitSet changedSquares) {
+            changed.or(changedSquares);
+        }
+
+        /**
+         * Takes the squares that changed so far, so that the next call only
+         * returns the squares that changed after this one.
+         *
+         * @return The ids of the squares that changed.
+         */
+        synchronized BitSet drain() {
+            BitSet result = changed;
+            changed = new BitSet();
+            return result;
         }
     }
 }
@@ -0,0 +1,99 @@
+package jpacman.ui;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The thread drawing the frames of a {@link BoardCanvas} at a steady rate.
+ * Every frame period the canvas is asked to draw a frame, which it skips if
+ * nothing changed. When drawing falls behind, the pacer drops the frames it
+ * missed instead of drawing them in a burst to catch up.
+ */
+final class FramePacer implements Runnable {
+
+    /**
+     * The canvas to draw.
+     */
+    private final BoardCanvas canvas;
+
+    /**
+     * The time between two frames, in nanoseconds.
+     */
+    private final long period;
+
+    /**
+     * The frame times and skipped frames.
+     */
+    private final FrameStats stats = new FrameStats();
+
+    /**
+     * The thread drawing the frames, or <code>null</code> if it is not
+     * running.
+     */
+    private volatile Thread thread;
+
+    /**
+     * Creates a new pacer.
+     *
+     * @param canvas
+     *            The canvas to draw.
+     * @param framesPerSecond
+     *            The number of frames to draw per second.
+     */
+    FramePacer(BoardCanvas canvas, int framesPerSecond) {
+        assert canvas != null;
+        assert framesPerSecond > 0;
+        this.canvas = canvas;
+        this.period = TimeUnit.SECONDS.toNanos(1) / framesPerSecond;
+    }
+
+    /**
+     * Starts drawing frames. Starting a running pacer has no effect.
+     */
+    synchronized void start() {
+        if (thread == null) {
+            thread = new Thread(this, "frame-pacer");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    /**
+     * Stops drawing frames. The frame being drawn is finished.
+     */
+    synchronized void stop() {
+        Thread running = thread;
+        thread = null;
+        if (running != null) {
+            LockSupport.unpark(running);
+        }
+    }
+
+    @Override
+    public void run() {
+        Thread self = Thread.currentThread();
+        long next = System.nanoTime();
+        while (thread == self) {
+            long start = System.nanoTime();
+            if (canvas.renderFrame()) {
+                stats.rendered(System.nanoTime() - start);
+            } else {
+                stats.skipped();
+            }
+            next += period;
+            long wait = next - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(this, wait);
+            } else {
+                next = System.nanoTime();
+            }
+        }
+    }
+
+    /**
+     * @return The frame times and skipped frames so far.
+     */
+    FrameStats getStats() {
+        return stats;
+    }
+}
@@ -0,0 +1,100 @@
+package jpacman.ui;
+
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.GraphicsConfiguration;
+import java.awt.Rectangle;
+
+import jpacman.level.FrameSnapshot;
+import jpacman.sprite.AnimatedSprite;
+import jpacman.sprite.Sprite;
+
+/**
+ * Draws snapshots of a level, for both the passive {@link BoardPanel} and the
+ * actively rendered {@link BoardCanvas}. The snapshots are immutable, so
+ * drawing never waits for the units moving on the board. The terrain is
+ * copied from a {@link BackgroundLayer}, so only the units are drawn one by
+ * one, and only those inside the area being drawn.
+ */
+final class FrameRenderer {
+
+    /**
+     * The terrain of the board, drawn once and copied into every frame.
+     */
+    private final BackgroundLayer background;
+
+    /**
+     * Creates a new renderer.
+     *
+     * @param backgroundColor
+     *            The colour of the area around and between the squares.
+     */
+    FrameRenderer(Color backgroundColor) {
+        this.background = new BackgroundLayer(backgroundColor);
+    }
+
+    /**
+     * Renders a snapshot of the board on the given graphics context to the
+     * given dimensions.
+     *
+     * @param frame
+     *            The snapshot of the board to render.
+     * @param graphics
+     *            The graphics context to draw on.
+     * @param width
+     *            The width to scale the rendered board to.
+     * @param height
+     *            The height to scale the rendered board to.
+     * @param config
+     *            The configuration of the device drawn on, or
+     *            <code>null</code> if it is unknown.
+     */
+    void render(FrameSnapshot frame, Graphics graphics, int width, int height,
+                GraphicsConfiguration config) {
+        int cellW = width / frame.getWidth();
+        int cellH = height / frame.getHeight();
+        Rectangle clip = graphics.getClipBounds();
+
+        background.draw(graphics, frame, width, height, config);
+        for (int i = 0; i < frame.getUnitCount(); i++) {
+            int x = frame.getUnitX(i) * cellW;
+            int y = frame.getUnitY(i) * cellH;
+            if (clip == null || clip.intersects(x, y, cellW, cellH)) {
+                frame.getUnitSprite(i).draw(graphics, x, y, cellW, cellH);
+            }
+        }
+    }
+
+    /**
+     * Determines whether a unit of a snapshot looks different from one frame
+     * to the next, even if it does not move.
+     *
+     * @param frame
+     *            The snapshot the unit is in.
+     * @param unit
+     *            The index of the unit.
+     * @return <code>true</code> iff the unit is animated.
+     */
+    static boolean isAnimated(FrameSnapshot frame, int unit) {
+        return frame.getUnitSprite(unit) instanceof AnimatedSprite;
+    }
+
+    /**
+     * Determines which frame of its animation a unit of a snapshot shows at
+     * this moment.
+     *
+     * @param frame
+     *            The snapshot the unit is in.
+     * @param unit
+     *            The index of the unit.
+     * @return The index of the animation frame the unit shows, or 0 if the
+     *         unit is not animated.
+     */
+    static int animationFrame(FrameSnapshot frame, int unit) {
+        Sprite sprite = frame.getUnitSprite(unit);
+        if (sprite instanceof AnimatedSprite) {
+            return ((AnimatedSprite) sprite).getFrameIndex();
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,93 @@
+package jpacman.ui;
+
+import java.util.Arrays;
+
+/**
+ * The time it took to render the most recent frames of an actively rendered
+ * user interface, and how many frames were skipped because nothing changed.
+ */
+public final class FrameStats {
+
+    /**
+     * The number of frame times kept for the percentiles.
+     */
+    private static final int WINDOW = 512;
+
+    /**
+     * The most recent frame times in nanoseconds, used as a ring buffer.
+     */
+    private final long[] times = new long[WINDOW];
+
+    /**
+     * The number of frames rendered so far.
+     */
+    private long rendered;
+
+    /**
+     * The number of frames skipped so far.
+     */
+    private long skipped;
+
+    /**
+     * Records a rendered frame.
+     *
+     * @param nanos
+     *            The time it took to render the frame, in nanoseconds.
+     */
+    synchronized void rendered(long nanos) {
+        times[(int) (rendered % WINDOW)] = nanos;
+        rendered++;
+    }
+
+    /**
+     * Records a frame that was skipped because nothing changed.
+     */
+    synchronized void skipped() {
+        skipped++;
+    }
+
+    /**
+     * @return The number of frames rendered so far.
+     */
+    public synchronized long getRenderedFrames() {
+        return rendered;
+    }
+
+    /**
+     * @return The number of frames skipped so far because nothing changed.
+     */
+    public synchronized long getSkippedFrames() {
+        return skipped;
+    }
+
+    /**
+     * Returns a percentile of the time it took to render the most recent
+     * frames.
+     *
+     * @param percentile
+     *            The percentile, from 0 (the fastest frame) to 100 (the
+     *            slowest frame).
+     * @return The frame time at the given percentile in nanoseconds, or 0 if
+     *         no frame was rendered yet.
+     */
+    public long percentile(double percentile) {
+        assert percentile >= 0 && percentile <= 100;
+        long[] recent;
+        synchronized (this) {
+            recent = Arrays.copyOf(times, (int) Math.min(rendered, WINDOW));
+        }
+        if (recent.length == 0) {
+            return 0;
+        }
+        Arrays.sort(recent);
+        int index = (int) Math.ceil(percentile / 100 * recent.length) - 1;
+        return recent[Math.max(0, index)];
+    }
+
+    @Override
+    public String toString() {
+        return String.format("frames: %d rendered, %d skipped, p50 %.2f ms, p95 %.2f ms, p99 %.2f ms",
+            getRenderedFrames(), getSkippedFrames(), percentile(50) / 1e6,
+            percentile(95) / 1e6, percentile(99) / 1e6);
+    }
+}
@@ -1,6 +1,7 @@
 package jpacman.ui;
 
 import java.awt.BorderLayout;
+import java.awt.Component;
 import java.awt.Container;
 import java.util.Map;
 import java.util.concurrent.Executors;
@@ -41,16 +42,40 @@ public class PacManUI extends JFrame {
      */
     private static final int FRAME_INTERVAL = 40;
 
+    /**
+     * The game being played.
+     */
+    private final Game game;
+
+    /**
+     * The service redrawing the interface, or <code>null</code> if the
+     * interface has not been started.
+     */
+    private ScheduledExecutorService frameService;
+
     /**
      * The panel displaying the player scores.
      */
     private final ScorePanel scorePanel;
 
     /**
-     * The panel displaying the game.
+     * The panel displaying the game, or <code>null</code> if the game is
+     * rendered actively.
      */
     private final BoardPanel boardPanel;
 
+    /**
+     * The canvas displaying the game, or <code>null</code> if the game is
+     * repainted by Swing.
+     */
+    private final BoardCanvas boardCanvas;
+
+    /**
+     * The thread drawing the canvas, or <code>null</code> if the game is
+     * repainted by Swing.
+     */
+    private final FramePacer framePacer;
+
     /**
      * Creates a new UI for a JPacman game.
      *
@@ -68,10 +93,36 @@ public class PacManUI extends JFrame {
     public PacManUI(final Game game, final Map<String, Action> buttons,
                     final Map<Integer, Action> keyMappings,
                     ScoreFormatter scoreFormatter) {
+        this(game, buttons, keyMappings, scoreFormatter, 0);
+    }
+
+    /**
+     * Creates a new UI for a JPacman game, which is either repainted by Swing
+     * or rendered actively on a canvas.
+     *
+     * @param game
+     *            The game to play.
+     * @param buttons
+     *            The map of caption-to-action entries that will appear as
+     *            buttons on the interface.
+     * @param keyMappings
+     *            The map of keyCode-to-action entries that will be added as key
+     *            listeners to the interface.
+     * @param scoreFormatter
+     *            The formatter used to display the current score.
+     * @param framesPerSecond
+     *            The number of frames per second to render the game at
+     *            actively, or 0 to have Swing repaint it.
+     */
+    public PacManUI(final Game game, final Map<String, Action> buttons,
+                    final Map<Integer, Action> keyMappings,
+                    ScoreFormatter scoreFormatter, int framesPerSecond) {
         super("JPacman <current year>");
         assert game != null;
         assert buttons != null;
         assert keyMappings != null;
+        assert framesPerSecond >= 0;
+        this.game = game;
 
         setDefaultCloseOperation(WindowConstants.EXIT_ON_CLOSE);
 
@@ -83,15 +134,28 @@ public class PacManUI extends JFrame {
         scorePanel = new ScorePanel(game.getPlayers());
         if (scoreFormatter != null) {
             scorePanel.setScoreFormatter(scoreFormatter);
+        } else {
+            scorePanel.refresh();
         }
 
-        boardPanel = new BoardPanel(game);
+        Component board;
+        if (framesPerSecond > 0) {
+            boardPanel = null;
+            boardCanvas = new BoardCanvas(game);
+            framePacer = new FramePacer(boardCanvas, framesPerSecond);
+            board = boardCanvas;
+        } else {
+            boardPanel = new BoardPanel(game);
+            boardCanvas = null;
+            framePacer = null;
+            board = boardPanel;
+        }
 
         Container contentPanel = getContentPane();
         contentPanel.setLayout(new BorderLayout());
         contentPanel.add(buttonPanel, BorderLayout.SOUTH);
         contentPanel.add(scorePanel, BorderLayout.NORTH);
-        contentPanel.add(boardPanel, BorderLayout.CENTER);
+        contentPanel.add(board, BorderLayout.CENTER);
 
         pack();
     }
@@ -102,15 +166,53 @@ public class PacManUI extends JFrame {
      */
     public void start() {
         setVisible(true);
-        ScheduledExecutorService service = Executors.newSingleThreadScheduledExecutor();
-        service.scheduleAtFixedRate(this::nextFrame, 0, FRAME_INTERVAL, TimeUnit.MILLISECONDS);
+        if (framePacer != null) {
+            boardCanvas.createBuffers();
+            framePacer.start();
+        } else if (frameService == null) {
+            frameService = Executors.newSingleThreadScheduledExecutor();
+            frameService.scheduleAtFixedRate(this::nextFrame, 0, FRAME_INTERVAL,
+                TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Closes the window, stops redrawing the interface and closes the game,
+     * releasing all threads started for it.
+     */
+    @Override
+    public void dispose() {
+        if (framePacer != null) {
+            framePacer.stop();
+        }
+        if (frameService != null) {
+            frameService.shutdownNow();
+            frameService = null;
+        }
+        scorePanel.detach();
+        game.close();
+        super.dispose();
+    }
+
+    /**
+     * Returns how long it took to render the frames of the game, if it is
+     * rendered actively.
+     *
+     * @return The frame statistics, or <code>null</code> if the game is
+     *         repainted by Swing.
+     */
+    public FrameStats getFrameStats() {
+        if (framePacer == null) {
+            return null;
+        }
+        return framePacer.getStats();
     }
 
     /**
-     * Draws the next frame, i.e. refreshes the scores and game.
+     * Draws the next frame, i.e. the parts of the game that changed. The
+     * score panel updates itself when the scores change.
      */
     private void nextFrame() {
-        boardPanel.repaint();
-        scorePanel.refresh();
+        boardPanel.nextFrame();
     }
 }
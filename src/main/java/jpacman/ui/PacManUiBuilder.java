@@ -44,6 +44,12 @@ public class PacManUiBuilder {
      */
     private ScoreFormatter scoreFormatter = null;
 
+    /**
+     * The number of frames per second to render the game at actively, or 0
+     * to have Swing repaint it.
+     */
+    private int framesPerSecond = 0;
+
     /**
      * Creates a new Pac-Man UI builder without any mapped keys or buttons.
      */
@@ -67,7 +73,7 @@ public class PacManUiBuilder {
             addStartButton(game);
             addStopButton(game);
         }
-        return new PacManUI(game, buttons, keyMappings, scoreFormatter);
+        return new PacManUI(game, buttons, keyMappings, scoreFormatter, framesPerSecond);
     }
 
     /**
@@ -156,4 +162,20 @@ public class PacManUiBuilder {
         this.scoreFormatter = scoreFormatter;
         return this;
     }
+
+    /**
+     * Renders the game actively on a canvas at the given frame rate, instead
+     * of having Swing repaint it. Frames in which nothing changed are
+     * skipped, and the frame times are available through
+     * {@link PacManUI#getFrameStats()}.
+     *
+     * @param fps
+     *            The number of frames per second to aim for.
+     * @return The builder.
+     */
+    public PacManUiBuilder withActiveRendering(int fps) {
+        assert fps > 0;
+        this.framesPerSecond = fps;
+        return this;
+    }
 }
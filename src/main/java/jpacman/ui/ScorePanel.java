@@ -4,15 +4,22 @@ import java.awt.GridLayout;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.swing.JLabel;
 import javax.swing.JPanel;
+import javax.swing.SwingUtilities;
 
 import jpacman.level.Player;
 
 /**
  * A panel consisting of a column for each player, with the numbered players on
- * top and their respective scores underneath.
+ * top and their respective scores underneath. The scores are updated when the
+ * players report a change, so the panel costs nothing while the scores stay
+ * the same. Changes are gathered and applied on the event dispatch thread in
+ * one go, so a burst of points only updates each label once.
  *
  * @author Jeroen Roosen 
  *
@@ -40,6 +47,22 @@ public class ScorePanel extends JPanel {
      */
     private ScoreFormatter scoreFormatter = DEFAULT_SCORE_FORMATTER;
 
+    /**
+     * The players whose labels have not been updated since they changed.
+     */
+    private final Set<Player> changedPlayers = ConcurrentHashMap.newKeySet();
+
+    /**
+     * <code>true</code> iff an update of the changed labels has been handed to
+     * the event dispatch thread and has not started yet.
+     */
+    private final AtomicBoolean updateScheduled = new AtomicBoolean();
+
+    /**
+     * Notes the changes of the players.
+     */
+    private final Player.PlayerObserver playerObserver = this::playerChanged;
+
     /**
      * Creates a new score panel with a column for each player.
      *
@@ -60,21 +83,63 @@ public class ScorePanel extends JPanel {
             JLabel scoreLabel = new JLabel("0", JLabel.CENTER);
             scoreLabels.put(player, scoreLabel);
             add(scoreLabel);
+            player.addObserver(playerObserver);
         }
     }
 
     /**
-     * Refreshes the scores of the players.
+     * Refreshes the scores of all players.
      */
     protected void refresh() {
         for (Map.Entry<Player, JLabel> entry : scoreLabels.entrySet()) {
-            Player player = entry.getKey();
-            String score = "";
-            if (!player.isAlive()) {
-                score = "You died. ";
+            show(entry.getKey(), entry.getValue());
+        }
+    }
+
+    private void show(Player player, JLabel label) {
+        String score = "";
+        if (!player.isAlive()) {
+            score = "You died. ";
+        }
+        score += scoreFormatter.format(player);
+        label.setText(score);
+    }
+
+    /**
+     * Notes that a player changed and makes sure its label is updated on the
+     * event dispatch thread.
+     *
+     * @param player
+     *            The player that changed.
+     */
+    private void playerChanged(Player player) {
+        changedPlayers.add(player);
+        if (updateScheduled.compareAndSet(false, true)) {
+            SwingUtilities.invokeLater(this::updateChanged);
+        }
+    }
+
+    /**
+     * Updates the labels of the players that changed since the last update.
+     */
+    private void updateChanged() {
+        updateScheduled.set(false);
+        for (Player player : changedPlayers) {
+            changedPlayers.remove(player);
+            JLabel label = scoreLabels.get(player);
+            if (label != null) {
+                show(player, label);
             }
-            score += scoreFormatter.format(player);
-            entry.getValue().setText(score);
+        }
+    }
+
+    /**
+     * Stops following the players, after which their labels are no longer
+     * updated.
+     */
+    void detach() {
+        for (Player player : scoreLabels.keySet()) {
+            player.removeObserver(playerObserver);
         }
     }
 
@@ -98,5 +163,6 @@ public class ScorePanel extends JPanel {
     public void setScoreFormatter(ScoreFormatter scoreFormatter) {
         assert scoreFormatter != null;
         this.scoreFormatter = scoreFormatter;
+        refresh();
     }
 }
@@ -0,0 +1,74 @@
+package jpacman.board;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test suite to confirm that squares know their position and id on the
+ * {@link Board} created by the {@link BoardFactory}.
+ */
+class SquareIdTest {
+
+    private static final int WIDTH = 3;
+    private static final int HEIGHT = 2;
+
+    /**
+     * The board under test.
+     */
+    private Board board;
+
+    /**
+     * Creates a board of basic squares.
+     */
+    @BeforeEach
+    void setUp() {
+        Square[][] grid = new Square[WIDTH][HEIGHT];
+        for (int x = 0; x < WIDTH; x++) {
+            for (int y = 0; y < HEIGHT; y++) {
+                grid[x][y] = new BasicSquare();
+            }
+        }
+        board = new BoardFactory(null).createBoard(grid);
+    }
+
+    /**
+     * A square that is not on a board has no position.
+     */
+    @Test
+    void noPositionOffBoard() {
+        Square square = new BasicSquare();
+        assertThat(square.getId()).isEqualTo(-1);
+        assertThat(square.getX()).isEqualTo(-1);
+        assertThat(square.getY()).isEqualTo(-1);
+    }
+
+    /**
+     * Every square knows its coordinates and can be found back by its id.
+     */
+    @Test
+    void testIdsAndCoordinates() {
+        assertThat(board.getSquareCount()).isEqualTo(WIDTH * HEIGHT);
+        for (int x = 0; x < WIDTH; x++) {
+            for (int y = 0; y < HEIGHT; y++) {
+                Square square = board.squareAt(x, y);
+                assertThat(square.getX()).isEqualTo(x);
+                assertThat(square.getY()).isEqualTo(y);
+                assertThat(square.getId()).isEqualTo(board.idOf(x, y));
+                assertThat(board.squareById(square.getId())).isSameAs(square);
+            }
+        }
+    }
+
+    /**
+     * Ids are dense and numbered row by row.
+     */
+    @Test
+    void testRowMajorOrder() {
+        assertThat(board.squareById(0)).isSameAs(board.squareAt(0, 0));
+        assertThat(board.squareById(WIDTH)).isSameAs(board.squareAt(0, 1));
+        assertThat(board.squareById(WIDTH * HEIGHT - 1))
+            .isSameAs(board.squareAt(WIDTH - 1, HEIGHT - 1));
+    }
+}
@@ -0,0 +1,76 @@
+package jpacman.board;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test suite for reading the occupants of a {@link Square} without copying
+ * them.
+ */
+class SquareOccupantTest {
+
+    /**
+     * The square under test.
+     */
+    private Square square;
+
+    /**
+     * Resets the square under test.
+     */
+    @BeforeEach
+    void setUp() {
+        square = new BasicSquare();
+    }
+
+    /**
+     * Occupants are visited oldest first, also after one left.
+     */
+    @Test
+    void testVisitsInOrder() {
+        Unit first = new BasicUnit();
+        Unit second = new BasicUnit();
+        Unit third = new BasicUnit();
+        first.occupy(square);
+        second.occupy(square);
+        third.occupy(square);
+        second.leaveSquare();
+
+        List<Unit> visited = new ArrayList<>();
+        square.forEachOccupant(visited::add);
+
+        assertThat(visited).containsExactly(first, third);
+        assertThat(square.occupantCount()).isEqualTo(2);
+        assertThat(square.hasOccupant(second)).isFalse();
+    }
+
+    /**
+     * A square grows to hold any number of occupants.
+     */
+    @Test
+    void testManyOccupants() {
+        for (int i = 0; i < 10; i++) {
+            new BasicUnit().occupy(square);
+        }
+        assertThat(square.occupantCount()).isEqualTo(10);
+        assertThat(square.getOccupants()).hasSize(10);
+    }
+
+    /**
+     * Occupants can be looked up by their type.
+     */
+    @Test
+    void testTypedLookup() {
+        Unit unit = new BasicUnit();
+        assertThat(square.hasOccupantOfType(BasicUnit.class)).isFalse();
+        assertThat(square.findOccupant(Unit.class)).isNull();
+
+        unit.occupy(square);
+        assertThat(square.hasOccupantOfType(BasicUnit.class)).isTrue();
+        assertThat(square.findOccupant(Unit.class)).isSameAs(unit);
+    }
+}
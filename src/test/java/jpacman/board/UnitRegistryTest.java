@@ -0,0 +1,104 @@
+package jpacman.board;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test suite to confirm that the {@link UnitRegistry} of a board follows the
+ * units occupying and leaving its squares.
+ */
+class UnitRegistryTest {
+
+    private static final int WIDTH = 5;
+
+    /**
+     * The board under test.
+     */
+    private Board board;
+
+    /**
+     * A unit that was placed before the board was created.
+     */
+    private Unit early;
+
+    /**
+     * Creates a single row board with one unit already on it.
+     */
+    @BeforeEach
+    void setUp() {
+        Square[][] grid = new Square[WIDTH][1];
+        for (int x = 0; x < WIDTH; x++) {
+            grid[x][0] = new BasicSquare();
+        }
+        early = new BasicUnit();
+        early.occupy(grid[0][0]);
+        board = new BoardFactory(null).createBoard(grid);
+    }
+
+    /**
+     * Units occupying squares before the board is created are registered
+     * with it.
+     */
+    @Test
+    void testRegistersExistingOccupants() {
+        assertThat(board.getUnits().count(BasicUnit.class)).isEqualTo(1);
+        assertThat(board.getUnits().first(Unit.class)).isSameAs(early);
+    }
+
+    /**
+     * Occupying and leaving squares keeps the registry up to date.
+     */
+    @Test
+    void testOccupyAndLeave() {
+        Unit unit = new BasicUnit();
+        unit.occupy(board.squareAt(2, 0));
+        unit.occupy(board.squareAt(3, 0));
+        assertThat(board.getUnits().unitsOf(BasicUnit.class)).containsExactly(early, unit);
+
+        unit.leaveSquare();
+        early.leaveSquare();
+        assertThat(board.getUnits().count(Unit.class)).isZero();
+        assertThat(board.getUnits().first(Unit.class)).isNull();
+    }
+
+    /**
+     * Moving to a square of another board moves the unit to that board's
+     * registry.
+     */
+    @Test
+    void testChangeBoard() {
+        Square[][] grid = {{new BasicSquare()}};
+        Board other = new BoardFactory(null).createBoard(grid);
+
+        early.occupy(other.squareAt(0, 0));
+        assertThat(board.getUnits().count(Unit.class)).isZero();
+        assertThat(other.getUnits().first(Unit.class)).isSameAs(early);
+    }
+
+    /**
+     * The nearest unit is found around the edge of the board.
+     */
+    @Test
+    void testNearestWraps() {
+        Unit far = new BasicUnit();
+        far.occupy(board.squareAt(2, 0));
+
+        assertThat(board.getUnits().nearest(BasicUnit.class, board.squareAt(4, 0)))
+            .isSameAs(early);
+        assertThat(board.getUnits().nearest(BasicUnit.class, board.squareAt(2, 0)))
+            .isSameAs(far);
+    }
+
+    /**
+     * Units that are equally near are not told apart.
+     */
+    @Test
+    void testNearestTied() {
+        Unit other = new BasicUnit();
+        other.occupy(board.squareAt(2, 0));
+
+        assertThat(board.getUnits().nearest(BasicUnit.class, board.squareAt(1, 0))).isNull();
+    }
+}
@@ -0,0 +1,132 @@
+package jpacman.game;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.ForkJoinPool;
+
+import jpacman.board.BoardFactory;
+import jpacman.board.Direction;
+import jpacman.level.Level;
+import jpacman.level.LiveResources;
+import jpacman.level.LevelFactory;
+import jpacman.level.MapParser;
+import jpacman.level.Player;
+import jpacman.level.PlayerFactory;
+import jpacman.npc.ghost.GhostFactory;
+import jpacman.points.DefaultPointCalculator;
+import jpacman.points.PointCalculator;
+import jpacman.sprite.PacManSprites;
+import org.assertj.core.util.Lists;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that closed games release the threads and observers they used.
+ */
+class GameLifecycleTest {
+
+    private static final PacManSprites SPRITES = new PacManSprites();
+
+    private static final int GAMES = 10_000;
+
+    private static final int WARM_UP = 100;
+
+    private MapParser parser;
+    private GameFactory gameFactory;
+    private PointCalculator pointCalculator;
+
+    /**
+     * Creates the factories for the games.
+     */
+    @BeforeEach
+    void setUp() {
+        pointCalculator = new DefaultPointCalculator();
+        parser = new MapParser(
+            new LevelFactory(SPRITES, new GhostFactory(SPRITES), pointCalculator),
+            new BoardFactory(SPRITES));
+        gameFactory = new GameFactory(new PlayerFactory(SPRITES));
+    }
+
+    private Game play() {
+        Level level = parser.parseMap(Lists.newArrayList(
+            "#######",
+            "#P.. G#",
+            "#G   .#",
+            "#######"));
+        Game game = gameFactory.createSinglePlayerGame(level, pointCalculator);
+        game.start();
+        Player player = game.getPlayers().get(0);
+        game.move(player, Direction.EAST);
+        game.close();
+        return game;
+    }
+
+    /**
+     * A closed game holds no NPC tasks, observers or executors and cannot be
+     * restarted.
+     */
+    @Test
+    void testCloseReleases() {
+        Game game = play();
+
+        assertThat(game.getLiveResources().isReleased()).isTrue();
+        assertThat(game.getLevel().isClosed()).isTrue();
+
+        game.start();
+        assertThat(game.isInProgress()).isFalse();
+        assertThat(game.getLiveResources().isReleased()).isTrue();
+    }
+
+    /**
+     * Moves submitted to the input queue are made by the game thread on its
+     * next tick.
+     */
+    @Test
+    void testTickAppliesSubmittedMoves() throws InterruptedException {
+        Level level = parser.parseMap(Lists.newArrayList(
+            "#####",
+            "#P..#",
+            "#####"));
+        Game game = gameFactory.createSinglePlayerGame(level, pointCalculator);
+        Player player = game.getPlayers().get(0);
+        game.start();
+        game.getInputQueue().submit(player, Direction.EAST);
+
+        long deadline = System.currentTimeMillis() + 1000L;
+        while (game.getInputQueue().getAppliedMoves() == 0L
+            && System.currentTimeMillis() < deadline) {
+            Thread.sleep(Game.TICK_INTERVAL);
+        }
+        game.close();
+
+        assertThat(game.getInputQueue().getAppliedMoves()).isEqualTo(1L);
+        assertThat(player.getScore()).isPositive();
+    }
+
+    /**
+     * Playing many games back to back releases everything each of them used
+     * and does not grow the number of threads. The shared NPC scheduler and
+     * the common pool reach their size during the warm-up; the latter may
+     * still replace some of its threads afterwards.
+     */
+    @Test
+    void testThreadCountStaysFlat() {
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        for (int i = 0; i < WARM_UP; i++) {
+            play();
+        }
+        int threads = threadBean.getThreadCount();
+
+        for (int i = WARM_UP; i < GAMES; i++) {
+            LiveResources resources = play().getLiveResources();
+            assertThat(resources.getScheduledNpcs()).isZero();
+            assertThat(resources.getObservers()).isZero();
+            assertThat(resources.getExecutors()).isZero();
+        }
+
+        assertThat(threadBean.getThreadCount())
+            .isLessThanOrEqualTo(threads + ForkJoinPool.getCommonPoolParallelism());
+    }
+}
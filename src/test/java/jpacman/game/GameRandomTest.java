@@ -0,0 +1,142 @@
+package jpacman.game;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import jpacman.board.BoardFactory;
+import jpacman.board.Direction;
+import jpacman.board.Square;
+import jpacman.level.LevelFactory;
+import jpacman.level.MapParser;
+import jpacman.level.PlayerFactory;
+import jpacman.level.RandomService;
+import jpacman.npc.Ghost;
+import jpacman.npc.ghost.GhostFactory;
+import jpacman.points.DefaultPointCalculator;
+import jpacman.points.PointCalculator;
+import jpacman.sprite.PacManSprites;
+import org.assertj.core.util.Lists;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that the ghosts of a game draw their random variation from streams of
+ * the game's {@link RandomService}, so that a seeded game can be replayed.
+ */
+class GameRandomTest {
+
+    private static final PacManSprites SPRITES = new PacManSprites();
+
+    private static final int DRAWS = 20;
+
+    private MapParser parser;
+    private GameFactory gameFactory;
+    private PointCalculator pointCalculator;
+    private List<Game> games;
+
+    /**
+     * Creates the factories for the games.
+     */
+    @BeforeEach
+    void setUp() {
+        pointCalculator = new DefaultPointCalculator();
+        parser = new MapParser(
+            new LevelFactory(SPRITES, new GhostFactory(SPRITES), pointCalculator),
+            new BoardFactory(SPRITES));
+        gameFactory = new GameFactory(new PlayerFactory(SPRITES));
+        games = new ArrayList<>();
+    }
+
+    /**
+     * Closes the games, releasing their NPC tasks.
+     */
+    @AfterEach
+    void tearDown() {
+        for (Game game : games) {
+            game.close();
+        }
+    }
+
+    /**
+     * Creates a game with the given seed and starts it, so that its level
+     * hands out the streams, and pauses it again so that the test moves the
+     * ghosts itself.
+     */
+    private List<Ghost> ghostsOf(long seed) {
+        Game game = gameFactory.createSinglePlayerGame(parser.parseMap(Lists.newArrayList(
+            "##########",
+            "#G  .  G #",
+            "# ## ## .#",
+            "#G  P   G#",
+            "##########")), pointCalculator);
+        game.setRandomService(new RandomService(seed));
+        game.start();
+        game.stop();
+        games.add(game);
+        return game.getLevel().getBoard().getUnits().unitsOf(Ghost.class);
+    }
+
+    private static List<Long> intervals(Ghost ghost) {
+        List<Long> intervals = new ArrayList<>();
+        for (int i = 0; i < DRAWS; i++) {
+            intervals.add(ghost.getInterval());
+        }
+        return intervals;
+    }
+
+    /**
+     * Every ghost has a stream of its own: drawing from one ghost does not
+     * change what the others draw, and no two ghosts draw the same numbers.
+     */
+    @Test
+    void testEachGhostOwnStream() {
+        List<Ghost> drawn = ghostsOf(7L);
+        List<Ghost> untouched = ghostsOf(7L);
+
+        intervals(drawn.get(0));
+        for (int i = 1; i < drawn.size(); i++) {
+            assertThat(intervals(drawn.get(i))).isEqualTo(intervals(untouched.get(i)));
+        }
+        List<List<Long>> streams = new ArrayList<>();
+        for (Ghost ghost : ghostsOf(7L)) {
+            List<Long> stream = intervals(ghost);
+            assertThat(streams).doesNotContain(stream);
+            streams.add(stream);
+        }
+    }
+
+    /**
+     * Two games with the same seed make the same moves and draw the same
+     * delays between them; another seed does not.
+     */
+    @Test
+    void testSeededGameReplays() {
+        assertThat(play(42L)).isEqualTo(play(42L)).isNotEqualTo(play(43L));
+    }
+
+    /**
+     * Moves every ghost of a seeded game a number of times, recording the
+     * delay it draws and the square it ends up on.
+     */
+    private List<Object> play(long seed) {
+        List<Ghost> ghosts = ghostsOf(seed);
+        List<Object> moves = new ArrayList<>();
+        for (int round = 0; round < DRAWS; round++) {
+            for (Ghost ghost : ghosts) {
+                moves.add(ghost.getInterval());
+                Direction direction = ghost.nextMove();
+                if (direction != null) {
+                    Square destination = ghost.getSquare().getSquareAt(direction);
+                    if (destination.isAccessibleTo(ghost)) {
+                        ghost.occupy(destination);
+                    }
+                }
+                moves.add(ghost.getSquare().getId());
+            }
+        }
+        return moves;
+    }
+}
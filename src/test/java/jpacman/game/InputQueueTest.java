@@ -0,0 +1,134 @@
+package jpacman.game;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+import jpacman.board.Direction;
+import jpacman.level.Player;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that the input queue coalesces the intents of a tick and applies
+ * them when the game drains it.
+ */
+class InputQueueTest {
+
+    private Game game;
+    private Player player;
+    private InputQueue queue;
+
+    /**
+     * Creates a queue that is only drained when the test says so.
+     */
+    @BeforeEach
+    void setUp() {
+        game = mock(Game.class);
+        player = mock(Player.class);
+        queue = new InputQueue(game);
+    }
+
+    /**
+     * Submitting does not move; the move is made on the next tick.
+     */
+    @Test
+    void submitDoesNotMove() {
+        queue.submit(player, Direction.NORTH);
+
+        verify(game, never()).move(player, Direction.NORTH);
+    }
+
+    /**
+     * Intents submitted during a tick coalesce into the latest one.
+     */
+    @Test
+    void latestIntentWins() {
+        queue.submit(player, Direction.NORTH);
+        queue.submit(player, Direction.NORTH);
+        queue.submit(player, Direction.WEST);
+
+        queue.drain();
+
+        verify(game, times(1)).move(player, Direction.WEST);
+        verifyNoMoreInteractions(game);
+        assertThat(queue.getAppliedMoves()).isEqualTo(1L);
+    }
+
+    /**
+     * Every player keeps an intent of its own.
+     */
+    @Test
+    void oneIntentPerPlayer() {
+        Player other = mock(Player.class);
+        queue.submit(player, Direction.EAST);
+        queue.submit(other, Direction.SOUTH);
+
+        queue.drain();
+
+        verify(game).move(player, Direction.EAST);
+        verify(game).move(other, Direction.SOUTH);
+        assertThat(queue.getAppliedMoves()).isEqualTo(2L);
+    }
+
+    /**
+     * Every tick applies the intents submitted since the previous one only.
+     */
+    @Test
+    void eachTickAppliesItsOwnIntents() {
+        queue.submit(player, Direction.NORTH);
+        queue.drain();
+        queue.drain();
+        queue.submit(player, Direction.SOUTH);
+        queue.drain();
+
+        verify(game, times(1)).move(player, Direction.NORTH);
+        verify(game, times(1)).move(player, Direction.SOUTH);
+        assertThat(queue.getAppliedMoves()).isEqualTo(2L);
+    }
+
+    /**
+     * Cleared intents are never applied.
+     */
+    @Test
+    void clearedIntentsAreDropped() {
+        queue.submit(player, Direction.NORTH);
+        queue.clear();
+        queue.drain();
+
+        verifyNoMoreInteractions(game);
+    }
+
+    /**
+     * The latency of applied moves is measured.
+     */
+    @Test
+    void latencyIsMeasured() throws InterruptedException {
+        assertThat(queue.getMeanLatency()).isZero();
+        queue.submit(player, Direction.NORTH);
+        Thread.sleep(5);
+        queue.drain();
+
+        assertThat(queue.getLastLatency()).isGreaterThanOrEqualTo(5_000_000L);
+        assertThat(queue.getMaxLatency()).isEqualTo(queue.getLastLatency());
+        assertThat(queue.getMeanLatency()).isEqualTo(queue.getLastLatency());
+    }
+
+    /**
+     * A closed queue drops its pending intents and ignores new ones.
+     */
+    @Test
+    void closedQueueIgnoresIntents() {
+        queue.submit(player, Direction.NORTH);
+        queue.close();
+        queue.drain();
+        queue.submit(player, Direction.SOUTH);
+        queue.drain();
+
+        verifyNoMoreInteractions(game);
+        assertThat(queue.isClosed()).isTrue();
+    }
+}
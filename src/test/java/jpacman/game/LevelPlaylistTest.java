@@ -0,0 +1,108 @@
+package jpacman.game;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import jpacman.PacmanConfigurationException;
+import jpacman.level.Level;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that playlists load every level once, the next one in the background.
+ */
+class LevelPlaylistTest {
+
+    private List<Level> levels;
+    private List<Integer> loads;
+    private List<Runnable> tasks;
+    private LevelPlaylist playlist;
+
+    /**
+     * Creates a playlist of three mocked levels whose background loads only
+     * run when the test says so.
+     */
+    @BeforeEach
+    void setUp() {
+        levels = new ArrayList<>();
+        loads = new ArrayList<>();
+        tasks = new ArrayList<>();
+        List<Supplier<Level>> loaders = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            int index = i;
+            levels.add(mock(Level.class));
+            loaders.add(() -> {
+                loads.add(index);
+                return levels.get(index);
+            });
+        }
+        playlist = new LevelPlaylist(loaders, tasks::add);
+    }
+
+    /**
+     * Only the first level is loaded right away; the second one is loaded in
+     * the background.
+     */
+    @Test
+    void nextLevelIsPrefetched() {
+        assertThat(playlist.get(0)).isSameAs(levels.get(0));
+        assertThat(loads).containsExactly(0);
+        assertThat(tasks).hasSize(1);
+
+        tasks.get(0).run();
+
+        assertThat(playlist.isLoaded(1)).isTrue();
+        assertThat(playlist.get(1)).isSameAs(levels.get(1));
+        assertThat(loads).containsExactly(0, 1);
+    }
+
+    /**
+     * Nothing is loaded past the last level.
+     */
+    @Test
+    void lastLevelPrefetchesNothing() {
+        playlist.get(0);
+        tasks.get(0).run();
+        playlist.get(1);
+        tasks.get(1).run();
+        playlist.get(2);
+
+        assertThat(tasks).hasSize(2);
+        assertThat(playlist.getLoaded()).containsExactlyElementsOf(levels);
+    }
+
+    /**
+     * Closing closes the loaded levels and the ones still being loaded.
+     */
+    @Test
+    void closeClosesPendingLevels() {
+        playlist.get(0);
+        playlist.close();
+        tasks.get(0).run();
+
+        verify(levels.get(0)).close();
+        verify(levels.get(1)).close();
+    }
+
+    /**
+     * A level that could not be loaded reports why.
+     */
+    @Test
+    void failedLoadIsRethrown() {
+        List<Supplier<Level>> loaders = new ArrayList<>();
+        loaders.add(() -> {
+            throw new PacmanConfigurationException("broken");
+        });
+        LevelPlaylist broken = new LevelPlaylist(loaders, tasks::add);
+
+        assertThatThrownBy(() -> broken.get(0))
+            .isInstanceOf(PacmanConfigurationException.class)
+            .hasMessage("broken");
+    }
+}
@@ -119,4 +119,26 @@ public class MultiLevelGameTest extends GameTest {
         final int levelsWon = 4;
         Mockito.verify(levelObserver, Mockito.times(levelsWon)).levelWon();
     }
+
+    /**
+     * Games can have fewer levels than before, and stop after the last one.
+     */
+    @Test
+    void testWinTwoLevels() {
+        String[] maps = {"/sampleMap.txt", "/sampleMap.txt"};
+        init(maps);
+
+        Launcher launcher = getLauncher();
+        launcher.launch();
+        Game game = launcher.getGame();
+
+        startGameAgain(game);
+        game.move(player, Direction.EAST);
+        startGameAgain(game);
+        game.move(player, Direction.EAST);
+
+        startGameAgain(game);
+        assertThat(game.isInProgress()).isFalse();
+        Mockito.verify(levelObserver, Mockito.times(2)).levelWon();
+    }
 }
@@ -0,0 +1,171 @@
+package jpacman.level;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import jpacman.PacmanConfigurationException;
+import jpacman.board.Board;
+import jpacman.board.BoardFactory;
+import jpacman.board.Square;
+import jpacman.board.Unit;
+import jpacman.npc.ghost.GhostFactory;
+import jpacman.points.DefaultPointCalculator;
+import jpacman.sprite.PacManSprites;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that maps converted to the binary format load as the same levels.
+ */
+class BinaryMapFormatTest {
+
+    private static final PacManSprites SPRITES = new PacManSprites();
+
+    private static final String[] MAPS = {
+        "/board.txt",
+        "/map_scenario2-1.txt",
+        "/map_scenario2-2.txt",
+        "/map_scenario2-3.txt",
+        "/map_scenario2-4.txt",
+        "/map_scenario2-5.txt"
+    };
+
+    private MapParser parser;
+
+    /**
+     * Creates a parser with real factories.
+     */
+    @BeforeEach
+    void setUp() {
+        parser = new MapParser(
+            new LevelFactory(SPRITES, new GhostFactory(SPRITES), new DefaultPointCalculator()),
+            new BoardFactory(SPRITES));
+    }
+
+    /**
+     * Encoding and decoding gives back the text of every map.
+     *
+     * @throws IOException
+     *             when a map could not be read.
+     */
+    @Test
+    void roundTripKeepsMaps() throws IOException {
+        for (String name : MAPS) {
+            LevelTemplate text = parser.readTemplate(name);
+            LevelTemplate binary = BinaryMapFormat.decode(name, BinaryMapFormat.encode(text));
+
+            assertThat(binary.getWidth()).as(name).isEqualTo(text.getWidth());
+            assertThat(binary.getHeight()).as(name).isEqualTo(text.getHeight());
+            for (int x = 0; x < text.getWidth(); x++) {
+                for (int y = 0; y < text.getHeight(); y++) {
+                    assertThat(binary.getCell(x, y)).as(name + " at " + x + "," + y)
+                        .isEqualTo(text.getCell(x, y));
+                }
+            }
+        }
+    }
+
+    /**
+     * A converted file loads as the level the text map gives.
+     *
+     * @throws IOException
+     *             when a map could not be read or written.
+     */
+    @Test
+    void convertedFileLoadsSameLevel() throws IOException {
+        for (String name : MAPS) {
+            LevelTemplate text = parser.readTemplate(name);
+            Path file = Files.createTempFile("map", ".jpm");
+            try {
+                BinaryMapFormat.write(text, file);
+                Level expected = parser.parseMap(text);
+                Level actual = parser.parseBinaryMap(file);
+
+                assertSameBoard(name, expected.getBoard(), actual.getBoard());
+                assertThat(actual.remainingPellets()).as(name)
+                    .isEqualTo(expected.remainingPellets());
+            } finally {
+                Files.delete(file);
+            }
+        }
+    }
+
+    /**
+     * Pellets take a byte each when they are close together, so the board
+     * is smaller than its text.
+     *
+     * @throws IOException
+     *             when the map could not be read.
+     */
+    @Test
+    void boardIsCompact() throws IOException {
+        LevelTemplate board = parser.readTemplate("/board.txt");
+
+        assertThat(BinaryMapFormat.encode(board).remaining())
+            .isLessThan(board.getWidth() * board.getHeight());
+    }
+
+    /**
+     * Other data, other versions and cut off maps are rejected.
+     */
+    @Test
+    void invalidMapsAreRejected() {
+        ByteBuffer map = BinaryMapFormat.encode(
+            parser.parseTemplate("map", ByteBuffer.wrap("#P..".getBytes())));
+
+        assertThatThrownBy(() -> parser.parseBinaryMap(ByteBuffer.wrap("#P..".getBytes())))
+            .isInstanceOf(PacmanConfigurationException.class)
+            .hasMessage("Not a binary map.");
+        ByteBuffer truncated = map.duplicate();
+        truncated.limit(truncated.limit() - 1);
+        assertThatThrownBy(() -> parser.parseBinaryMap(truncated))
+            .isInstanceOf(PacmanConfigurationException.class)
+            .hasMessage("Binary map is truncated.");
+        map.putInt(Integer.BYTES, BinaryMapFormat.VERSION + 1);
+        assertThatThrownBy(() -> parser.parseBinaryMap(map))
+            .isInstanceOf(PacmanConfigurationException.class)
+            .hasMessage("Unsupported binary map version: 2");
+    }
+
+    /**
+     * Units on walls are rejected.
+     */
+    @Test
+    void unitOnWallIsRejected() {
+        ByteBuffer map = BinaryMapFormat.encode(
+            parser.parseTemplate("map", ByteBuffer.wrap("#P..".getBytes())));
+        map.putInt(BinaryMapFormat.HEADER_BYTES + 1, 0);
+
+        assertThatThrownBy(() -> parser.parseBinaryMap(map))
+            .isInstanceOf(PacmanConfigurationException.class)
+            .hasMessage("Invalid square in binary map: 0");
+    }
+
+    private static List<Class<?>> classesOf(Square square) {
+        List<Class<?>> classes = new ArrayList<>();
+        for (Unit unit : square.getOccupants()) {
+            classes.add(unit.getClass());
+        }
+        return classes;
+    }
+
+    private static void assertSameBoard(String name, Board expected, Board actual) {
+        assertThat(actual.getWidth()).as(name).isEqualTo(expected.getWidth());
+        assertThat(actual.getHeight()).as(name).isEqualTo(expected.getHeight());
+        for (int x = 0; x < expected.getWidth(); x++) {
+            for (int y = 0; y < expected.getHeight(); y++) {
+                assertThat(actual.squareAt(x, y).getSprite()).as(name + " at " + x + "," + y)
+                    .isSameAs(expected.squareAt(x, y).getSprite());
+                assertThat(classesOf(actual.squareAt(x, y))).as(name + " at " + x + "," + y)
+                    .isEqualTo(classesOf(expected.squareAt(x, y)));
+            }
+        }
+    }
+}
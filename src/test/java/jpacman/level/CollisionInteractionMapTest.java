@@ -0,0 +1,97 @@
+package jpacman.level;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import jpacman.board.Unit;
+import jpacman.sprite.Sprite;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the dispatch of the {@link CollisionInteractionMap}.
+ */
+class CollisionInteractionMapTest {
+
+    private CollisionInteractionMap map;
+    private List<String> handled;
+
+    /**
+     * Creates an empty map and log of handled collisions.
+     */
+    @BeforeEach
+    void setUp() {
+        map = new CollisionInteractionMap();
+        handled = new ArrayList<>();
+    }
+
+    /**
+     * A handler registered for a superclass handles its subclasses, also
+     * when the collision is repeated.
+     */
+    @Test
+    void testSuperclassFallback() {
+        map.onCollision(Animal.class, Food.class, (animal, food) -> handled.add("animal"));
+
+        map.collide(new Dog(), new Food());
+        map.collide(new Dog(), new Food());
+        map.collide(new Food(), new Dog());
+
+        assertThat(handled).containsExactly("animal", "animal", "animal");
+    }
+
+    /**
+     * A more specific handler added after a collision was cached takes over.
+     */
+    @Test
+    void testHandlerAddedLater() {
+        map.onCollision(Animal.class, Food.class, (animal, food) -> handled.add("animal"));
+        map.collide(new Dog(), new Food());
+
+        map.onCollision(Dog.class, Food.class, (dog, food) -> handled.add("dog"));
+        map.collide(new Dog(), new Food());
+
+        assertThat(handled).containsExactly("animal", "dog");
+    }
+
+    /**
+     * Pairs without a handler are ignored.
+     */
+    @Test
+    void testNoHandler() {
+        map.onCollision(Dog.class, Food.class, false, (dog, food) -> handled.add("dog"));
+
+        map.collide(new Food(), new Dog());
+        map.collide(new Food(), new Dog());
+
+        assertThat(handled).isEmpty();
+    }
+
+    /**
+     * A unit without a sprite.
+     */
+    private static class Food extends Unit {
+        @Override
+        public Sprite getSprite() {
+            return null;
+        }
+    }
+
+    /**
+     * A unit without a sprite with a subclass.
+     */
+    private static class Animal extends Unit {
+        @Override
+        public Sprite getSprite() {
+            return null;
+        }
+    }
+
+    /**
+     * A subclass of {@link Animal}.
+     */
+    private static class Dog extends Animal {
+    }
+}
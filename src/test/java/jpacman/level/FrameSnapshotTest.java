@@ -0,0 +1,191 @@
+package jpacman.level;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import jpacman.board.BoardFactory;
+import jpacman.board.Direction;
+import jpacman.npc.ghost.GhostFactory;
+import jpacman.points.DefaultPointCalculator;
+import jpacman.sprite.PacManSprites;
+import org.assertj.core.util.Lists;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that levels publish snapshots of their board after every tick.
+ */
+class FrameSnapshotTest {
+
+    private static final PacManSprites SPRITES = new PacManSprites();
+
+    private Level level;
+    private Player player;
+
+    /**
+     * Creates a level with a player, a pellet and no ghosts.
+     */
+    @BeforeEach
+    void setUp() {
+        DefaultPointCalculator pointCalculator = new DefaultPointCalculator();
+        MapParser parser = new MapParser(
+            new LevelFactory(SPRITES, new GhostFactory(SPRITES), pointCalculator),
+            new BoardFactory(SPRITES));
+        level = parser.parseMap(Lists.newArrayList(
+            "#####",
+            "#P..#",
+            "#####"));
+        player = new PlayerFactory(SPRITES).createPacMan();
+        level.registerPlayer(player);
+    }
+
+    /**
+     * The snapshot lists the terrain and the units in row-major order.
+     */
+    @Test
+    void capturesBoard() {
+        FrameSnapshot frame = level.getSnapshot();
+
+        assertThat(frame.getWidth()).isEqualTo(5);
+        assertThat(frame.getHeight()).isEqualTo(3);
+        assertThat(frame.getTerrain(0, 0)).isSameAs(SPRITES.getWallSprite());
+        assertThat(frame.getTerrainId(4, 2)).isEqualTo(frame.getTerrainId(0, 0))
+            .isNotEqualTo(frame.getTerrainId(1, 1));
+        assertThat(frame.getUnitCount()).isEqualTo(3);
+        assertThat(frame.getUnitX(0)).isEqualTo(1);
+        assertThat(frame.getUnitY(0)).isEqualTo(1);
+        assertThat(frame.getUnitSprite(0)).isSameAs(player.getSprite());
+        assertThat(frame.getUnitX(2)).isEqualTo(3);
+        assertThat(frame.getPlayerCount()).isEqualTo(1);
+        assertThat(frame.isAlive(0)).isTrue();
+    }
+
+    /**
+     * Sprites are referred to by ids in a table shared by all snapshots of
+     * the level.
+     */
+    @Test
+    void spritesHaveIds() {
+        FrameSnapshot frame = level.getSnapshot();
+        SpriteTable sprites = frame.getSprites();
+
+        assertThat(sprites.getSprite(frame.getTerrainId(0, 0))).isSameAs(SPRITES.getWallSprite());
+        assertThat(sprites.getSprite(frame.getUnitSpriteId(0))).isSameAs(player.getSprite());
+        assertThat(frame.getUnitSpriteId(1)).isEqualTo(frame.getUnitSpriteId(2))
+            .isNotEqualTo(frame.getUnitSpriteId(0));
+        assertThat(sprites.size()).isEqualTo(4);
+
+        level.start();
+        level.move(player, Direction.EAST);
+        level.publishFrame();
+        assertThat(level.getSnapshot().getSprites()).isSameAs(sprites);
+    }
+
+    /**
+     * Moves are published with the tick, not one by one.
+     */
+    @Test
+    void tickPublishesItsMoves() {
+        FrameSnapshot before = level.getSnapshot();
+        level.start();
+        level.move(player, Direction.EAST);
+        level.move(player, Direction.EAST);
+        assertThat(level.getSnapshot()).isSameAs(before);
+
+        level.publishFrame();
+
+        FrameSnapshot after = level.getSnapshot();
+        assertThat(after.getSequence()).isEqualTo(before.getSequence() + 1);
+        assertThat(after.getUnitCount()).isEqualTo(1);
+        assertThat(after.getUnitX(0)).isEqualTo(3);
+    }
+
+    /**
+     * A tick publishes a new snapshot and leaves the old one untouched.
+     */
+    @Test
+    void tickReplacesSnapshot() {
+        FrameSnapshot before = level.getSnapshot();
+        level.start();
+        level.move(player, Direction.EAST);
+        level.publishFrame();
+        FrameSnapshot after = level.getSnapshot();
+
+        assertThat(after.getSequence()).isGreaterThan(before.getSequence());
+        assertThat(before.getUnitCount()).isEqualTo(3);
+        assertThat(before.getUnitX(0)).isEqualTo(1);
+        assertThat(after.getUnitCount()).isEqualTo(2);
+        assertThat(after.getUnitX(0)).isEqualTo(2);
+        assertThat(after.getUnitDirection(0)).isEqualTo(Direction.EAST);
+        assertThat(after.getScore(0)).isEqualTo(player.getScore()).isPositive();
+    }
+
+    /**
+     * Frame observers are told which squares changed in a tick.
+     */
+    @Test
+    void observersSeeChangedSquares() {
+        List<BitSet> changes = new ArrayList<>();
+        level.addFrameObserver((frame, changed) -> changes.add((BitSet) changed.clone()));
+        level.getSnapshot();
+        level.start();
+
+        level.move(player, Direction.EAST);
+        level.publishFrame();
+
+        assertThat(changes).hasSize(1);
+        assertThat(changes.get(0).stream().toArray()).containsExactly(
+            level.getBoard().idOf(1, 1), level.getBoard().idOf(2, 1));
+    }
+
+    /**
+     * Moving into a wall without turning changes nothing, so no snapshot is
+     * published.
+     */
+    @Test
+    void idleMovePublishesNothing() {
+        level.start();
+        level.move(player, Direction.NORTH);
+        FrameSnapshot before = level.getSnapshot();
+
+        level.move(player, Direction.NORTH);
+        level.publishFrame();
+
+        assertThat(level.getSnapshot()).isSameAs(before);
+    }
+
+    /**
+     * Snapshots made from the squares that changed show the same board as a
+     * capture of the whole board, also after the player died.
+     */
+    @Test
+    void changedSquaresGiveFullPicture() {
+        level.getSnapshot();
+        level.start();
+        level.move(player, Direction.EAST);
+        level.publishFrame();
+        level.move(player, Direction.WEST);
+        level.publishFrame();
+        player.setAlive(false);
+        level.move(player, Direction.NORTH);
+        level.publishFrame();
+
+        FrameSnapshot frame = level.getSnapshot();
+        SpriteTable sprites = frame.getSprites();
+        FrameSnapshot full = FrameSnapshot.capture(frame.getSequence(), level.getBoard(),
+            FrameSnapshot.terrainOf(level.getBoard(), sprites), sprites, level.getPlayers());
+
+        assertThat(frame.getUnitCount()).isEqualTo(full.getUnitCount()).isEqualTo(2);
+        for (int i = 0; i < full.getUnitCount(); i++) {
+            assertThat(frame.getUnitX(i)).isEqualTo(full.getUnitX(i));
+            assertThat(frame.getUnitY(i)).isEqualTo(full.getUnitY(i));
+            assertThat(frame.getUnitDirection(i)).isEqualTo(full.getUnitDirection(i));
+            assertThat(frame.getUnitSpriteId(i)).isEqualTo(full.getUnitSpriteId(i));
+        }
+        assertThat(frame.getUnitSprite(0)).isSameAs(player.getSprite());
+        assertThat(frame.isAlive(0)).isFalse();
+    }
+}
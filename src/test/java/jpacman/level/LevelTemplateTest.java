@@ -0,0 +1,169 @@
+package jpacman.level;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import jpacman.PacmanConfigurationException;
+import jpacman.board.Board;
+import jpacman.board.BoardFactory;
+import jpacman.board.Direction;
+import jpacman.npc.Ghost;
+import jpacman.npc.ghost.DistanceOracle;
+import jpacman.npc.ghost.GhostFactory;
+import jpacman.points.DefaultPointCalculator;
+import jpacman.sprite.PacManSprites;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that levels made from one template are equal but independent.
+ */
+class LevelTemplateTest {
+
+    private static final PacManSprites SPRITES = new PacManSprites();
+
+    private static final String MAP = "#####\n#P.G#\n# ..#\n#####\n";
+
+    private MapParser parser;
+    private LevelTemplate template;
+
+    /**
+     * Reads the map into a template.
+     */
+    @BeforeEach
+    void setUp() {
+        parser = new MapParser(
+            new LevelFactory(SPRITES, new GhostFactory(SPRITES), new DefaultPointCalculator()),
+            new BoardFactory(SPRITES));
+        template = parser.parseTemplate("map",
+            ByteBuffer.wrap(MAP.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    /**
+     * The template holds the characters of the map.
+     */
+    @Test
+    void holdsMap() {
+        assertThat(template.getName()).isEqualTo("map");
+        assertThat(template.getWidth()).isEqualTo(5);
+        assertThat(template.getHeight()).isEqualTo(4);
+        assertThat(template.getCell(3, 1)).isEqualTo('G');
+        assertThat(template.count('.')).isEqualTo(3);
+    }
+
+    /**
+     * Every level gets squares and units of its own, so playing one level
+     * does not change another.
+     */
+    @Test
+    void levelsAreIndependent() {
+        Level first = parser.parseMap(template);
+        Level second = parser.parseMap(template);
+        Player player = new PlayerFactory(SPRITES).createPacMan();
+        first.registerPlayer(player);
+        first.start();
+
+        first.move(player, Direction.EAST);
+
+        assertThat(first.getBoard()).isNotSameAs(second.getBoard());
+        assertThat(first.remainingPellets()).isEqualTo(2);
+        assertThat(second.remainingPellets()).isEqualTo(3);
+        first.stop();
+    }
+
+    /**
+     * Later levels answer distances from the table of the first one, and
+     * get the same type of ghost.
+     */
+    @Test
+    void levelsShareDistanceTable() {
+        Ghost first = ghostOf(parser.parseMap(template));
+        first.getDistanceOracle().build();
+        Level level = parser.parseMap(template);
+        Ghost second = ghostOf(level);
+        Board board = level.getBoard();
+
+        DistanceOracle oracle = second.getDistanceOracle();
+        assertThat(second.getClass()).isEqualTo(first.getClass());
+        assertThat(oracle).isNotSameAs(first.getDistanceOracle());
+        assertThat(oracle.getTable()).isSameAs(first.getDistanceOracle().getTable());
+        assertThat(oracle.isReady()).isTrue();
+        assertThat(oracle.distance(board.squareAt(1, 1), board.squareAt(3, 2))).isEqualTo(3);
+    }
+
+    /**
+     * Maps loaded by name give a new level every time.
+     *
+     * @throws IOException
+     *             when the map could not be read.
+     */
+    @Test
+    void namedMapsMakeNewLevels() throws IOException {
+        Level first = parser.parseMap("/simpleMap.txt");
+        Level second = parser.parseMap("/simpleMap.txt");
+
+        assertThat(second).isNotSameAs(first);
+        assertThat(second.getBoard().getWidth()).isEqualTo(first.getBoard().getWidth());
+    }
+
+    /**
+     * Unsupported characters are reported when a level is made.
+     */
+    @Test
+    void invalidCharacterIsReported() {
+        LevelTemplate invalid = parser.parseTemplate("invalid",
+            ByteBuffer.wrap("#x#".getBytes(StandardCharsets.US_ASCII)));
+
+        assertThatThrownBy(() -> parser.parseMap(invalid))
+            .isInstanceOf(PacmanConfigurationException.class)
+            .hasMessage("Invalid character at 1,0: x");
+    }
+
+    /**
+     * Levels made by several threads at once still get their ghost types in
+     * map order, since the parser makes one level at a time.
+     *
+     * @throws Exception
+     *             when a level could not be made.
+     */
+    @Test
+    void levelsFromManyThreads() throws Exception {
+        LevelTemplate ghosts = parser.parseTemplate("ghosts",
+            ByteBuffer.wrap("#GGGGP#".getBytes(StandardCharsets.US_ASCII)));
+        List<Class<?>> expected = ghostTypes(parser.parseMap(ghosts));
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<List<Class<?>>>> levels = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                levels.add(pool.submit(() -> ghostTypes(parser.parseMap(ghosts))));
+            }
+            for (Future<List<Class<?>>> level : levels) {
+                assertThat(level.get()).isEqualTo(expected);
+            }
+        } finally {
+            pool.shutdown();
+        }
+        assertThat(expected).hasSize(4).doesNotHaveDuplicates();
+    }
+
+    private static List<Class<?>> ghostTypes(Level level) {
+        List<Class<?>> types = new ArrayList<>();
+        for (Ghost ghost : level.getGhosts()) {
+            types.add(ghost.getClass());
+        }
+        return types;
+    }
+
+    private static Ghost ghostOf(Level level) {
+        return (Ghost) level.getBoard().squareAt(3, 1).getOccupants().get(0);
+    }
+}
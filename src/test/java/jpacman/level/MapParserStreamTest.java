@@ -0,0 +1,205 @@
+package jpacman.level;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import jpacman.PacmanConfigurationException;
+import jpacman.board.Board;
+import jpacman.board.BoardFactory;
+import jpacman.board.Square;
+import jpacman.board.Unit;
+import jpacman.npc.ghost.GhostFactory;
+import jpacman.points.DefaultPointCalculator;
+import jpacman.sprite.PacManSprites;
+import org.assertj.core.util.Lists;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that maps read as bytes give the same levels as maps read as text.
+ */
+class MapParserStreamTest {
+
+    private static final PacManSprites SPRITES = new PacManSprites();
+
+    private static final String[] MAP = {
+        "#####",
+        "#P.G#",
+        "# ..#",
+        "#####"
+    };
+
+    private MapParser parser;
+
+    /**
+     * Creates a parser with the default factories.
+     */
+    @BeforeEach
+    void setUp() {
+        parser = newParser();
+    }
+
+    /**
+     * A map read from a stream, with or without carriage returns and a final
+     * line feed, equals the map read as text.
+     */
+    @Test
+    void streamMatchesText() throws IOException {
+        Board expected = newParser().parseMap(Lists.newArrayList(MAP)).getBoard();
+
+        assertSameBoard(parse(String.join("\n", MAP)), expected);
+        assertSameBoard(parse(String.join("\r\n", MAP) + "\r\n"), expected);
+    }
+
+    /**
+     * A stream that hands out a few bytes at a time, splitting rows and line
+     * ends, gives the same board as the text, also when the map has more rows
+     * than the first bytes suggest.
+     *
+     * @throws IOException
+     *             never, the map is read from memory.
+     */
+    @Test
+    void streamInSmallReads() throws IOException {
+        List<String> rows = new ArrayList<>();
+        for (int y = 0; y < 400; y++) {
+            rows.add(y % 2 == 0 ? "#. .#. P#" : "# .G.. .#");
+        }
+        byte[] bytes = String.join("\r\n", rows).getBytes(StandardCharsets.US_ASCII);
+        InputStream trickle = new ByteArrayInputStream(bytes) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                return super.read(b, off, Math.min(len, 3));
+            }
+        };
+
+        assertSameBoard(newParser().parseMap(trickle).getBoard(),
+            newParser().parseMap(rows).getBoard());
+    }
+
+    /**
+     * A memory mapped file equals the map read as text.
+     */
+    @Test
+    void fileMatchesText() throws IOException {
+        Path file = Files.createTempFile("map", ".txt");
+        try {
+            Files.write(file, String.join("\n", MAP).getBytes(StandardCharsets.US_ASCII));
+
+            assertSameBoard(newParser().parseMap(file).getBoard(),
+                newParser().parseMap(Lists.newArrayList(MAP)).getBoard());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    /**
+     * Squares are made row by row, but the ghosts and start positions are
+     * still listed column by column, as for a map read as text.
+     *
+     * @throws IOException
+     *             never, the map is read from memory.
+     */
+    @Test
+    void unitsInColumnOrder() throws IOException {
+        String[] map = {
+            "#######",
+            "#G. P #",
+            "#P  G.#",
+            "# G  G#",
+            "#######"
+        };
+        Level expected = newParser().parseMap(Lists.newArrayList(map));
+        Level actual = newParser().parseMap(new ByteArrayInputStream(
+            String.join("\n", map).getBytes(StandardCharsets.US_ASCII)));
+
+        assertThat(actual.getGhosts()).hasSameSizeAs(expected.getGhosts());
+        for (int i = 0; i < expected.getGhosts().size(); i++) {
+            assertThat(actual.getGhosts().get(i).getClass())
+                .isEqualTo(expected.getGhosts().get(i).getClass());
+            assertThat(actual.getGhosts().get(i).getSquare().getId())
+                .isEqualTo(expected.getGhosts().get(i).getSquare().getId());
+        }
+        PlayerFactory players = new PlayerFactory(SPRITES);
+        for (int i = 0; i < 2; i++) {
+            Player first = players.createPacMan();
+            Player second = players.createPacMan();
+            expected.registerPlayer(first);
+            actual.registerPlayer(second);
+            assertThat(second.getSquare().getId()).isEqualTo(first.getSquare().getId());
+        }
+    }
+
+    /**
+     * Rows of another width are reported with their row number.
+     */
+    @Test
+    void unequalRows() {
+        assertThatThrownBy(() -> parse("###\n#P\n###"))
+            .isInstanceOf(PacmanConfigurationException.class)
+            .hasMessageContaining("row 1 has 2 squares, expected 3");
+        assertThatThrownBy(() -> parse("###\n#P.#\n###"))
+            .isInstanceOf(PacmanConfigurationException.class)
+            .hasMessageContaining("row 1 has 4 squares, expected 3");
+    }
+
+    /**
+     * Unsupported characters are reported with their position.
+     */
+    @Test
+    void invalidCharacter() {
+        assertThatThrownBy(() -> parse("###\n#Px\n###"))
+            .isInstanceOf(PacmanConfigurationException.class)
+            .hasMessage("Invalid character at 2,1: x");
+    }
+
+    /**
+     * Empty maps are rejected.
+     */
+    @Test
+    void emptyMap() {
+        assertThatThrownBy(() -> parser.parseMap(ByteBuffer.allocate(0)))
+            .isInstanceOf(PacmanConfigurationException.class);
+    }
+
+    /**
+     * Creates a parser of its own, so that every map starts the cycle of
+     * ghost types at the same ghost.
+     */
+    private static MapParser newParser() {
+        return new MapParser(
+            new LevelFactory(SPRITES, new GhostFactory(SPRITES), new DefaultPointCalculator()),
+            new BoardFactory(SPRITES));
+    }
+
+    private Board parse(String text) throws IOException {
+        return newParser().parseMap(new ByteArrayInputStream(
+            text.getBytes(StandardCharsets.US_ASCII))).getBoard();
+    }
+
+    private static void assertSameBoard(Board actual, Board expected) {
+        assertThat(actual.getWidth()).isEqualTo(expected.getWidth());
+        assertThat(actual.getHeight()).isEqualTo(expected.getHeight());
+        for (int y = 0; y < expected.getHeight(); y++) {
+            for (int x = 0; x < expected.getWidth(); x++) {
+                Square square = actual.squareAt(x, y);
+                Square other = expected.squareAt(x, y);
+                assertThat(square.getClass()).isEqualTo(other.getClass());
+                assertThat(square.occupantCount()).isEqualTo(other.occupantCount());
+                for (Unit unit : other.getOccupants()) {
+                    assertThat(square.hasOccupantOfType(unit.getClass())).isTrue();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package jpacman.level;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import jpacman.PacmanConfigurationException;
+import jpacman.board.BoardFactory;
+import jpacman.npc.ghost.GhostFactory;
+import jpacman.points.DefaultPointCalculator;
+import jpacman.sprite.PacManSprites;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that generated mazes are repeatable, connected and playable.
+ */
+class MazeGeneratorTest {
+
+    private static final PacManSprites SPRITES = new PacManSprites();
+
+    /**
+     * The same seed and settings give the same maze.
+     *
+     * @throws IOException
+     *             never, the maze is written to memory.
+     */
+    @Test
+    void sameSeedSameMaze() throws IOException {
+        assertThat(text(new MazeGenerator(7).withSize(41, 25).generate()))
+            .isEqualTo(text(new MazeGenerator(7).withSize(41, 25).generate()))
+            .isNotEqualTo(text(new MazeGenerator(8).withSize(41, 25).generate()));
+    }
+
+    /**
+     * Mazes without extra corridors still connect every ground square.
+     */
+    @Test
+    void groundIsConnected() {
+        LevelTemplate maze = new MazeGenerator(3).withSize(51, 37)
+            .withCorridorDensity(0.0).generate();
+
+        int width = maze.getWidth();
+        int ground = maze.getWidth() * maze.getHeight() - maze.count('#');
+        boolean[] seen = new boolean[width * maze.getHeight()];
+        Deque<Integer> queue = new ArrayDeque<>();
+        queue.add(width + 1);
+        seen[width + 1] = true;
+        int reached = 0;
+        while (!queue.isEmpty()) {
+            int id = queue.poll();
+            reached++;
+            for (int next : new int[] {id - 1, id + 1, id - width, id + width}) {
+                if (!seen[next] && maze.getCell(next % width, next / width) != '#') {
+                    seen[next] = true;
+                    queue.add(next);
+                }
+            }
+        }
+        assertThat(reached).isEqualTo(ground);
+    }
+
+    /**
+     * The requested numbers of ghosts and players are placed, and the maze
+     * is accepted as a text map.
+     *
+     * @throws IOException
+     *             never, the maze is read from memory.
+     */
+    @Test
+    void textIsParsed() throws IOException {
+        LevelTemplate maze = new MazeGenerator(11).withSize(30, 20)
+            .withGhosts(6).withPlayers(2).withPelletDensity(0.5).generate();
+        MapParser parser = new MapParser(
+            new LevelFactory(SPRITES, new GhostFactory(SPRITES), new DefaultPointCalculator()),
+            new BoardFactory(SPRITES));
+
+        Level level = parser.parseMap(new ByteArrayInputStream(text(maze).getBytes("US-ASCII")));
+
+        assertThat(maze.count('G')).isEqualTo(6);
+        assertThat(maze.count('P')).isEqualTo(2);
+        assertThat(level.getBoard().getWidth()).isEqualTo(30);
+        assertThat(level.remainingPellets()).isEqualTo(maze.count('.')).isPositive();
+    }
+
+    /**
+     * Mazes with fewer rooms than units are rejected.
+     */
+    @Test
+    void tooManyUnits() {
+        MazeGenerator generator = new MazeGenerator(1).withSize(5, 5).withGhosts(4);
+
+        assertThatThrownBy(generator::generate)
+            .isInstanceOf(PacmanConfigurationException.class)
+            .hasMessage("A maze of 5x5 has room for 4 units, not 5.");
+    }
+
+    private static String text(LevelTemplate maze) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        MazeGenerator.write(maze, output);
+        return output.toString("US-ASCII");
+    }
+}
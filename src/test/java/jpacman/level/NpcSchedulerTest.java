@@ -0,0 +1,43 @@
+package jpacman.level;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the shared {@link NpcScheduler}.
+ */
+class NpcSchedulerTest {
+
+    /**
+     * The shared scheduler has one worker per processor.
+     */
+    @Test
+    void testSizedToProcessors() {
+        assertThat(NpcScheduler.getShared().getThreadCount())
+            .isEqualTo(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Scheduled tasks run, and cancelled tasks are removed from the schedule.
+     *
+     * @throws InterruptedException
+     *             if the test is interrupted while waiting for the task.
+     */
+    @Test
+    void testScheduleAndCancel() throws InterruptedException {
+        NpcScheduler scheduler = new NpcScheduler(1);
+        CountDownLatch ran = new CountDownLatch(1);
+        scheduler.schedule(ran::countDown, 0L);
+        assertThat(ran.await(1, TimeUnit.SECONDS)).isTrue();
+
+        ScheduledFuture<?> pending = scheduler.schedule(() -> { }, TimeUnit.HOURS.toMillis(1));
+        assertThat(scheduler.getPendingTasks()).isEqualTo(1);
+        pending.cancel(false);
+        assertThat(scheduler.getPendingTasks()).isZero();
+    }
+}
@@ -0,0 +1,64 @@
+package jpacman.level;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import jpacman.board.Board;
+import jpacman.board.BoardFactory;
+import jpacman.board.Square;
+import jpacman.sprite.PacManSprites;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that the {@link PelletCounter} follows the pellets on its board.
+ */
+class PelletCounterTest {
+
+    private static final PacManSprites SPRITES = new PacManSprites();
+
+    private Board board;
+    private Pellet first;
+    private Pellet second;
+
+    /**
+     * Creates a board of three squares with a pellet on two of them.
+     */
+    @BeforeEach
+    void setUp() {
+        BoardFactory boardFactory = new BoardFactory(SPRITES);
+        Square[][] grid = new Square[3][1];
+        for (int x = 0; x < grid.length; x++) {
+            grid[x][0] = boardFactory.createGround();
+        }
+        first = new Pellet(10, SPRITES.getPelletSprite());
+        second = new Pellet(10, SPRITES.getPelletSprite());
+        first.occupy(grid[0][0]);
+        second.occupy(grid[1][0]);
+        board = boardFactory.createBoard(grid);
+    }
+
+    /**
+     * The pellets on the board are counted when the counter is created.
+     */
+    @Test
+    void testInitialCount() {
+        PelletCounter counter = new PelletCounter(board);
+        assertThat(counter.getInitial()).isEqualTo(2);
+        assertThat(counter.getRemaining()).isEqualTo(2);
+    }
+
+    /**
+     * Pellets leaving the board are no longer counted.
+     */
+    @Test
+    void testEatenPellets() {
+        PelletCounter counter = new PelletCounter(board);
+        first.leaveSquare();
+        assertThat(counter.getRemaining()).isEqualTo(1);
+        first.leaveSquare();
+        assertThat(counter.getRemaining()).isEqualTo(1);
+        second.leaveSquare();
+        assertThat(counter.getRemaining()).isZero();
+        assertThat(counter.getInitial()).isEqualTo(2);
+    }
+}
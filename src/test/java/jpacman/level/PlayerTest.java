@@ -0,0 +1,81 @@
+package jpacman.level;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import jpacman.sprite.PacManSprites;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that players tell their observers when their score or life changes.
+ */
+class PlayerTest {
+
+    private static final PacManSprites SPRITES = new PacManSprites();
+
+    private Player player;
+    private List<Player> changes;
+
+    /**
+     * Creates a player with an observer that records its notifications.
+     */
+    @BeforeEach
+    void setUp() {
+        player = new PlayerFactory(SPRITES).createPacMan();
+        changes = new ArrayList<>();
+        player.addObserver(changes::add);
+    }
+
+    /**
+     * Scoring points is reported, scoring nothing is not.
+     */
+    @Test
+    void pointsAreReported() {
+        player.addPoints(10);
+        player.addPoints(0);
+
+        assertThat(changes).containsExactly(player);
+        assertThat(player.getScore()).isEqualTo(10);
+    }
+
+    /**
+     * Dying is reported once.
+     */
+    @Test
+    void deathIsReported() {
+        player.setAlive(false);
+        player.setAlive(false);
+
+        assertThat(changes).containsExactly(player);
+    }
+
+    /**
+     * Removed observers are no longer notified.
+     */
+    @Test
+    void removedObserverIsNotNotified() {
+        PlayerObserverRecorder recorder = new PlayerObserverRecorder();
+        player.addObserver(recorder);
+        player.removeObserver(recorder);
+
+        player.addPoints(10);
+
+        assertThat(recorder.count).isZero();
+    }
+
+    /**
+     * Counts its notifications.
+     */
+    private static final class PlayerObserverRecorder implements Player.PlayerObserver {
+
+        private int count;
+
+        @Override
+        public void playerChanged(Player changed) {
+            count++;
+        }
+    }
+}
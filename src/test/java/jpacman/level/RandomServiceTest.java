@@ -0,0 +1,45 @@
+package jpacman.level;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the streams split off by the {@link RandomService}.
+ */
+class RandomServiceTest {
+
+    private static final int DRAWS = 16;
+
+    private static long[] draw(SplittableRandom random) {
+        long[] numbers = new long[DRAWS];
+        for (int i = 0; i < DRAWS; i++) {
+            numbers[i] = random.nextLong();
+        }
+        return numbers;
+    }
+
+    /**
+     * Services with the same seed split off the same streams, in order.
+     */
+    @Test
+    void testSameSeedSameStreams() {
+        RandomService first = new RandomService(7L);
+        RandomService second = new RandomService(first.getSeed());
+
+        for (int stream = 0; stream < 4; stream++) {
+            assertThat(draw(first.split())).isEqualTo(draw(second.split()));
+        }
+    }
+
+    /**
+     * The streams of one service are independent of each other.
+     */
+    @Test
+    void testStreamsDiffer() {
+        RandomService service = new RandomService(7L);
+        assertThat(draw(service.split())).isNotEqualTo(draw(service.split()));
+    }
+}
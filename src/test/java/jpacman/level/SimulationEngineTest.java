@@ -0,0 +1,149 @@
+package jpacman.level;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import jpacman.board.Direction;
+import jpacman.npc.Ghost;
+import jpacman.npc.ghost.GhostFactory;
+import jpacman.board.BoardFactory;
+import jpacman.points.DefaultPointCalculator;
+import jpacman.sprite.PacManSprites;
+import org.assertj.core.util.Lists;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the {@link SimulationEngine} running levels on a logical clock.
+ */
+class SimulationEngineTest {
+
+    private static final PacManSprites SPRITES = new PacManSprites();
+
+    private static final long TICK = 50L;
+
+    private PlayerFactory playerFactory;
+
+    /**
+     * Creates the player factory.
+     */
+    @BeforeEach
+    void setUp() {
+        playerFactory = new PlayerFactory(SPRITES);
+    }
+
+    /**
+     * Parses a level with a parser of its own, so that the ghosts of every
+     * level start the cycle of ghost types at the same ghost.
+     */
+    private Level parse(String... rows) {
+        MapParser parser = new MapParser(
+            new LevelFactory(SPRITES, new GhostFactory(SPRITES), new DefaultPointCalculator()),
+            new BoardFactory(SPRITES));
+        Level level = parser.parseMap(Lists.newArrayList(rows));
+        level.registerPlayer(playerFactory.createPacMan());
+        return level;
+    }
+
+    /**
+     * The simulation stops as soon as the last pellet is eaten.
+     */
+    @Test
+    void testStopsWhenWon() {
+        Level level = parse("######", "#P...#", "######");
+        SimulationEngine engine = new SimulationEngine(level,
+            (player, tick) -> Direction.EAST, TICK, 0L);
+
+        assertThat(engine.run(100L)).isEqualTo(3L);
+        assertThat(level.remainingPellets()).isZero();
+        assertThat(engine.getTime()).isEqualTo(3 * TICK);
+        assertThat(level.isInProgress()).isFalse();
+    }
+
+    /**
+     * The simulated level is headless: its moves publish no snapshots and
+     * its observers are not told it was won.
+     */
+    @Test
+    void testHeadless() {
+        Level level = parse("######", "#P...#", "######");
+        List<String> events = new ArrayList<>();
+        level.addObserver(new Level.LevelObserver() {
+            @Override
+            public void levelWon() {
+                events.add("won");
+            }
+
+            @Override
+            public void levelLost() {
+                events.add("lost");
+            }
+        });
+        long sequence = level.getSnapshot().getSequence();
+
+        new SimulationEngine(level, (player, tick) -> Direction.EAST, TICK, 0L).run(100L);
+
+        assertThat(level.remainingPellets()).isZero();
+        assertThat(level.getSnapshot().getSequence()).isEqualTo(sequence);
+        assertThat(events).isEmpty();
+    }
+
+    /**
+     * Two simulations with the same seed make exactly the same moves.
+     */
+    @Test
+    void testReproducible() {
+        assertThat(simulate(42L, true)).isEqualTo(simulate(42L, true))
+            .isNotEqualTo(simulate(43L, true));
+    }
+
+    /**
+     * Replaying a seed gives the same moves whether or not the ghosts have a
+     * distance oracle, so the outcome does not depend on how far its
+     * background build got.
+     */
+    @Test
+    void testReplayWithoutOracle() {
+        List<Object> withOracle = simulate(7L, true);
+
+        assertThat(simulate(7L, false)).isEqualTo(withOracle);
+    }
+
+    /**
+     * Simulates a level, recording the squares of all units after every tick.
+     */
+    private List<Object> simulate(long seed, boolean oracle) {
+        Level level = parse(
+            "##############################",
+            "#G   .    .    .    .    .  P#",
+            "# ###### ## ###### ## ###### #",
+            "#G.                   .     .#",
+            "# ###### ## ###### ## ###### #",
+            "#G   .    .    .    .    .   #",
+            "##############################");
+        if (!oracle) {
+            for (Ghost ghost : level.getGhosts()) {
+                ghost.setDistanceOracle(null);
+            }
+        }
+        Direction[] directions = Direction.values();
+        List<Object> moves = new ArrayList<>();
+        SimulationEngine engine = new SimulationEngine(level, (player, tick) -> {
+            for (Ghost ghost : level.getGhosts()) {
+                moves.add(ghost.getSquare().getId());
+            }
+            moves.add(player.getSquare().getId());
+            return directions[(int) (tick / 7 % directions.length)];
+        }, TICK, seed);
+        engine.run(1000L);
+
+        moves.add(engine.getTicks());
+        for (Player player : level.getPlayers()) {
+            moves.add(player.isAlive());
+        }
+        assertThat(engine.getTicks()).isGreaterThan(50L);
+        return moves;
+    }
+}
@@ -0,0 +1,157 @@
+package jpacman.npc.ghost;
+
+import jpacman.board.Board;
+import jpacman.board.BoardFactory;
+import jpacman.board.Direction;
+import jpacman.board.Square;
+import jpacman.npc.Ghost;
+import jpacman.sprite.PacManSprites;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests the {@link SearchStrategy#A_STAR} strategy of {@link Navigation}
+ * against the breadth first search.
+ */
+public class AStarSearchTest {
+
+    private static final PacManSprites SPRITES = new PacManSprites();
+
+    private BoardFactory boardFactory;
+    private Ghost traveller;
+
+    /**
+     * Creates the factories and a ghost to walk the board with.
+     */
+    @BeforeEach
+    void setup() {
+        boardFactory = new BoardFactory(SPRITES);
+        traveller = new GhostFactory(SPRITES).createBlinky();
+    }
+
+    private static Square walk(Square from, List<Direction> path) {
+        Square square = from;
+        for (Direction direction : path) {
+            square = square.getSquareAt(direction);
+        }
+        return square;
+    }
+
+    /**
+     * Paths found by A* are as long as the ones found by BFS and lead to the
+     * destination, with and without a traveller.
+     */
+    @Test
+    void testMatchesBreadthFirst() {
+        Board board = TestBoards.createBoard(boardFactory,
+            "#######",
+            "#   # #",
+            "# #   #",
+            "#   # #",
+            "#######");
+        for (int from = 0; from < board.getSquareCount(); from++) {
+            for (int to = 0; to < board.getSquareCount(); to++) {
+                Square start = board.squareById(from);
+                Square end = board.squareById(to);
+                for (Ghost unit : new Ghost[] {traveller, null}) {
+                    List<Direction> expected = Navigation.shortestPath(start, end, unit);
+                    List<Direction> actual = Navigation.shortestPath(start, end, unit,
+                        SearchStrategy.A_STAR);
+                    if (expected == null) {
+                        assertThat(actual).isNull();
+                    } else {
+                        assertThat(actual).hasSameSizeAs(expected);
+                        assertThat(walk(start, actual)).isSameAs(end);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * On an open board A* goes more or less straight for the destination,
+     * while BFS expands at least every square that is closer to the start
+     * than the destination.
+     */
+    @Test
+    void testExpandsFewerThanBreadthFirst() {
+        String[] rows = new String[15];
+        Arrays.fill(rows, "               ");
+        Board board = TestBoards.createBoard(boardFactory, rows);
+        Square from = board.squareAt(2, 7);
+        Square to = board.squareAt(9, 7);
+
+        AStarSearch search = AStarSearch.forCurrentThread();
+        assertThat(search.findPath(from, to, traveller)).isTrue();
+        assertThat(search.pathLength()).isEqualTo(7);
+
+        int closer = 0;
+        for (int id = 0; id < board.getSquareCount(); id++) {
+            if (Navigation.shortestPath(from, board.squareById(id), traveller).size() < 7) {
+                closer++;
+            }
+        }
+        assertThat(search.getExpanded()).isLessThan(closer);
+    }
+
+    /**
+     * The destination being the current square gives an empty path.
+     */
+    @Test
+    void testSameSquare() {
+        Board board = TestBoards.createBoard(boardFactory, "   ");
+        Square square = board.squareAt(1, 0);
+        assertThat(Navigation.shortestPath(square, square, traveller, SearchStrategy.A_STAR))
+            .isEmpty();
+    }
+
+    /**
+     * The heuristic knows the board wraps, so the short way over the edge is
+     * found.
+     */
+    @Test
+    void testWrapsAround() {
+        Board board = TestBoards.createBoard(boardFactory, "      ");
+        List<Direction> path = Navigation.shortestPath(board.squareAt(0, 0),
+            board.squareAt(5, 0), traveller, SearchStrategy.A_STAR);
+        assertThat(path).containsExactly(Direction.WEST);
+    }
+
+    /**
+     * Squares linked by hand without a board have no position, so A* searches
+     * them without an estimate and still finds the shortest path.
+     */
+    @Test
+    void testSquaresWithoutBoard() {
+        Square[] ring = new Square[6];
+        for (int i = 0; i < ring.length; i++) {
+            ring[i] = boardFactory.createGround();
+        }
+        for (int i = 0; i < ring.length; i++) {
+            ring[i].link(ring[(i + 1) % ring.length], Direction.EAST);
+            ring[i].link(ring[(i + ring.length - 1) % ring.length], Direction.WEST);
+            ring[i].link(ring[i], Direction.NORTH);
+            ring[i].link(ring[i], Direction.SOUTH);
+        }
+
+        assertThat(Navigation.shortestPath(ring[1], ring[5], traveller, SearchStrategy.A_STAR))
+            .containsExactly(Direction.WEST, Direction.WEST);
+        assertThat(Navigation.shortestPath(ring[1], ring[1], traveller, SearchStrategy.A_STAR))
+            .isEmpty();
+    }
+
+    /**
+     * A destination behind walls cannot be reached.
+     */
+    @Test
+    void testUnreachable() {
+        Board board = TestBoards.createBoard(boardFactory, "# #  ");
+        assertThat(Navigation.shortestPath(board.squareAt(1, 0), board.squareAt(3, 0),
+            traveller, SearchStrategy.A_STAR)).isNull();
+    }
+}
@@ -0,0 +1,106 @@
+package jpacman.npc.ghost;
+
+import jpacman.board.Board;
+import jpacman.board.BoardFactory;
+import jpacman.board.Direction;
+import jpacman.board.Square;
+import jpacman.npc.Ghost;
+import jpacman.sprite.PacManSprites;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests the distances and first steps of a {@link DistanceField} against the
+ * paths found by {@link Navigation}, computed by the field itself and read
+ * from a distance oracle.
+ */
+public class DistanceFieldTest {
+
+    private static final PacManSprites SPRITES = new PacManSprites();
+
+    private Board board;
+    private Ghost traveller;
+
+    /**
+     * Creates a board with walls, dead ends and a way around the edge, and a
+     * ghost to walk it with.
+     */
+    @BeforeEach
+    void setup() {
+        board = TestBoards.createBoard(new BoardFactory(SPRITES),
+            "#########",
+            "#   #    ",
+            "# #   # #",
+            "    #   #",
+            "## ######");
+        traveller = new GhostFactory(SPRITES).createBlinky();
+    }
+
+    /**
+     * A field computed by a search agrees with the shortest path from every
+     * square, including the step taken when several paths are shortest.
+     */
+    @Test
+    void testMatchesShortestPath() {
+        for (int id = 0; id < board.getSquareCount(); id++) {
+            Square source = board.squareById(id);
+            assertMatches(new DistanceField(board, source, traveller));
+        }
+    }
+
+    /**
+     * A field read from a ready oracle gives the same answers as a field that
+     * was computed.
+     */
+    @Test
+    void testOracleGivesSameField() {
+        DistanceOracle oracle = new DistanceOracle(board, traveller);
+        oracle.build();
+        for (int id = 0; id < board.getSquareCount(); id++) {
+            Square source = board.squareById(id);
+            assertMatches(new DistanceField(board, source, traveller, oracle));
+        }
+    }
+
+    /**
+     * An oracle that is not built yet is not used, and the field is computed
+     * instead.
+     */
+    @Test
+    void testOracleNotReady() {
+        DistanceOracle oracle = new DistanceOracle(board, traveller);
+        assertMatches(new DistanceField(board, board.squareAt(1, 1), traveller, oracle));
+    }
+
+    /**
+     * Squares of another board cannot reach the source.
+     */
+    @Test
+    void testOtherBoard() {
+        Board other = TestBoards.createBoard(new BoardFactory(SPRITES), "   ");
+        DistanceField field = new DistanceField(board, board.squareAt(1, 1), traveller);
+
+        assertThat(field.distance(other.squareAt(1, 0))).isEqualTo(DistanceField.UNREACHABLE);
+        assertThat(field.firstStep(other.squareAt(1, 0))).isNull();
+    }
+
+    private void assertMatches(DistanceField field) {
+        Square source = field.getSource();
+        for (int id = 0; id < board.getSquareCount(); id++) {
+            Square from = board.squareById(id);
+            List<Direction> path = source.isAccessibleTo(traveller)
+                ? Navigation.shortestPath(from, source, traveller) : null;
+            if (path == null || !from.isAccessibleTo(traveller)) {
+                assertThat(field.distance(from)).isEqualTo(DistanceField.UNREACHABLE);
+                assertThat(field.firstStep(from)).isNull();
+            } else {
+                assertThat(field.distance(from)).isEqualTo(path.size());
+                assertThat(field.firstStep(from)).isEqualTo(path.isEmpty() ? null : path.get(0));
+            }
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package jpacman.npc.ghost;
+
+import jpacman.board.Board;
+import jpacman.board.BoardFactory;
+import jpacman.board.Direction;
+import jpacman.board.Square;
+import jpacman.npc.Ghost;
+import jpacman.sprite.PacManSprites;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests the table lookups of the {@link DistanceOracle} against the breadth
+ * first search in {@link Navigation}.
+ */
+public class DistanceOracleTest {
+
+    private static final PacManSprites SPRITES = new PacManSprites();
+
+    private BoardFactory boardFactory;
+    private Ghost traveller;
+
+    /**
+     * Creates the factories and a ghost to walk the board with.
+     */
+    @BeforeEach
+    void setup() {
+        boardFactory = new BoardFactory(SPRITES);
+        traveller = new GhostFactory(SPRITES).createBlinky();
+    }
+
+    /**
+     * Every distance and first step must match the path found by BFS.
+     */
+    @Test
+    void testMatchesShortestPath() {
+        Board board = TestBoards.createBoard(boardFactory,
+            "#######",
+            "#   # #",
+            "# #   #",
+            "#   # #",
+            "#######");
+        DistanceOracle oracle = new DistanceOracle(board, traveller);
+        oracle.build();
+
+        assertThat(oracle.isReady()).isTrue();
+        for (int x1 = 0; x1 < board.getWidth(); x1++) {
+            for (int y1 = 0; y1 < board.getHeight(); y1++) {
+                Square from = board.squareAt(x1, y1);
+                if (!oracle.covers(from)) {
+                    continue;
+                }
+                for (int x2 = 0; x2 < board.getWidth(); x2++) {
+                    for (int y2 = 0; y2 < board.getHeight(); y2++) {
+                        Square to = board.squareAt(x2, y2);
+                        List<Direction> path = Navigation.shortestPath(from, to, traveller);
+                        int expected = path == null ? DistanceOracle.UNREACHABLE : path.size();
+                        Direction step = path == null || path.isEmpty() ? null : path.get(0);
+
+                        assertThat(oracle.distance(from, to)).isEqualTo(expected);
+                        assertThat(oracle.firstStep(from, to)).isEqualTo(step);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * The board wraps around, so the short way may go over the edge.
+     */
+    @Test
+    void testWrapsAround() {
+        Board board = TestBoards.createBoard(boardFactory, "      ");
+        DistanceOracle oracle = new DistanceOracle(board, traveller);
+        oracle.build();
+
+        assertThat(oracle.distance(board.squareAt(0, 0), board.squareAt(5, 0))).isEqualTo(1);
+        assertThat(oracle.firstStep(board.squareAt(0, 0), board.squareAt(5, 0)))
+            .isEqualTo(Direction.WEST);
+    }
+
+    /**
+     * Walls are not part of the table, and the size of the table is reported.
+     */
+    @Test
+    void testReportsSize() {
+        Board board = TestBoards.createBoard(boardFactory, "#  #", "#  #");
+        DistanceOracle oracle = new DistanceOracle(board, traveller);
+
+        assertThat(oracle.covers(board.squareAt(1, 0))).isFalse();
+        oracle.build();
+
+        assertThat(oracle.covers(board.squareAt(0, 0))).isFalse();
+        assertThat(oracle.getSize()).isEqualTo(4);
+        assertThat(oracle.getTableBytes()).isEqualTo(DistanceOracle.estimateTableBytes(4));
+    }
+
+    /**
+     * A board with too many accessible squares is found to be too large once,
+     * and a table shared with another level of the same map stays unbuilt.
+     */
+    @Test
+    void testTooLarge() {
+        String[] rows = new String[DistanceOracle.MAX_SQUARES / 64 + 1];
+        char[] row = new char[64];
+        Arrays.fill(row, ' ');
+        Arrays.fill(rows, new String(row));
+        DistanceOracle first = new DistanceOracle(
+            TestBoards.createBoard(boardFactory, rows), traveller);
+        first.build();
+
+        assertThat(first.isReady()).isFalse();
+        assertThat(first.getTable().isTooLarge()).isTrue();
+
+        DistanceOracle second = new DistanceOracle(
+            TestBoards.createBoard(boardFactory, rows), traveller, first.getTable());
+        second.build();
+
+        assertThat(second.isReady()).isFalse();
+        assertThat(second.getSize()).isEqualTo(0);
+    }
+}
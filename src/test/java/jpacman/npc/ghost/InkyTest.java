@@ -1,7 +1,9 @@
 package jpacman.npc.ghost;
 
+import jpacman.board.Board;
 import jpacman.board.BoardFactory;
 import jpacman.board.Direction;
+import jpacman.board.Square;
 import jpacman.level.Level;
 import jpacman.level.LevelFactory;
 import jpacman.level.Player;
@@ -149,4 +151,38 @@ public class InkyTest {
         assertThat(inky.nextAiMove()).isEqualTo(Optional.of(Direction.EAST));
 
     }
+
+
+    /**
+     * 不考虑地形时，直接算出的终点与沿广度优先搜索的路径再走一遍得到的终点相同，
+     * 包括棋盘宽度或高度为偶数、两个方向一样近的情况。
+     */
+    @Test
+    void testOffsetMatchesSearch() {
+        int[][] sizes = {{4, 5}, {5, 4}, {6, 6}, {7, 7}};
+        for (int[] size : sizes) {
+            Square[][] grid = new Square[size[0]][size[1]];
+            for (int x = 0; x < size[0]; x++) {
+                for (int y = 0; y < size[1]; y++) {
+                    grid[x][y] = (x + y) % 3 == 0
+                        ? boardFactory.createWall() : boardFactory.createGround();
+                }
+            }
+            Board board = boardFactory.createBoard(grid);
+
+            for (int from = 0; from < board.getSquareCount(); from++) {
+                for (int to = 0; to < board.getSquareCount(); to++) {
+                    Square start = board.squareById(from);
+                    Square end = board.squareById(to);
+                    Square expected = end;
+                    for (Direction direction : Navigation.shortestPath(start, end, null)) {
+                        expected = expected.getSquareAt(direction);
+                    }
+                    assertThat(Inky.repeatOffset(start, end))
+                        .as("%dx%d from %d to %d", size[0], size[1], from, to)
+                        .isSameAs(expected);
+                }
+            }
+        }
+    }
 }
@@ -0,0 +1,120 @@
+package jpacman.npc.ghost;
+
+import jpacman.board.Board;
+import jpacman.board.BoardFactory;
+import jpacman.board.Square;
+import jpacman.level.Player;
+import jpacman.level.PlayerFactory;
+import jpacman.npc.Ghost;
+import jpacman.sprite.PacManSprites;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests that {@link PlayerDistances} keeps a field per player up to date and
+ * finds the nearest player as a breadth first search does.
+ */
+public class PlayerDistancesTest {
+
+    private static final PacManSprites SPRITES = new PacManSprites();
+
+    private Board board;
+    private PlayerFactory playerFactory;
+    private PlayerDistances distances;
+
+    /**
+     * Creates an open board and the distances for a ghost on it.
+     */
+    @BeforeEach
+    void setup() {
+        board = TestBoards.createBoard(new BoardFactory(SPRITES),
+            "     ",
+            "     ",
+            "     ",
+            "     ",
+            "     ");
+        playerFactory = new PlayerFactory(SPRITES);
+        Ghost traveller = new GhostFactory(SPRITES).createBlinky();
+        distances = new PlayerDistances(board, traveller);
+    }
+
+    /**
+     * A field towards a player is made when the player is placed, replaced
+     * when it moves and kept when it did not.
+     */
+    @Test
+    void testFieldFollowsPlayer() {
+        Player player = playerFactory.createPacMan();
+        player.occupy(board.squareAt(0, 0));
+        distances.update(player);
+
+        DistanceField field = distances.fieldTo(board.squareAt(0, 0));
+        assertThat(field).isNotNull();
+        assertThat(field.distance(board.squareAt(2, 1))).isEqualTo(3);
+        distances.update(player);
+        assertThat(distances.fieldTo(board.squareAt(0, 0))).isSameAs(field);
+
+        player.occupy(board.squareAt(1, 0));
+        distances.update(player);
+        assertThat(distances.fieldTo(board.squareAt(0, 0))).isNull();
+        assertThat(distances.fieldTo(board.squareAt(1, 0)).distance(board.squareAt(2, 1)))
+            .isEqualTo(2);
+    }
+
+    /**
+     * The nearer player is found whichever was tracked first.
+     */
+    @Test
+    void testNearest() {
+        place(4, 4);
+        Player near = place(2, 1);
+
+        assertThat(distances.nearestTo(board.squareAt(2, 2))).isSameAs(near);
+    }
+
+    /**
+     * When two players are equally near, the one the breadth first search
+     * reaches first wins, which is the one to the north, not the one that
+     * was tracked first.
+     */
+    @Test
+    void testTieGoesToSearchOrder() {
+        place(2, 4);
+        Player north = place(2, 0);
+        Square location = board.squareAt(2, 2);
+
+        assertThat(distances.nearestTo(location)).isSameAs(north);
+        assertThat(BreadthFirstSearch.forCurrentThread().findNearest(Player.class, location))
+            .isSameAs(north);
+    }
+
+    /**
+     * Players placed on the board without being tracked are found as well.
+     */
+    @Test
+    void testUntrackedPlayer() {
+        place(4, 4);
+        Player untracked = playerFactory.createPacMan();
+        untracked.occupy(board.squareAt(2, 1));
+
+        assertThat(distances.nearestTo(board.squareAt(2, 2))).isSameAs(untracked);
+        assertThat(distances.fieldTo(board.squareAt(2, 1))).isNull();
+    }
+
+    /**
+     * Without players there is nobody to find.
+     */
+    @Test
+    void testNoPlayers() {
+        assertThat(distances.nearestTo(board.squareAt(2, 2))).isNull();
+    }
+
+    private Player place(int x, int y) {
+        Player player = playerFactory.createPacMan();
+        player.occupy(board.squareAt(x, y));
+        distances.update(player);
+        return player;
+    }
+}
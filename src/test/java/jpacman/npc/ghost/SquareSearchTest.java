@@ -0,0 +1,226 @@
+package jpacman.npc.ghost;
+
+import jpacman.board.Board;
+import jpacman.board.BoardFactory;
+import jpacman.board.Direction;
+import jpacman.board.Square;
+import jpacman.board.Unit;
+import jpacman.npc.Ghost;
+import jpacman.sprite.PacManSprites;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests the array based breadth first search behind {@link Navigation}
+ * against a plain breadth first search over the squares.
+ */
+public class SquareSearchTest {
+
+    private static final PacManSprites SPRITES = new PacManSprites();
+
+    private BoardFactory boardFactory;
+    private GhostFactory ghostFactory;
+
+    /**
+     * Creates the factories.
+     */
+    @BeforeEach
+    void setup() {
+        boardFactory = new BoardFactory(SPRITES);
+        ghostFactory = new GhostFactory(SPRITES);
+    }
+
+    /**
+     * The search finds exactly the path the plain search finds, between every
+     * pair of squares, with and without a traveller.
+     */
+    @Test
+    void testMatchesPlainSearch() {
+        Board board = TestBoards.createBoard(boardFactory,
+            "#########",
+            "#   #    ",
+            "# #   # #",
+            "    #   #",
+            "## ######");
+        Ghost traveller = ghostFactory.createBlinky();
+        for (int from = 0; from < board.getSquareCount(); from++) {
+            for (int to = 0; to < board.getSquareCount(); to++) {
+                Square start = board.squareById(from);
+                Square end = board.squareById(to);
+                for (Ghost unit : new Ghost[] {traveller, null}) {
+                    assertThat(Navigation.shortestPath(start, end, unit))
+                        .as("from %d to %d", from, to)
+                        .isEqualTo(plainPath(start, end, unit));
+                }
+            }
+        }
+    }
+
+    /**
+     * The nearest unit is the one the plain search finds first.
+     */
+    @Test
+    void testNearestMatchesPlainSearch() {
+        Board board = TestBoards.createBoard(boardFactory,
+            "      ",
+            "      ",
+            "      ",
+            "      ");
+        ghostFactory.createBlinky().occupy(board.squareAt(1, 1));
+        ghostFactory.createInky().occupy(board.squareAt(4, 1));
+        ghostFactory.createClyde().occupy(board.squareAt(2, 3));
+        for (int id = 0; id < board.getSquareCount(); id++) {
+            Square from = board.squareById(id);
+            assertThat(BreadthFirstSearch.forCurrentThread().findNearest(Ghost.class, from))
+                .isSameAs(plainNearest(from));
+        }
+    }
+
+    /**
+     * Finding the nearest unit through the registry of the board gives the
+     * unit the search finds first, also when several are equally near.
+     */
+    @Test
+    void testFindNearestMatchesSearch() {
+        Board board = TestBoards.createBoard(boardFactory,
+            "      ",
+            "      ",
+            "      ",
+            "      ");
+        ghostFactory.createBlinky().occupy(board.squareAt(0, 0));
+        ghostFactory.createBlinky().occupy(board.squareAt(3, 2));
+        ghostFactory.createBlinky().occupy(board.squareAt(1, 2));
+        int tied = 0;
+        for (int id = 0; id < board.getSquareCount(); id++) {
+            Square from = board.squareById(id);
+            if (board.getUnits().nearest(Blinky.class, from) == null) {
+                tied++;
+            }
+            assertThat(Navigation.findNearest(Blinky.class, from))
+                .isSameAs(BreadthFirstSearch.forCurrentThread().findNearest(Blinky.class, from));
+        }
+        assertThat(tied).isPositive();
+    }
+
+    /**
+     * Squares linked by hand without a board can be searched as well.
+     */
+    @Test
+    void testSquaresWithoutBoard() {
+        Square[] ring = new Square[5];
+        for (int i = 0; i < ring.length; i++) {
+            ring[i] = boardFactory.createGround();
+        }
+        for (int i = 0; i < ring.length; i++) {
+            ring[i].link(ring[(i + 1) % ring.length], Direction.EAST);
+            ring[i].link(ring[(i + ring.length - 1) % ring.length], Direction.WEST);
+            ring[i].link(ring[i], Direction.NORTH);
+            ring[i].link(ring[i], Direction.SOUTH);
+        }
+
+        assertThat(Navigation.shortestPath(ring[0], ring[2], null))
+            .containsExactly(Direction.EAST, Direction.EAST)
+            .isEqualTo(plainPath(ring[0], ring[2], null));
+        assertThat(Navigation.shortestPath(ring[0], ring[3], null))
+            .containsExactly(Direction.WEST, Direction.WEST)
+            .isEqualTo(plainPath(ring[0], ring[3], null));
+        assertThat(Navigation.shortestPath(ring[0], boardFactory.createGround(), null))
+            .isNull();
+    }
+
+    /**
+     * A search on a board after a search without one still finds the same
+     * paths, so positions given to squares without a board do not leak.
+     */
+    @Test
+    void testBoardAfterSquaresWithoutBoard() {
+        Square alone = boardFactory.createGround();
+        for (Direction direction : Direction.values()) {
+            alone.link(alone, direction);
+        }
+        assertThat(Navigation.shortestPath(alone, alone, null)).isEmpty();
+
+        Board board = TestBoards.createBoard(boardFactory, "#   #", "  #  ");
+        for (int from = 0; from < board.getSquareCount(); from++) {
+            Square start = board.squareById(from);
+            Square end = board.squareAt(2, 0);
+            assertThat(Navigation.shortestPath(start, end, null))
+                .isEqualTo(plainPath(start, end, null));
+        }
+    }
+
+    /**
+     * Breadth first search keeping its visited squares in a map, as
+     * {@link Navigation} used to.
+     */
+    private static List<Direction> plainPath(Square from, Square to, Unit traveller) {
+        Map<Square, Direction> entered = new HashMap<>();
+        Deque<Square> queue = new ArrayDeque<>();
+        entered.put(from, null);
+        queue.add(from);
+        while (!queue.isEmpty()) {
+            Square square = queue.poll();
+            if (square.equals(to)) {
+                List<Direction> path = new ArrayList<>();
+                while (!square.equals(from)) {
+                    Direction step = entered.get(square);
+                    path.add(step);
+                    square = back(square, step);
+                }
+                Collections.reverse(path);
+                return path;
+            }
+            for (Direction direction : Direction.values()) {
+                Square target = square.getSquareAt(direction);
+                if (!entered.containsKey(target)
+                    && (traveller == null || target.isAccessibleTo(traveller))) {
+                    entered.put(target, direction);
+                    queue.add(target);
+                }
+            }
+        }
+        return null;
+    }
+
+    private static Ghost plainNearest(Square from) {
+        List<Square> seen = new ArrayList<>();
+        Deque<Square> queue = new ArrayDeque<>();
+        seen.add(from);
+        queue.add(from);
+        while (!queue.isEmpty()) {
+            Square square = queue.poll();
+            Ghost ghost = Navigation.findUnit(Ghost.class, square);
+            if (ghost != null) {
+                return ghost;
+            }
+            for (Direction direction : Direction.values()) {
+                Square target = square.getSquareAt(direction);
+                if (!seen.contains(target)) {
+                    seen.add(target);
+                    queue.add(target);
+                }
+            }
+        }
+        return null;
+    }
+
+    private static Square back(Square square, Direction step) {
+        for (Direction direction : Direction.values()) {
+            if (direction.getDeltaX() == -step.getDeltaX()
+                && direction.getDeltaY() == -step.getDeltaY()) {
+                return square.getSquareAt(direction);
+            }
+        }
+        throw new IllegalArgumentException("No opposite of " + step);
+    }
+}
@@ -0,0 +1,35 @@
+package jpacman.npc.ghost;
+
+import jpacman.board.Board;
+import jpacman.board.BoardFactory;
+import jpacman.board.Square;
+
+/**
+ * A test helper utility for building the boards the navigation tests walk on
+ * from rows of text, in which <code>#</code> is a wall and any other
+ * character is ground.
+ */
+public final class TestBoards {
+
+    private TestBoards() {
+    }
+
+    /**
+     * Creates a board from rows of text.
+     *
+     * @param boardFactory The factory to create the squares and the board.
+     * @param rows The rows of the board, from top to bottom, all of the
+     *             same length.
+     * @return The board.
+     */
+    public static Board createBoard(BoardFactory boardFactory, String... rows) {
+        Square[][] grid = new Square[rows[0].length()][rows.length];
+        for (int x = 0; x < grid.length; x++) {
+            for (int y = 0; y < rows.length; y++) {
+                grid[x][y] = rows[y].charAt(x) == '#'
+                    ? boardFactory.createWall() : boardFactory.createGround();
+            }
+        }
+        return boardFactory.createBoard(grid);
+    }
+}
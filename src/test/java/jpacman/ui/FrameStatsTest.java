@@ -0,0 +1,56 @@
+package jpacman.ui;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the percentiles of the {@link FrameStats}.
+ */
+class FrameStatsTest {
+
+    /**
+     * Without frames, every percentile is 0.
+     */
+    @Test
+    void emptyStats() {
+        FrameStats stats = new FrameStats();
+        assertThat(stats.percentile(50)).isZero();
+        assertThat(stats.getRenderedFrames()).isZero();
+    }
+
+    /**
+     * Percentiles are taken over the recorded frame times.
+     */
+    @Test
+    void percentiles() {
+        FrameStats stats = new FrameStats();
+        for (int i = 100; i >= 1; i--) {
+            stats.rendered(i);
+        }
+        stats.skipped();
+
+        assertThat(stats.percentile(0)).isEqualTo(1L);
+        assertThat(stats.percentile(50)).isEqualTo(50L);
+        assertThat(stats.percentile(95)).isEqualTo(95L);
+        assertThat(stats.percentile(100)).isEqualTo(100L);
+        assertThat(stats.getRenderedFrames()).isEqualTo(100L);
+        assertThat(stats.getSkippedFrames()).isEqualTo(1L);
+    }
+
+    /**
+     * Only the most recent frames count.
+     */
+    @Test
+    void oldFramesAreForgotten() {
+        FrameStats stats = new FrameStats();
+        for (int i = 0; i < 10_000; i++) {
+            stats.rendered(1_000_000);
+        }
+        for (int i = 0; i < 1_000; i++) {
+            stats.rendered(1);
+        }
+
+        assertThat(stats.percentile(100)).isEqualTo(1L);
+    }
+}